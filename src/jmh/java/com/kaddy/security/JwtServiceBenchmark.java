@@ -0,0 +1,74 @@
+package com.kaddy.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Per-request token check in the authentication filter: the old path parsed the token three times, deriving the key
+// and building a parser for each parse, where verify() parses once with the key and parser built at startup
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    private JwtService jwtService;
+    private UserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 86400000L);
+        jwtService.init();
+
+        userDetails = User.withUsername("dr.benchmark").password("unused").authorities(List.of()).build();
+        token = jwtService.generateToken(Map.of(JwtService.CLAIM_USER_ID, 42L, JwtService.CLAIM_ROLE, "DOCTOR",
+                JwtService.CLAIM_TOKEN_VERSION, 0, JwtService.CLAIM_HOSPITAL_ID, 7L), userDetails);
+    }
+
+    // extractUsername, then isTokenValid re-reading the subject and the expiry
+    @Benchmark
+    public boolean tripleParse() {
+        String username = legacyClaims(token).getSubject();
+        return username.equals(userDetails.getUsername())
+                && username.equals(legacyClaims(token).getSubject())
+                && !legacyClaims(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public boolean verify() {
+        JwtService.VerifiedToken verified = jwtService.verify(token);
+        return jwtService.isTokenValid(verified, userDetails);
+    }
+
+    private static Claims legacyClaims(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+    }
+}
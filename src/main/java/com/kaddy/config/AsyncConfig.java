@@ -1,51 +1,111 @@
 package com.kaddy.config;
 
+import com.kaddy.monitoring.ExecutorTelemetry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableAsync
+@RequiredArgsConstructor
 public class AsyncConfig {
 
+    private final ExecutorTelemetry executorTelemetry;
+
+    // The same switch moves Tomcat request handling and @Scheduled onto virtual threads
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
     @Bean(name = "taskExecutor")
     public Executor taskExecutor() {
+        return executor("taskExecutor", "Medico-Async-", 10, 20, 500, 60);
+    }
+
+    @Bean(name = "batchExecutor")
+    public Executor batchExecutor() {
+        return executor("batchExecutor", "Medico-Batch-", 5, 10, 100, 120);
+    }
+
+    // Worker threads for persistent batch jobs; jobs beyond the pool wait as PENDING rows rather than in a queue.
+    // Stays on platform threads in either mode since BatchJobService sizes its claims to the pool.
+    @Bean(name = "jobExecutor")
+    public Executor jobExecutor(@Value("${batch-jobs.worker-threads:4}") int workerThreads) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(10);
-        executor.setMaxPoolSize(20);
-        executor.setQueueCapacity(500);
-        executor.setThreadNamePrefix("Medico-Async-");
+        executor.setCorePoolSize(workerThreads);
+        executor.setMaxPoolSize(workerThreads);
+        executor.setQueueCapacity(workerThreads);
+        executor.setThreadNamePrefix("Medico-Job-");
+        ExecutorTelemetry.Pool pool = executorTelemetry.register("jobExecutor", workerThreads, workerThreads);
+        executor.setTaskDecorator(pool);
+        executor.setRejectedExecutionHandler(pool.counting(new ThreadPoolExecutor.AbortPolicy()));
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(60);
         executor.initialize();
         return executor;
     }
 
-    @Bean(name = "batchExecutor")
-    public Executor batchExecutor() {
+    @Bean(name = "reportExecutor")
+    public Executor reportExecutor() {
+        return executor("reportExecutor", "Medico-Report-", 3, 5, 50, 300);
+    }
+
+    // Forks of FanOut scopes. There is no queue: when every thread is busy the caller runs the fork itself, so a
+    // fan-out degrades to sequential reads instead of waiting behind other requests' forks. Its rejected count is the
+    // number of forks that ran on the caller's thread.
+    @Bean(name = "queryExecutor")
+    public Executor queryExecutor() {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("Medico-Query-");
+            executor.setVirtualThreads(true);
+            executor.setTaskDecorator(executorTelemetry.register("queryExecutor", 0, 0));
+            return executor;
+        }
+
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(5);
-        executor.setMaxPoolSize(10);
-        executor.setQueueCapacity(100);
-        executor.setThreadNamePrefix("Medico-Batch-");
+        executor.setCorePoolSize(8);
+        executor.setMaxPoolSize(16);
+        executor.setQueueCapacity(0);
+        ExecutorTelemetry.Pool pool = executorTelemetry.register("queryExecutor", 16, 0);
+        executor.setTaskDecorator(pool);
+        executor.setRejectedExecutionHandler(pool.counting(new ThreadPoolExecutor.CallerRunsPolicy()));
+        executor.setThreadNamePrefix("Medico-Query-");
         executor.setWaitForTasksToCompleteOnShutdown(true);
-        executor.setAwaitTerminationSeconds(120);
+        executor.setAwaitTerminationSeconds(30);
         executor.initialize();
         return executor;
     }
 
-    @Bean(name = "reportExecutor")
-    public Executor reportExecutor() {
+    // In virtual-thread mode each task gets its own virtual thread and the executor only caps how many are in flight,
+    // at the number the platform pool would have accepted (running plus queued). A caller beyond the cap waits for a
+    // slot instead of getting TaskRejectedException; database access is bounded separately by JdbcConcurrencyLimiter.
+    private Executor executor(String name, String threadNamePrefix, int corePoolSize, int maxPoolSize,
+            int queueCapacity, int awaitTerminationSeconds) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(maxPoolSize + queueCapacity);
+            executor.setTaskDecorator(executorTelemetry.register(name, maxPoolSize + queueCapacity, 0));
+            executor.setTaskTerminationTimeout(awaitTerminationSeconds * 1000L);
+            return executor;
+        }
+
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(3);
-        executor.setMaxPoolSize(5);
-        executor.setQueueCapacity(50);
-        executor.setThreadNamePrefix("Medico-Report-");
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        ExecutorTelemetry.Pool pool = executorTelemetry.register(name, maxPoolSize, queueCapacity);
+        executor.setTaskDecorator(pool);
+        executor.setRejectedExecutionHandler(pool.counting(new ThreadPoolExecutor.AbortPolicy()));
         executor.setWaitForTasksToCompleteOnShutdown(true);
-        executor.setAwaitTerminationSeconds(300);
+        executor.setAwaitTerminationSeconds(awaitTerminationSeconds);
         executor.initialize();
         return executor;
     }
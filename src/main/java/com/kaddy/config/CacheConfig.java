@@ -0,0 +1,38 @@
+package com.kaddy.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.List;
+
+@Configuration
+public class CacheConfig {
+
+    public static final String PATIENTS = "patients";
+    public static final String MEDICATIONS = "medications";
+    public static final String INVENTORY_REPORTS = "inventory-reports";
+
+    private static final List<String> CACHE_NAMES = List.of(PATIENTS, MEDICATIONS, INVENTORY_REPORTS);
+
+    // Every cache is bounded; caches created on first use fall back to the default spec
+    @Bean
+    public CacheManager cacheManager(Environment environment,
+            @Value("${cache.specs.default:maximumSize=1000,expireAfterWrite=10m,recordStats}") String defaultSpec) {
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager();
+        caffeineCacheManager.setCaffeine(Caffeine.from(defaultSpec));
+        for (String name : CACHE_NAMES) {
+            String spec = environment.getProperty("cache.specs." + name, defaultSpec);
+            caffeineCacheManager.registerCustomCache(name, Caffeine.from(spec).build());
+        }
+
+        // Puts and evictions are deferred until the surrounding transaction commits, so a rolled-back write never
+        // leaves its result in the cache
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+}
@@ -0,0 +1,47 @@
+package com.kaddy.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Tables created while ids came from IDENTITY columns already hold rows, but a sequence created by ddl-auto starts at
+// 1. Before anything can insert, every entity sequence that is behind its table's MAX(id) is moved past it so the
+// first pooled block never reuses an existing id. Sequences that are already ahead are left alone.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdSequenceAligner {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void alignSequences() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        sessionFactory.getMappingMetamodel().forEachEntityDescriptor(persister -> {
+            if (persister.getGenerator() instanceof SequenceStyleGenerator generator
+                    && persister instanceof AbstractEntityPersister entityPersister) {
+                align(entityPersister.getTableName(), entityPersister.getIdentifierColumnNames()[0],
+                        generator.getDatabaseStructure().getPhysicalName().render(),
+                        generator.getDatabaseStructure().getIncrementSize());
+            }
+        });
+    }
+
+    private void align(String table, String idColumn, String sequence, int incrementSize) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(" + idColumn + "), 0) FROM " + table,
+                Long.class);
+        Long lastValue = jdbcTemplate.queryForObject("SELECT last_value FROM " + sequence, Long.class);
+        long target = (maxId != null ? maxId : 0) + incrementSize;
+        if (lastValue == null || lastValue < target) {
+            jdbcTemplate.queryForObject("SELECT setval(?, ?)", Long.class, sequence, target);
+            log.info("Moved sequence {} to {} past existing ids in {}", sequence, target, table);
+        }
+    }
+}
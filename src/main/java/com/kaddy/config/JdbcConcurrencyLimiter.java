@@ -0,0 +1,158 @@
+package com.kaddy.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// On virtual threads no thread pool bounds how many requests reach the database at once, so a burst could park
+// thousands of callers inside Hikari that then time out together after the connection timeout. This caps checkouts
+// at the pool size with a fair semaphore and fails fast once too many callers are already waiting, which the
+// exception handler turns into a 503. Only installed in virtual-thread mode.
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class JdbcConcurrencyLimiter implements BeanPostProcessor, SmartInitializingSingleton {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final int maxConcurrent;
+    private final int maxWaiting;
+    private final Duration acquireTimeout;
+    private final List<LimitedDataSource> dataSources = new CopyOnWriteArrayList<>();
+
+    public JdbcConcurrencyLimiter(ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${jdbc-limiter.max-concurrent:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrent,
+            @Value("${jdbc-limiter.max-waiting:200}") int maxWaiting,
+            @Value("${jdbc-limiter.acquire-timeout:PT5S}") Duration acquireTimeout) {
+        this.meterRegistry = meterRegistry;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaiting = maxWaiting;
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof LimitedDataSource)) {
+            LimitedDataSource limited = new LimitedDataSource(dataSource, beanName);
+            dataSources.add(limited);
+            return limited;
+        }
+        return bean;
+    }
+
+    // The registry is looked up only once every singleton exists, since this post-processor is created before it
+    @Override
+    public void afterSingletonsInstantiated() {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            dataSources.forEach(dataSource -> dataSource.bindMetrics(registry));
+        }
+    }
+
+    private final class LimitedDataSource extends DelegatingDataSource {
+        private final Semaphore permits = new Semaphore(maxConcurrent, true);
+        private final AtomicInteger waiting = new AtomicInteger();
+        private final String name;
+        private volatile Counter rejected;
+
+        LimitedDataSource(DataSource target, String name) {
+            super(target);
+            this.name = name;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            acquire();
+            try {
+                return releaseOnClose(super.getConnection());
+            } catch (SQLException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            acquire();
+            try {
+                return releaseOnClose(super.getConnection(username, password));
+            } catch (SQLException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        private void acquire() throws SQLException {
+            if (permits.tryAcquire()) {
+                return;
+            }
+            if (waiting.incrementAndGet() > maxWaiting) {
+                waiting.decrementAndGet();
+                reject();
+                throw new SQLTransientConnectionException("Too many requests waiting for a database connection");
+            }
+            try {
+                if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                    reject();
+                    throw new SQLTransientConnectionException(
+                            "Timed out after " + acquireTimeout.toMillis() + " ms waiting for a database connection");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLTransientConnectionException("Interrupted waiting for a database connection", e);
+            } finally {
+                waiting.decrementAndGet();
+            }
+        }
+
+        // The permit goes back exactly once, however many times the caller closes the connection
+        private Connection releaseOnClose(Connection connection) {
+            AtomicBoolean released = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                        if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                            permits.release();
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+
+        private void reject() {
+            Counter counter = rejected;
+            if (counter != null) {
+                counter.increment();
+            }
+        }
+
+        void bindMetrics(MeterRegistry registry) {
+            Gauge.builder("medico.jdbc.limiter.active", permits, p -> maxConcurrent - p.availablePermits())
+                    .tag("datasource", name).register(registry);
+            Gauge.builder("medico.jdbc.limiter.waiting", waiting, AtomicInteger::get).tag("datasource", name)
+                    .register(registry);
+            rejected = Counter.builder("medico.jdbc.limiter.rejected").tag("datasource", name).register(registry);
+        }
+    }
+}
@@ -1,20 +1,90 @@
 package com.kaddy.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 
 import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Configuration
 public class RateLimitingConfig {
 
-    private final Map<String, Bucket> cache = new ConcurrentHashMap<>();
+    // Rough heap cost of a single-bandwidth bucket plus its cache node, excluding the key itself
+    private static final int ENTRY_OVERHEAD_BYTES = 320;
 
-    public Bucket resolveBucket(String key) {
-        return cache.computeIfAbsent(key, k -> createNewBucket());
+    public enum Tier {
+        AUTH, BATCH, DEFAULT
+    }
+
+    private final Cache<String, Bucket> cache;
+    private final Map<Tier, Counter> hits = new EnumMap<>(Tier.class);
+    private final Map<Tier, Counter> rejects = new EnumMap<>(Tier.class);
+    private final Counter evictions;
+    private final long maxBytes;
+
+    public RateLimitingConfig(MeterRegistry meterRegistry,
+            @Value("${rate-limit.store.max-bytes:33554432}") long maxBytes,
+            @Value("${rate-limit.store.idle-expiry:PT10M}") Duration idleExpiry) {
+        this.maxBytes = maxBytes;
+        this.evictions = Counter.builder("medico.ratelimit.evictions").register(meterRegistry);
+        this.cache = Caffeine.newBuilder().maximumWeight(maxBytes)
+                .weigher((String key, Bucket bucket) -> ENTRY_OVERHEAD_BYTES + key.length() * 2)
+                .expireAfterAccess(idleExpiry).evictionListener((String key, Bucket bucket, RemovalCause cause) -> {
+                    if (cause.wasEvicted()) {
+                        evictions.increment();
+                    }
+                }).recordStats().build();
+
+        for (Tier tier : Tier.values()) {
+            String tag = tier.name().toLowerCase();
+            hits.put(tier, Counter.builder("medico.ratelimit.requests").tag("tier", tag).tag("outcome", "allowed")
+                    .register(meterRegistry));
+            rejects.put(tier, Counter.builder("medico.ratelimit.requests").tag("tier", tag).tag("outcome", "rejected")
+                    .register(meterRegistry));
+        }
+        Gauge.builder("medico.ratelimit.buckets", cache, Cache::estimatedSize).register(meterRegistry);
+        Gauge.builder("medico.ratelimit.estimated.bytes", this, RateLimitingConfig::estimatedBytes)
+                .register(meterRegistry);
+    }
+
+    public Bucket resolveBucket(Tier tier, String key) {
+        return cache.get(tier.name() + ':' + key, k -> switch (tier) {
+            case AUTH -> createAuthBucket();
+            case BATCH -> createBatchBucket();
+            case DEFAULT -> createNewBucket();
+        });
+    }
+
+    public void recordOutcome(Tier tier, boolean allowed) {
+        (allowed ? hits : rejects).get(tier).increment();
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("buckets", cache.estimatedSize());
+        stats.put("estimatedBytes", estimatedBytes());
+        stats.put("maxBytes", maxBytes);
+        stats.put("evictions", (long) evictions.count());
+        for (Tier tier : Tier.values()) {
+            String tag = tier.name().toLowerCase();
+            stats.put(tag + ".allowed", (long) hits.get(tier).count());
+            stats.put(tag + ".rejected", (long) rejects.get(tier).count());
+        }
+        return stats;
+    }
+
+    private long estimatedBytes() {
+        return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L);
     }
 
     private Bucket createNewBucket() {
@@ -0,0 +1,88 @@
+package com.kaddy.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Streams the JDK's VirtualThreadPinned events, raised when a virtual thread blocks while it cannot unmount from its
+// carrier (inside synchronized or a native frame). Each pinning site is logged with its stack the first time it is
+// seen and counted per site afterwards, so a regression shows up on the dashboard without flooding the log.
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APPLICATION_PACKAGE = "com.kaddy.";
+
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+            @Value("${virtual-threads.pinned-threshold:PT0.02S}") Duration threshold) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = threshold;
+    }
+
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Reporting virtual threads pinned for longer than {} ms", threshold.toMillis());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        List<RecordedFrame> frames = event.getStackTrace() != null ? event.getStackTrace().getFrames() : List.of();
+        String site = site(frames);
+        Counter.builder("medico.virtual-threads.pinned").tag("site", site).register(meterRegistry).increment();
+
+        if (reportedSites.add(site)) {
+            StringBuilder stack = new StringBuilder();
+            for (RecordedFrame frame : frames) {
+                stack.append("\n\tat ").append(frame.getMethod().getType().getName()).append('.')
+                        .append(frame.getMethod().getName()).append(':').append(frame.getLineNumber());
+            }
+            log.warn("Virtual thread pinned for {} ms at {}{}", event.getDuration().toMillis(), site, stack);
+        }
+    }
+
+    // The innermost application frame names the code to fix; library-only stacks fall back to the top frame
+    private static String site(List<RecordedFrame> frames) {
+        RecordedFrame chosen = null;
+        for (RecordedFrame frame : frames) {
+            if (frame.getMethod().getType().getName().startsWith(APPLICATION_PACKAGE)) {
+                chosen = frame;
+                break;
+            }
+        }
+        if (chosen == null && !frames.isEmpty()) {
+            chosen = frames.get(0);
+        }
+        return chosen != null ? chosen.getMethod().getType().getName() + "." + chosen.getMethod().getName()
+                : "unknown";
+    }
+}
@@ -0,0 +1,75 @@
+package com.kaddy.controller;
+
+import com.kaddy.model.BatchJob;
+import com.kaddy.model.User;
+import com.kaddy.model.enums.BatchJobStatus;
+import com.kaddy.security.SecurityUtils;
+import com.kaddy.service.batch.BatchJobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/batch-jobs")
+@RequiredArgsConstructor
+@PreAuthorize("hasAnyRole('ADMIN', 'HOSPITAL_ADMIN')")
+public class BatchJobController {
+
+    private final BatchJobService batchJobService;
+    private final SecurityUtils securityUtils;
+
+    @PostMapping
+    public ResponseEntity<BatchJobService.JobStatus> submitJob(@RequestParam String jobType,
+            @RequestParam(required = false) Integer chunkSize,
+            @RequestBody(required = false) Map<String, String> parameters) {
+        User user = getCurrentUser();
+        BatchJob job = batchJobService.submit(jobType, getHospitalId(user), parameters, chunkSize, user.getId());
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(batchJobService.getJob(job.getHospitalId(), job.getId()));
+    }
+
+    @GetMapping
+    public ResponseEntity<Page<BatchJobService.JobStatus>> getJobs(
+            @RequestParam(required = false) BatchJobStatus status, @PageableDefault(size = 20) Pageable pageable) {
+        return ResponseEntity.ok(batchJobService.getJobs(getHospitalId(getCurrentUser()), status, pageable));
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<BatchJobService.JobStatus> getJob(@PathVariable Long jobId) {
+        return ResponseEntity.ok(batchJobService.getJob(getHospitalId(getCurrentUser()), jobId));
+    }
+
+    @GetMapping("/{jobId}/chunks")
+    public ResponseEntity<Page<BatchJobService.ChunkStatus>> getChunks(@PathVariable Long jobId,
+            @PageableDefault(size = 50) Pageable pageable) {
+        return ResponseEntity.ok(batchJobService.getChunks(getHospitalId(getCurrentUser()), jobId, pageable));
+    }
+
+    @PostMapping("/{jobId}/cancel")
+    public ResponseEntity<BatchJobService.JobStatus> cancelJob(@PathVariable Long jobId) {
+        return ResponseEntity.ok(batchJobService.cancel(getHospitalId(getCurrentUser()), jobId));
+    }
+
+    @PostMapping("/{jobId}/restart")
+    public ResponseEntity<BatchJobService.JobStatus> restartJob(@PathVariable Long jobId) {
+        return ResponseEntity.ok(batchJobService.restart(getHospitalId(getCurrentUser()), jobId));
+    }
+
+    private User getCurrentUser() {
+        return securityUtils.getCurrentUser().orElseThrow(() -> new RuntimeException("User not authenticated"));
+    }
+
+    private Long getHospitalId(User user) {
+        if (user.getHospital() == null) {
+            throw new RuntimeException("User is not associated with a hospital");
+        }
+        return user.getHospital().getId();
+    }
+}
@@ -3,12 +3,17 @@ package com.kaddy.controller;
 import com.kaddy.dto.DashboardStatsDTO;
 import com.kaddy.service.DashboardService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/dashboard")
 @RequiredArgsConstructor
@@ -22,4 +27,18 @@ public class DashboardController {
         DashboardStatsDTO stats = dashboardService.getDashboardStats();
         return ResponseEntity.ok(stats);
     }
+
+    @GetMapping("/appointment-types")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<DashboardStatsDTO.AppointmentTypeCount>> getAppointmentTypeDistribution(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(30);
+        if (start.isAfter(end)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(dashboardService.getAppointmentTypeDistribution(start.atStartOfDay(),
+                end.plusDays(1).atStartOfDay()));
+    }
 }
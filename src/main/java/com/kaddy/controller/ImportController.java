@@ -0,0 +1,91 @@
+package com.kaddy.controller;
+
+import com.kaddy.model.BatchJob;
+import com.kaddy.model.User;
+import com.kaddy.security.SecurityUtils;
+import com.kaddy.service.batch.BatchJobService;
+import com.kaddy.service.imports.ImportFormat;
+import com.kaddy.service.imports.ImportService;
+import com.kaddy.service.imports.InventoryItemImportHandler;
+import com.kaddy.service.imports.MedicationImportHandler;
+import com.kaddy.service.imports.PatientImportHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+
+// Uploads are the raw request body (text/csv or application/x-ndjson) rather than multipart, so files larger than
+// the multipart limit stream straight to disk. Progress is followed through /api/batch-jobs.
+@RestController
+@RequestMapping("/api/imports")
+@RequiredArgsConstructor
+@PreAuthorize("hasAnyRole('ADMIN', 'HOSPITAL_ADMIN')")
+public class ImportController {
+
+    private static final String TEXT_CSV = "text/csv";
+
+    private final ImportService importService;
+    private final BatchJobService batchJobService;
+    private final SecurityUtils securityUtils;
+
+    @PostMapping(value = "/patients", consumes = { TEXT_CSV, MediaType.APPLICATION_NDJSON_VALUE })
+    public ResponseEntity<BatchJobService.JobStatus> importPatients(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            @RequestParam(required = false) String fileName, @RequestParam(required = false) Integer chunkSize,
+            InputStream body) {
+        return submit(PatientImportHandler.JOB_TYPE, contentType, fileName, chunkSize, body);
+    }
+
+    @PostMapping(value = "/medications", consumes = { TEXT_CSV, MediaType.APPLICATION_NDJSON_VALUE })
+    public ResponseEntity<BatchJobService.JobStatus> importMedications(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            @RequestParam(required = false) String fileName, @RequestParam(required = false) Integer chunkSize,
+            InputStream body) {
+        return submit(MedicationImportHandler.JOB_TYPE, contentType, fileName, chunkSize, body);
+    }
+
+    @PostMapping(value = "/inventory-items", consumes = { TEXT_CSV, MediaType.APPLICATION_NDJSON_VALUE })
+    public ResponseEntity<BatchJobService.JobStatus> importInventoryItems(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            @RequestParam(required = false) String fileName, @RequestParam(required = false) Integer chunkSize,
+            InputStream body) {
+        return submit(InventoryItemImportHandler.JOB_TYPE, contentType, fileName, chunkSize, body);
+    }
+
+    @GetMapping("/{jobId}/errors")
+    public ResponseEntity<StreamingResponseBody> getErrorReport(@PathVariable Long jobId) {
+        Long hospitalId = getHospitalId(getCurrentUser());
+        batchJobService.getJob(hospitalId, jobId);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(TEXT_CSV))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"import-" + jobId + "-errors.csv\"")
+                .body(out -> importService.writeErrorReport(hospitalId, jobId, out));
+    }
+
+    private ResponseEntity<BatchJobService.JobStatus> submit(String jobType, MediaType contentType, String fileName,
+            Integer chunkSize, InputStream body) {
+        User user = getCurrentUser();
+        ImportFormat format = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType) ? ImportFormat.NDJSON
+                : ImportFormat.CSV;
+        BatchJob job = importService.submit(jobType, getHospitalId(user), format, body, fileName, chunkSize,
+                user.getId());
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(batchJobService.getJob(job.getHospitalId(), job.getId()));
+    }
+
+    private User getCurrentUser() {
+        return securityUtils.getCurrentUser().orElseThrow(() -> new RuntimeException("User not authenticated"));
+    }
+
+    private Long getHospitalId(User user) {
+        if (user.getHospital() == null) {
+            throw new RuntimeException("User is not associated with a hospital");
+        }
+        return user.getHospital().getId();
+    }
+}
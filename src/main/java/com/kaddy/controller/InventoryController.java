@@ -1,10 +1,15 @@
 package com.kaddy.controller;
 
+import com.kaddy.dto.GoodsReceiptRequest;
 import com.kaddy.model.*;
 import com.kaddy.model.enums.InventoryCategory;
 import com.kaddy.model.enums.PurchaseOrderStatus;
 import com.kaddy.security.SecurityUtils;
 import com.kaddy.service.InventoryService;
+import com.kaddy.service.PharmacyLookupIndex;
+import com.kaddy.service.ReorderForecastEngine;
+import com.kaddy.service.StockLedgerService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -19,8 +24,10 @@ import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/inventory")
@@ -29,6 +36,8 @@ import java.util.Map;
 public class InventoryController {
 
     private final InventoryService inventoryService;
+    private final StockLedgerService stockLedgerService;
+    private final ReorderForecastEngine reorderForecastEngine;
     private final SecurityUtils securityUtils;
 
     @PostMapping("/items")
@@ -70,6 +79,22 @@ public class InventoryController {
         return ResponseEntity.ok(inventoryService.getInventoryItem(id));
     }
 
+    @GetMapping("/items/barcode/{barcode}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'HOSPITAL_ADMIN', 'PHARMACIST', 'DOCTOR', 'NURSE')")
+    public ResponseEntity<InventoryItem> getInventoryItemByBarcode(@PathVariable String barcode) {
+        Long hospitalId = getCurrentUserHospitalId();
+        return ResponseEntity.ok(inventoryService.getInventoryItemByBarcode(hospitalId, barcode));
+    }
+
+    @GetMapping("/lookup")
+    @PreAuthorize("hasAnyRole('ADMIN', 'HOSPITAL_ADMIN', 'PHARMACIST', 'DOCTOR', 'NURSE')")
+    public ResponseEntity<List<PharmacyLookupIndex.Match>> lookupInventoryItems(@RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        Long hospitalId = getCurrentUserHospitalId();
+        return ResponseEntity
+                .ok(inventoryService.lookupInventoryItems(hospitalId, q, Math.min(Math.max(limit, 1), 50)));
+    }
+
     @GetMapping("/items")
     @PreAuthorize("hasAnyRole('ADMIN', 'HOSPITAL_ADMIN', 'PHARMACIST', 'DOCTOR', 'NURSE')")
     public ResponseEntity<Page<InventoryItem>> getInventoryItems(@RequestParam(required = false) String search,
@@ -171,6 +196,16 @@ public class InventoryController {
         return ResponseEntity.ok(inventoryService.getStockMovements(itemId, PageRequest.of(0, limit)));
     }
 
+    @GetMapping("/items/{itemId}/balance")
+    @PreAuthorize("hasAnyRole('ADMIN', 'HOSPITAL_ADMIN', 'PHARMACIST')")
+    public ResponseEntity<Map<String, Object>> getStockBalance(@PathVariable Long itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        Long hospitalId = getCurrentUserHospitalId();
+        // Closing balance of the given day
+        return ResponseEntity
+                .ok(stockLedgerService.getBalanceAt(hospitalId, itemId, date.plusDays(1).atStartOfDay()));
+    }
+
     @PostMapping("/vendors")
     @PreAuthorize("hasAnyRole('ADMIN', 'HOSPITAL_ADMIN')")
     public ResponseEntity<Vendor> createVendor(@RequestParam String vendorCode, @RequestParam String name,
@@ -273,12 +308,27 @@ public class InventoryController {
         return ResponseEntity.ok(po);
     }
 
+    @PostMapping("/purchase-orders/{poId}/receipts")
+    @PreAuthorize("hasAnyRole('ADMIN', 'HOSPITAL_ADMIN', 'PHARMACIST')")
+    public ResponseEntity<PurchaseOrder> receiveGoodsReceipt(@PathVariable Long poId,
+            @Valid @RequestBody GoodsReceiptRequest receipt) {
+        Long userId = getCurrentUserId();
+        return ResponseEntity.ok(inventoryService.receiveGoods(poId, receipt, userId));
+    }
+
     @PostMapping("/purchase-orders/{poId}/cancel")
     @PreAuthorize("hasAnyRole('ADMIN', 'HOSPITAL_ADMIN')")
     public ResponseEntity<PurchaseOrder> cancelPurchaseOrder(@PathVariable Long poId, @RequestParam String reason) {
         return ResponseEntity.ok(inventoryService.cancelPurchaseOrder(poId, reason));
     }
 
+    @PostMapping("/purchase-orders/reorder-plan")
+    @PreAuthorize("hasAnyRole('ADMIN', 'HOSPITAL_ADMIN', 'PHARMACIST')")
+    public CompletableFuture<ResponseEntity<ReorderForecastEngine.ReorderPlan>> runReorderPlan() {
+        Long hospitalId = getCurrentUserHospitalId();
+        return reorderForecastEngine.planAsync(hospitalId).thenApply(ResponseEntity::ok);
+    }
+
     @GetMapping("/purchase-orders/overdue")
     @PreAuthorize("hasAnyRole('ADMIN', 'HOSPITAL_ADMIN', 'PHARMACIST')")
     public ResponseEntity<List<PurchaseOrder>> getOverdueOrders() {
@@ -293,6 +343,20 @@ public class InventoryController {
         return ResponseEntity.ok(inventoryService.getInventoryReport(hospitalId));
     }
 
+    @GetMapping("/reports/valuation")
+    @PreAuthorize("hasAnyRole('ADMIN', 'HOSPITAL_ADMIN')")
+    public ResponseEntity<Map<String, Object>> getStockValuation(@RequestParam YearMonth month) {
+        Long hospitalId = getCurrentUserHospitalId();
+        return ResponseEntity.ok(stockLedgerService.getMonthEndValuation(hospitalId, month));
+    }
+
+    @PostMapping("/reports/valuation/close")
+    @PreAuthorize("hasAnyRole('ADMIN', 'HOSPITAL_ADMIN')")
+    public ResponseEntity<Map<String, Object>> closeStockLedger() {
+        Long hospitalId = getCurrentUserHospitalId();
+        return ResponseEntity.ok(Map.of("monthsClosed", stockLedgerService.closeCompletedMonths(hospitalId)));
+    }
+
     private Long getCurrentUserHospitalId() {
         User currentUser = securityUtils.getCurrentUser()
                 .orElseThrow(() -> new RuntimeException("User not authenticated"));
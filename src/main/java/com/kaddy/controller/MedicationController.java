@@ -2,6 +2,7 @@ package com.kaddy.controller;
 
 import com.kaddy.dto.MedicationDTO;
 import com.kaddy.service.MedicationService;
+import com.kaddy.service.PharmacyLookupIndex;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -42,6 +43,12 @@ public class MedicationController {
         return ResponseEntity.ok(medicationService.searchMedicationsByName(name));
     }
 
+    @GetMapping("/lookup")
+    public ResponseEntity<List<PharmacyLookupIndex.Match>> lookupMedications(@RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(medicationService.lookupMedications(q, Math.min(Math.max(limit, 1), 50)));
+    }
+
     @GetMapping("/category/{category}")
     public ResponseEntity<List<MedicationDTO>> getMedicationsByCategory(@PathVariable String category) {
         return ResponseEntity.ok(medicationService.getMedicationsByCategory(category));
@@ -37,6 +37,12 @@ public class MedicineOrderController {
         return ResponseEntity.ok(orderService.getAllOrders());
     }
 
+    @GetMapping("/availability/{medicationId}")
+    public ResponseEntity<Map<String, Object>> getAvailability(@PathVariable Long medicationId) {
+        return ResponseEntity.ok(Map.of("medicationId", medicationId, "availableToPromise",
+                orderService.getAvailableToPromise(medicationId)));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<MedicineOrderDTO> getOrderById(@PathVariable Long id) {
         return ResponseEntity.ok(orderService.getOrderById(id));
@@ -1,13 +1,19 @@
 package com.kaddy.controller;
 
+import com.kaddy.config.RateLimitingConfig;
+import com.kaddy.monitoring.ExecutorTelemetry;
+import com.kaddy.monitoring.ExecutorTelemetry.ExecutorSnapshot;
 import com.kaddy.monitoring.PerformanceMonitor;
+import com.kaddy.service.AdmissionControl;
+import com.kaddy.service.AdmissionControl.AdmissionSnapshot;
+import com.kaddy.service.SecondLevelCacheService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadMXBean;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -16,6 +22,10 @@ import java.util.Map;
 public class MonitoringController {
 
     private final PerformanceMonitor performanceMonitor;
+    private final RateLimitingConfig rateLimitingConfig;
+    private final SecondLevelCacheService secondLevelCacheService;
+    private final ExecutorTelemetry executorTelemetry;
+    private final AdmissionControl admissionControl;
 
     @GetMapping("/metrics")
     public ResponseEntity<Map<String, PerformanceMonitor.MethodMetrics>> getAllMetrics() {
@@ -48,14 +58,37 @@ public class MonitoringController {
         return ResponseEntity.ok(health);
     }
 
+    @GetMapping("/rate-limits")
+    public ResponseEntity<Map<String, Object>> getRateLimitStatistics() {
+        return ResponseEntity.ok(rateLimitingConfig.getStatistics());
+    }
+
+    @GetMapping("/caches/entities")
+    public ResponseEntity<List<String>> getCachedEntities() {
+        return ResponseEntity.ok(secondLevelCacheService.getCachedEntityNames());
+    }
+
+    @DeleteMapping("/caches/entities/{entityName}")
+    public ResponseEntity<String> evictEntityCache(@PathVariable String entityName,
+            @RequestParam(required = false) Long id) {
+        secondLevelCacheService.evict(entityName, id);
+        return ResponseEntity.ok("Second-level cache evicted for " + entityName);
+    }
+
+    @DeleteMapping("/caches/entities")
+    public ResponseEntity<String> evictAllEntityCaches() {
+        secondLevelCacheService.evictAll();
+        return ResponseEntity.ok("All second-level cache regions evicted");
+    }
+
     @GetMapping("/thread-pools")
-    public ResponseEntity<Map<String, String>> getThreadPoolStatus() {
-        Map<String, String> status = new HashMap<>();
-        status.put("status", "Thread pools configured and operational");
-        status.put("taskExecutor", "10-20 threads, queue: 500");
-        status.put("batchExecutor", "5-10 threads, queue: 100");
-        status.put("reportExecutor", "3-5 threads, queue: 50");
-        return ResponseEntity.ok(status);
+    public ResponseEntity<List<ExecutorSnapshot>> getThreadPoolStatus() {
+        return ResponseEntity.ok(executorTelemetry.snapshot());
+    }
+
+    @GetMapping("/admission")
+    public ResponseEntity<AdmissionSnapshot> getAdmissionStatus() {
+        return ResponseEntity.ok(admissionControl.snapshot());
     }
 
     public record SystemHealth(int availableProcessors, long totalMemory, long freeMemory, long maxMemory,
@@ -3,6 +3,7 @@ package com.kaddy.controller;
 import com.kaddy.dto.AuthenticationResponse;
 import com.kaddy.model.User;
 import com.kaddy.repository.UserRepository;
+import com.kaddy.security.TokenVersionRegistry;
 import com.kaddy.service.PermissionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,6 +20,7 @@ public class UserController {
 
     private final UserRepository userRepository;
     private final PermissionService permissionService;
+    private final TokenVersionRegistry tokenVersionRegistry;
 
     @GetMapping
     public ResponseEntity<?> getAllUsers(@RequestParam(required = false) String role) {
@@ -93,6 +95,7 @@ public class UserController {
 
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
+        String previousUsername = user.getUsername();
 
         if (updateRequest.getUsername() != null && !updateRequest.getUsername().isEmpty()) {
             user.setUsername(updateRequest.getUsername());
@@ -110,7 +113,16 @@ public class UserController {
             user.setPhone(updateRequest.getPhone());
         }
 
+        boolean identityChanged = updateRequest.getUsername() != null && !updateRequest.getUsername().isEmpty()
+                && !updateRequest.getUsername().equals(previousUsername);
+        if (identityChanged) {
+            tokenVersionRegistry.bumpVersion(user);
+        }
+
         User updatedUser = userRepository.save(user);
+        if (identityChanged) {
+            tokenVersionRegistry.record(updatedUser.getId(), updatedUser.getTokenVersion());
+        }
         log.info("User {} updated successfully", id);
 
         AuthenticationResponse response = AuthenticationResponse.builder().userId(updatedUser.getId())
@@ -130,6 +142,7 @@ public class UserController {
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
 
         userRepository.deleteById(id);
+        tokenVersionRegistry.revokeAll(id);
         log.info("User {} deleted successfully", id);
 
         return ResponseEntity.noContent().build();
@@ -147,7 +160,9 @@ public class UserController {
         }
 
         user.setRole(com.kaddy.model.enums.UserRole.ADMIN);
+        tokenVersionRegistry.bumpVersion(user);
         User updatedUser = userRepository.save(user);
+        tokenVersionRegistry.record(updatedUser.getId(), updatedUser.getTokenVersion());
         log.info("User {} promoted to Admin successfully", id);
 
         AuthenticationResponse response = AuthenticationResponse.builder().userId(updatedUser.getId())
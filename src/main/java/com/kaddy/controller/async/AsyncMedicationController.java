@@ -63,19 +63,6 @@ public class AsyncMedicationController {
 
     @GetMapping("/combined-report")
     public CompletableFuture<ResponseEntity<CombinedInventoryReport>> getCombinedReportAsync() {
-        CompletableFuture<MedicationReport> reportFuture = asyncMedicationService.generateReportAsync();
-        CompletableFuture<InventoryAlerts> alertsFuture = asyncMedicationService.getInventoryAlertsAsync();
-        CompletableFuture<List<ReorderSuggestion>> reorderFuture = asyncMedicationService
-                .generateReorderSuggestionsAsync();
-
-        return CompletableFuture.allOf(reportFuture, alertsFuture, reorderFuture).thenApply(v -> {
-            CombinedInventoryReport combined = new CombinedInventoryReport(reportFuture.join(), alertsFuture.join(),
-                    reorderFuture.join());
-            return ResponseEntity.ok(combined);
-        });
-    }
-
-    public record CombinedInventoryReport(MedicationReport report, InventoryAlerts alerts,
-            List<ReorderSuggestion> reorderSuggestions) {
+        return asyncMedicationService.generateCombinedReportAsync().thenApply(ResponseEntity::ok);
     }
 }
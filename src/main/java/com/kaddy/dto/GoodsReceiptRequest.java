@@ -0,0 +1,58 @@
+package com.kaddy.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GoodsReceiptRequest {
+
+    private String grnNumber;
+
+    private String invoiceNumber;
+
+    private String notes;
+
+    @NotEmpty(message = "Receipt lines are required")
+    @Valid
+    private List<GoodsReceiptLine> lines = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class GoodsReceiptLine {
+        @NotNull(message = "Item ID is required")
+        private Long itemId;
+
+        // Required only when the item is on more than one line of the purchase order
+        private Long purchaseOrderItemId;
+
+        @NotNull(message = "Received quantity is required")
+        @Positive(message = "Received quantity must be positive")
+        private Integer receivedQuantity;
+
+        @NotBlank(message = "Batch number is required")
+        private String batchNumber;
+
+        private LocalDate manufacturingDate;
+
+        @NotNull(message = "Expiry date is required")
+        private LocalDate expiryDate;
+
+        private BigDecimal purchasePrice;
+
+        private String notes;
+    }
+}
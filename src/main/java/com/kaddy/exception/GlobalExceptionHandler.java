@@ -1,8 +1,11 @@
 package com.kaddy.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -72,6 +75,31 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.FORBIDDEN);
     }
 
+    // No database connection could be had in time: the pool or the JDBC concurrency limiter is saturated
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    public ResponseEntity<ErrorResponse> handleCannotCreateTransactionException(CannotCreateTransactionException ex) {
+        String errorId = UUID.randomUUID().toString();
+
+        log.warn("Database unavailable [Error ID: {}]: {}", errorId, ex.getMostSpecificCause().getMessage());
+
+        ErrorResponse errorResponse = new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "The service is busy, please retry shortly", errorId, LocalDateTime.now());
+        return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    // An executor's threads and queue are all taken; ExecutorTelemetry has counted the rejection
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<ErrorResponse> handleTaskRejectedException(TaskRejectedException ex) {
+        String errorId = UUID.randomUUID().toString();
+
+        log.warn("Task rejected [Error ID: {}]: {}", errorId, ex.getMessage());
+
+        ErrorResponse errorResponse = new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "The service is busy, please retry shortly", errorId, LocalDateTime.now());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5")
+                .body(errorResponse);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGlobalException(Exception ex) {
         String errorId = UUID.randomUUID().toString();
@@ -0,0 +1,92 @@
+package com.kaddy.filter;
+
+import com.kaddy.service.AdmissionControl;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+// Puts the low-priority endpoints through AdmissionControl and leaves every other request alone. A shed request gets a
+// 503 with Retry-After. For the async endpoints the slot is held until the response completes, i.e. until the returned
+// future finishes rather than when the request thread hands off.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final Pattern ASYNC_LOW_PRIORITY_PATH = Pattern.compile("^/api/async/[^/]+/"
+            + "(batch|batch-process|stock/batch|bulk-import|report|combined-report|reorder/suggestions)$");
+    private static final Pattern REPORT_PATH = Pattern.compile("^/api/(billing|insurance|inventory)/reports/.+$");
+
+    private final AdmissionControl admissionControl;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        if (!isLowPriority(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (!admissionControl.tryAdmit()) {
+            long retryAfter = admissionControl.getRetryAfter().toSeconds();
+
+            log.warn("Shedding low-priority request {} {} - retry in {} seconds", request.getMethod(),
+                    request.getRequestURI(), retryAfter);
+
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.addHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+            response.setContentType("application/json");
+            response.getWriter().write(String.format("{\"error\": \"Service busy\", \"message\": "
+                    + "\"The service is busy. Please try again in %d seconds.\", \"status\": 503}",
+                    retryAfter));
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        admissionControl.release();
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                admissionControl.release();
+            }
+        }
+    }
+
+    // Report GETs only: closing a valuation period is an explicit operator action and is never shed
+    private boolean isLowPriority(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return ASYNC_LOW_PRIORITY_PATH.matcher(path).matches()
+                || "GET".equalsIgnoreCase(request.getMethod()) && REPORT_PATH.matcher(path).matches();
+    }
+}
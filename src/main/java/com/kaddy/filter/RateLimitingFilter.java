@@ -1,6 +1,7 @@
 package com.kaddy.filter;
 
 import com.kaddy.config.RateLimitingConfig;
+import com.kaddy.security.AuthenticatedUser;
 import io.github.bucket4j.Bucket;
 import io.github.bucket4j.ConsumptionProbe;
 import jakarta.servlet.FilterChain;
@@ -10,16 +11,22 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.regex.Pattern;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class RateLimitingFilter extends OncePerRequestFilter {
 
+    private static final Pattern BATCH_PATH = Pattern
+            .compile("^/api/async/[^/]+/(batch|batch-process|stock/batch)(/.*)?$");
+
     private final RateLimitingConfig rateLimitingConfig;
 
     @Override
@@ -31,11 +38,13 @@ public class RateLimitingFilter extends OncePerRequestFilter {
             return;
         }
 
-        String clientIp = getClientIP(request);
+        RateLimitingConfig.Tier tier = resolveTier(request);
+        String clientKey = resolveClientKey(request, tier);
 
-        Bucket bucket = rateLimitingConfig.resolveBucket(clientIp);
+        Bucket bucket = rateLimitingConfig.resolveBucket(tier, clientKey);
 
         ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
+        rateLimitingConfig.recordOutcome(tier, probe.isConsumed());
 
         if (probe.isConsumed()) {
             response.addHeader("X-Rate-Limit-Remaining", String.valueOf(probe.getRemainingTokens()));
@@ -43,7 +52,7 @@ public class RateLimitingFilter extends OncePerRequestFilter {
         } else {
             long waitForRefill = probe.getNanosToWaitForRefill() / 1_000_000_000;
 
-            log.warn("Rate limit exceeded for IP: {} - must wait {} seconds", clientIp, waitForRefill);
+            log.warn("Rate limit exceeded for {} on {} tier - must wait {} seconds", clientKey, tier, waitForRefill);
 
             response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
             response.addHeader("X-Rate-Limit-Retry-After-Seconds", String.valueOf(waitForRefill));
@@ -54,6 +63,28 @@ public class RateLimitingFilter extends OncePerRequestFilter {
         }
     }
 
+    private RateLimitingConfig.Tier resolveTier(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (path.startsWith("/api/auth/")) {
+            return RateLimitingConfig.Tier.AUTH;
+        }
+        if (BATCH_PATH.matcher(path).matches()) {
+            return RateLimitingConfig.Tier.BATCH;
+        }
+        return RateLimitingConfig.Tier.DEFAULT;
+    }
+
+    // Authenticated callers get their own bucket so users behind a shared proxy do not throttle each other
+    private String resolveClientKey(HttpServletRequest request, RateLimitingConfig.Tier tier) {
+        if (tier != RateLimitingConfig.Tier.AUTH) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+                return "user:" + user.getUserId();
+            }
+        }
+        return "ip:" + getClientIP(request);
+    }
+
     private String getClientIP(HttpServletRequest request) {
         String xfHeader = request.getHeader("X-Forwarded-For");
         if (xfHeader == null || xfHeader.isEmpty()) {
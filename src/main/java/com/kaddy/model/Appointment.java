@@ -1,5 +1,6 @@
 package com.kaddy.model;
 
+import com.kaddy.model.enums.AppointmentCategory;
 import com.kaddy.model.enums.AppointmentStatus;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
@@ -15,7 +16,10 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "appointments")
+@EntityListeners(EntityWriteListener.class)
+@Table(name = "appointments", indexes = {
+        @Index(name = "idx_appointment_date_time", columnList = "appointment_date_time"),
+        @Index(name = "idx_appointment_category_date", columnList = "category, appointment_date_time")})
 public class Appointment extends BaseEntity {
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -39,6 +43,10 @@ public class Appointment extends BaseEntity {
     @Column(columnDefinition = "TEXT")
     private String reasonForVisit;
 
+    @Enumerated(EnumType.STRING)
+    @Column(length = 32)
+    private AppointmentCategory category;
+
     @Column(columnDefinition = "TEXT")
     private String symptoms;
 
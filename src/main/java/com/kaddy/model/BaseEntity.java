@@ -13,8 +13,10 @@ import java.time.LocalDateTime;
 @EntityListeners(AuditingEntityListener.class)
 public abstract class BaseEntity {
 
+    // One pooled sequence per entity (<entity>_seq, increment 50): ids are handed out in memory and inserts can be
+    // JDBC-batched, which IDENTITY prevents. Existing tables are migrated with db/pooled-sequences.sql.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
     private Long id;
 
     @CreatedDate
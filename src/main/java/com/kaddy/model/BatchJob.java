@@ -0,0 +1,72 @@
+package com.kaddy.model;
+
+import com.kaddy.model.enums.BatchJobStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "batch_jobs", indexes = {@Index(name = "idx_batch_job_status", columnList = "status, heartbeatAt"),
+        @Index(name = "idx_batch_job_hospital", columnList = "hospitalId, createdAt")})
+public class BatchJob extends BaseEntity {
+
+    @Column(nullable = false, length = 100)
+    private String jobType;
+
+    private Long hospitalId;
+
+    private Long submittedBy;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    private Map<String, String> parameters = new HashMap<>();
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private BatchJobStatus status = BatchJobStatus.PENDING;
+
+    @Column(nullable = false)
+    private Integer chunkSize;
+
+    // Cursor of the last item in the last committed chunk; a resumed job reads the items after it
+    private String lastCursor;
+
+    @Column(nullable = false)
+    private Integer chunksCommitted = 0;
+
+    @Column(nullable = false)
+    private Long processedCount = 0L;
+
+    @Column(nullable = false)
+    private Long failedCount = 0L;
+
+    // Handler's estimate taken when the job first starts; null when the handler cannot count cheaply
+    private Long totalCount;
+
+    @Column(nullable = false)
+    private Boolean cancelRequested = false;
+
+    // Node that holds the job while it runs; another node may take it over once the heartbeat goes stale
+    @Column(length = 100)
+    private String workerNode;
+
+    private LocalDateTime heartbeatAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime completedAt;
+
+    @Column(length = 1000)
+    private String lastError;
+}
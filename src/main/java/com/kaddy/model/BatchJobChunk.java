@@ -0,0 +1,50 @@
+package com.kaddy.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Written in the same transaction as the chunk's work, so a row exists exactly for each committed chunk
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "batch_job_chunks", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_batch_job_chunk_number", columnNames = {"batch_job_id", "chunkNumber"})})
+public class BatchJobChunk extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "batch_job_id", nullable = false)
+    private BatchJob batchJob;
+
+    @Column(nullable = false)
+    private Integer chunkNumber;
+
+    private String startCursor;
+
+    private String endCursor;
+
+    @Column(nullable = false)
+    private Integer itemCount;
+
+    @Column(nullable = false)
+    private Integer failedCount = 0;
+
+    // Set when the chunk failed as a whole and its items were retried one transaction each
+    @Column(nullable = false)
+    private Boolean retriedPerItem = false;
+
+    @Column(nullable = false)
+    private Long durationMs;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    private List<String> errors = new ArrayList<>();
+}
@@ -0,0 +1,29 @@
+package com.kaddy.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "document_sequences", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_document_sequence_scope_prefix", columnNames = {"scopeId", "prefix"})})
+public class DocumentSequence extends BaseEntity {
+
+    // Hospital id, or 0 for numbers that are unique across all hospitals
+    @Column(nullable = false)
+    private Long scopeId;
+
+    // Full document prefix including its period, e.g. INV-202610-
+    @Column(nullable = false, length = 50)
+    private String prefix;
+
+    // First value not yet handed out to any node
+    @Column(nullable = false)
+    private Long nextValue;
+}
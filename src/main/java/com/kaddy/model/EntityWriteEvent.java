@@ -0,0 +1,10 @@
+package com.kaddy.model;
+
+// Published synchronously from inside the writing transaction, so a listener that needs the outcome registers its
+// own after-commit work
+public record EntityWriteEvent(Object entity, Kind kind) {
+
+    public enum Kind {
+        PERSISTED, UPDATED, REMOVED
+    }
+}
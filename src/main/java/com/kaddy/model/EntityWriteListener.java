@@ -0,0 +1,31 @@
+package com.kaddy.model;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+// Turns JPA lifecycle callbacks into application events so the entities don't depend on the services reacting to them
+@Component
+@RequiredArgsConstructor
+public class EntityWriteListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    public void onPersist(Object entity) {
+        eventPublisher.publishEvent(new EntityWriteEvent(entity, EntityWriteEvent.Kind.PERSISTED));
+    }
+
+    @PostUpdate
+    public void onUpdate(Object entity) {
+        eventPublisher.publishEvent(new EntityWriteEvent(entity, EntityWriteEvent.Kind.UPDATED));
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        eventPublisher.publishEvent(new EntityWriteEvent(entity, EntityWriteEvent.Kind.REMOVED));
+    }
+}
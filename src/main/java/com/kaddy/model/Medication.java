@@ -16,6 +16,7 @@ import java.time.LocalDate;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@EntityListeners(EntityWriteListener.class)
 @Table(name = "medications")
 public class Medication extends BaseEntity {
 
@@ -19,6 +19,7 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@EntityListeners(EntityWriteListener.class)
 @Table(name = "patients")
 public class Patient extends BaseEntity {
 
@@ -9,6 +9,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 
@@ -17,6 +19,8 @@ import java.math.BigDecimal;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "service-items")
 @Table(name = "service_items", indexes = {@Index(name = "idx_service_item_hospital", columnList = "hospital_id"),
         @Index(name = "idx_service_item_code", columnList = "code"),
         @Index(name = "idx_service_item_category", columnList = "category")})
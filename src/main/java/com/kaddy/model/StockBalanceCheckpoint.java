@@ -0,0 +1,44 @@
+package com.kaddy.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "stock_balance_checkpoints", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_stock_checkpoint_item_as_of", columnNames = {"inventory_item_id", "asOf"})},
+        indexes = {@Index(name = "idx_stock_checkpoint_hospital_as_of", columnList = "hospital_id, asOf")})
+public class StockBalanceCheckpoint extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "hospital_id", nullable = false)
+    private Hospital hospital;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "inventory_item_id", nullable = false)
+    private InventoryItem inventoryItem;
+
+    // Balance covers every movement dated strictly before this instant (the first instant of the next month)
+    @Column(nullable = false)
+    private LocalDateTime asOf;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    // Weighted-average cost of the quantity on hand
+    @Column(precision = 14, scale = 2, nullable = false)
+    private BigDecimal stockValue;
+
+    // Movements applied since the previous checkpoint
+    @Column(nullable = false)
+    private Integer movementCount;
+}
@@ -16,7 +16,7 @@ import java.time.LocalDate;
 @AllArgsConstructor
 @Entity
 @Table(name = "stock_batches", indexes = {@Index(name = "idx_stock_batch_item", columnList = "inventory_item_id"),
-        @Index(name = "idx_stock_batch_hospital", columnList = "hospital_id"),
+        @Index(name = "idx_stock_batch_hospital_expiry", columnList = "hospital_id, expiryDate"),
         @Index(name = "idx_stock_batch_expiry", columnList = "expiryDate"),
         @Index(name = "idx_stock_batch_number", columnList = "batchNumber")})
 public class StockBatch extends BaseEntity {
@@ -0,0 +1,28 @@
+package com.kaddy.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Marks a month as closed for a hospital, including a month that left no checkpoints because nothing was on hand
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "stock_ledger_closures", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_stock_ledger_closure_hospital_as_of", columnNames = {"hospital_id", "asOf"})})
+public class StockLedgerClosure extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "hospital_id", nullable = false)
+    private Hospital hospital;
+
+    // Same instant as the month's checkpoints: the first instant of the following month
+    @Column(nullable = false)
+    private LocalDateTime asOf;
+}
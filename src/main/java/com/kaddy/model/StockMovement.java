@@ -7,17 +7,22 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+// Append-only stock ledger: rows are never updated or deleted, a correction is recorded as a new movement. Balances at
+// a point in time are derived from StockBalanceCheckpoint plus the movements after it.
 @Data
 @EqualsAndHashCode(callSuper = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "stock_movements", indexes = {@Index(name = "idx_stock_movement_item", columnList = "inventory_item_id"),
-        @Index(name = "idx_stock_movement_hospital", columnList = "hospital_id"),
+@Immutable
+@Table(name = "stock_movements", indexes = {
+        @Index(name = "idx_stock_movement_item_date", columnList = "inventory_item_id, movementDate"),
+        @Index(name = "idx_stock_movement_hospital_date", columnList = "hospital_id, movementDate"),
         @Index(name = "idx_stock_movement_type", columnList = "movementType"),
         @Index(name = "idx_stock_movement_date", columnList = "movementDate")})
 public class StockMovement extends BaseEntity {
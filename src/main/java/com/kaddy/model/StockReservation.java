@@ -0,0 +1,47 @@
+package com.kaddy.model;
+
+import com.kaddy.model.enums.ReservationStatus;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "stock_reservations", indexes = {@Index(name = "idx_stock_reservation_order", columnList = "order_id"),
+        @Index(name = "idx_stock_reservation_medication_status", columnList = "medication_id, status"),
+        @Index(name = "idx_stock_reservation_status_expiry", columnList = "status, expiresAt")})
+public class StockReservation extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id", nullable = false)
+    private MedicineOrder order;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_item_id", nullable = false)
+    private MedicineOrderItem orderItem;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "medication_id", nullable = false)
+    private Medication medication;
+
+    @NotNull
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ReservationStatus status = ReservationStatus.HELD;
+
+    @NotNull
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
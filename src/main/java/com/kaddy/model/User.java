@@ -54,4 +54,7 @@ public class User extends BaseEntity {
 
     @Column(nullable = false, columnDefinition = "boolean default false")
     private Boolean isHospitalAdmin = false;
+
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private Integer tokenVersion = 0;
 }
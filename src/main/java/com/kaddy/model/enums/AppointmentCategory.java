@@ -0,0 +1,33 @@
+package com.kaddy.model.enums;
+
+public enum AppointmentCategory {
+    GENERAL_CHECKUP("General Checkup"), CHECKUP("Checkup"), EMERGENCY("Emergency"), FOLLOW_UP("Follow-up"), SURGERY(
+            "Surgery"), OTHER("Other");
+
+    private final String displayName;
+
+    AppointmentCategory(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public static AppointmentCategory fromReason(String reason) {
+        if (reason == null || reason.trim().isEmpty()) {
+            return GENERAL_CHECKUP;
+        }
+        String normalized = reason.toLowerCase();
+        if (normalized.contains("checkup") || normalized.contains("check-up")) {
+            return CHECKUP;
+        } else if (normalized.contains("emergency") || normalized.contains("urgent")) {
+            return EMERGENCY;
+        } else if (normalized.contains("follow") || normalized.contains("followup")) {
+            return FOLLOW_UP;
+        } else if (normalized.contains("surgery") || normalized.contains("operation")) {
+            return SURGERY;
+        }
+        return OTHER;
+    }
+}
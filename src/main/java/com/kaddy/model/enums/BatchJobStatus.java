@@ -0,0 +1,5 @@
+package com.kaddy.model.enums;
+
+public enum BatchJobStatus {
+    PENDING, RUNNING, COMPLETED, FAILED, CANCELLED
+}
@@ -0,0 +1,37 @@
+package com.kaddy.model.enums;
+
+public enum HospitalFeature {
+    AI("ai", "AI features are not available in your current plan. Please upgrade to Professional or Enterprise."), FHIR(
+            "fhir",
+            "FHIR/EHR features are not available in your current plan. Please upgrade to Basic or higher."), BED_MANAGEMENT(
+                    "bed_management", "Bed Management is not available in your current plan.");
+
+    private final String key;
+    private final String unavailableMessage;
+
+    HospitalFeature(String key, String unavailableMessage) {
+        this.key = key;
+        this.unavailableMessage = unavailableMessage;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getUnavailableMessage() {
+        return unavailableMessage;
+    }
+
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    public static HospitalFeature fromKey(String key) {
+        for (HospitalFeature feature : values()) {
+            if (feature.key.equalsIgnoreCase(key)) {
+                return feature;
+            }
+        }
+        return null;
+    }
+}
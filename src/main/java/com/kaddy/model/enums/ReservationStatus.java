@@ -0,0 +1,5 @@
+package com.kaddy.model.enums;
+
+public enum ReservationStatus {
+    HELD, CONVERTED, RELEASED, EXPIRED
+}
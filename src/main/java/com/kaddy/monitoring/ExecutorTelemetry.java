@@ -0,0 +1,177 @@
+package com.kaddy.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Live state of the executors in AsyncConfig. Each pool decorates its tasks at submission, so the time a task waits
+// for a thread (in the pool's queue, or for a slot under the virtual-thread concurrency limit) is measured when it
+// starts, and queued and active counts are kept the same way whichever kind of executor runs it.
+@Component
+@Slf4j
+public class ExecutorTelemetry {
+
+    // Weight of the newest sample in the smoothed queue wait that admission control reads
+    private static final double WAIT_SMOOTHING = 0.2;
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Pool> pools = new ConcurrentSkipListMap<>();
+
+    public ExecutorTelemetry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    // threads is the most tasks that run at once and queueCapacity how many more may wait; 0 threads means unbounded
+    public Pool register(String name, int threads, int queueCapacity) {
+        Pool pool = new Pool(name, threads, queueCapacity);
+        if (pools.putIfAbsent(name, pool) != null) {
+            throw new IllegalStateException("Executor already registered: " + name);
+        }
+        return pool;
+    }
+
+    public Pool pool(String name) {
+        Pool pool = pools.get(name);
+        if (pool == null) {
+            throw new IllegalArgumentException("Unknown executor: " + name);
+        }
+        return pool;
+    }
+
+    public List<ExecutorSnapshot> snapshot() {
+        return pools.values().stream().map(Pool::snapshot).toList();
+    }
+
+    public final class Pool implements TaskDecorator {
+        private final String name;
+        private final int threads;
+        private final int queueCapacity;
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicBoolean saturated = new AtomicBoolean();
+        private final Counter completed;
+        private final Counter rejected;
+        private final Timer queueWait;
+        private volatile double smoothedWaitNanos;
+
+        private Pool(String name, int threads, int queueCapacity) {
+            this.name = name;
+            this.threads = threads;
+            this.queueCapacity = queueCapacity;
+            Gauge.builder("medico.executor.active", active, AtomicInteger::get).tag("executor", name)
+                    .register(meterRegistry);
+            Gauge.builder("medico.executor.queued", queued, AtomicInteger::get).tag("executor", name)
+                    .register(meterRegistry);
+            Gauge.builder("medico.executor.utilisation", this, Pool::utilisation).tag("executor", name)
+                    .register(meterRegistry);
+            completed = Counter.builder("medico.executor.completed").tag("executor", name).register(meterRegistry);
+            rejected = Counter.builder("medico.executor.rejected").tag("executor", name).register(meterRegistry);
+            queueWait = Timer.builder("medico.executor.queue.wait").tag("executor", name)
+                    .publishPercentiles(0.5, 0.95, 0.99).publishPercentileHistogram().register(meterRegistry);
+        }
+
+        @Override
+        public Runnable decorate(Runnable task) {
+            queued.incrementAndGet();
+            return new TrackedTask(task, System.nanoTime());
+        }
+
+        // Counts a rejection and warns once per saturation episode before handing the task to the pool's own policy
+        public RejectedExecutionHandler counting(RejectedExecutionHandler policy) {
+            return (task, executor) -> {
+                rejected.increment();
+                if (task instanceof TrackedTask tracked) {
+                    tracked.dequeue();
+                }
+                if (saturated.compareAndSet(false, true)) {
+                    log.warn("Executor {} is saturated ({} active, {} queued of {}), rejecting tasks", name,
+                            active.get(), queued.get(), queueCapacity);
+                }
+                policy.rejectedExecution(task, executor);
+            };
+        }
+
+        // Share of the threads and queue slots in use; above 1 in virtual-thread mode means callers wait for a slot
+        public double utilisation() {
+            int capacity = threads + queueCapacity;
+            return threads == 0 ? 0 : (double) (active.get() + queued.get()) / capacity;
+        }
+
+        // Recent queue wait, which is 0 once nothing is waiting so the signal recovers as soon as the queue drains
+        public long queueWaitMillis() {
+            return queued.get() == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis((long) smoothedWaitNanos);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        ExecutorSnapshot snapshot() {
+            double p95 = 0;
+            double p99 = 0;
+            for (ValueAtPercentile value : queueWait.takeSnapshot().percentileValues()) {
+                if (value.percentile() == 0.95) {
+                    p95 = value.value(TimeUnit.MILLISECONDS);
+                } else if (value.percentile() == 0.99) {
+                    p99 = value.value(TimeUnit.MILLISECONDS);
+                }
+            }
+            return new ExecutorSnapshot(name, threads, queueCapacity, active.get(), queued.get(),
+                    (long) completed.count(), (long) rejected.count(), utilisation(),
+                    queueWait.mean(TimeUnit.MILLISECONDS), p95, p99, queueWait.max(TimeUnit.MILLISECONDS));
+        }
+
+        private final class TrackedTask implements Runnable {
+            private final Runnable task;
+            private final long submitted;
+            private final AtomicBoolean dequeued = new AtomicBoolean();
+
+            TrackedTask(Runnable task, long submitted) {
+                this.task = task;
+                this.submitted = submitted;
+            }
+
+            @Override
+            public void run() {
+                long wait = System.nanoTime() - submitted;
+                dequeue();
+                queueWait.record(wait, TimeUnit.NANOSECONDS);
+                // Racing updates may drop a sample, which a smoothed signal can afford
+                smoothedWaitNanos += WAIT_SMOOTHING * (wait - smoothedWaitNanos);
+
+                active.incrementAndGet();
+                try {
+                    task.run();
+                } finally {
+                    active.decrementAndGet();
+                    completed.increment();
+                }
+            }
+
+            // A task rejected under CallerRunsPolicy still runs afterwards, so it leaves the queue count only once
+            void dequeue() {
+                if (dequeued.compareAndSet(false, true) && queued.decrementAndGet() == 0) {
+                    saturated.set(false);
+                }
+            }
+        }
+    }
+
+    public record ExecutorSnapshot(String name, int threads, int queueCapacity, int active, int queued,
+            long completed, long rejected, double utilisation, double queueWaitMeanMs, double queueWaitP95Ms,
+            double queueWaitP99Ms, double queueWaitMaxMs) {
+    }
+}
@@ -1,8 +1,11 @@
 package com.kaddy.repository;
 
 import com.kaddy.model.Appointment;
+import com.kaddy.model.enums.AppointmentCategory;
 import com.kaddy.model.enums.AppointmentStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -34,6 +37,23 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     List<Appointment> findAppointmentsBetweenDates(@Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate);
 
+    @Query("SELECT a.id FROM Appointment a WHERE a.appointmentDateTime >= :startDate "
+            + "AND a.appointmentDateTime < :endDate")
+    List<Long> findIdsBetweenDates(@Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT a.category, COUNT(a) FROM Appointment a WHERE a.appointmentDateTime >= :startDate "
+            + "AND a.appointmentDateTime < :endDate AND a.category IS NOT NULL GROUP BY a.category")
+    List<Object[]> countByCategoryBetweenDates(@Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT a.id, a.reasonForVisit FROM Appointment a WHERE a.category IS NULL ORDER BY a.id")
+    List<Object[]> findUncategorized(Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Appointment a SET a.category = :category WHERE a.id IN :ids")
+    int updateCategory(@Param("category") AppointmentCategory category, @Param("ids") List<Long> ids);
+
     @Query("SELECT COUNT(a) FROM Appointment a WHERE a.doctor.id = :doctorId "
             + "AND a.appointmentDateTime BETWEEN :startDateTime AND :endDateTime "
             + "AND a.status NOT IN ('CANCELLED', 'NO_SHOW')")
@@ -0,0 +1,17 @@
+package com.kaddy.repository;
+
+import com.kaddy.model.BatchJobChunk;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BatchJobChunkRepository extends JpaRepository<BatchJobChunk, Long> {
+
+    Page<BatchJobChunk> findByBatchJobIdOrderByChunkNumberDesc(Long batchJobId, Pageable pageable);
+
+    Slice<BatchJobChunk> findByBatchJobIdAndFailedCountGreaterThanOrderByChunkNumber(Long batchJobId, int failedCount,
+            Pageable pageable);
+}
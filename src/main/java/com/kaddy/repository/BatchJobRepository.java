@@ -0,0 +1,50 @@
+package com.kaddy.repository;
+
+import com.kaddy.model.BatchJob;
+import com.kaddy.model.enums.BatchJobStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BatchJobRepository extends JpaRepository<BatchJob, Long> {
+
+    Page<BatchJob> findByHospitalIdOrderByCreatedAtDesc(Long hospitalId, Pageable pageable);
+
+    Page<BatchJob> findByHospitalIdAndStatusOrderByCreatedAtDesc(Long hospitalId, BatchJobStatus status,
+            Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT j FROM BatchJob j WHERE j.id = :jobId")
+    Optional<BatchJob> findByIdForUpdate(@Param("jobId") Long jobId);
+
+    // Pending jobs, plus running jobs whose node stopped sending heartbeats, oldest first
+    @Query("SELECT j.id FROM BatchJob j WHERE j.status = 'PENDING' "
+            + "OR (j.status = 'RUNNING' AND j.heartbeatAt < :staleBefore) ORDER BY j.id")
+    List<Long> findClaimableIds(@Param("staleBefore") LocalDateTime staleBefore, Pageable pageable);
+
+    // Conditional on the same predicate as findClaimableIds, so of two nodes racing for a job exactly one updates it
+    @Modifying
+    @Query("UPDATE BatchJob j SET j.status = com.kaddy.model.enums.BatchJobStatus.RUNNING, "
+            + "j.workerNode = :node, j.heartbeatAt = :now, j.startedAt = COALESCE(j.startedAt, :now), "
+            + "j.updatedAt = :now WHERE j.id = :jobId "
+            + "AND (j.status = 'PENDING' OR (j.status = 'RUNNING' AND j.heartbeatAt < :staleBefore))")
+    int claim(@Param("jobId") Long jobId, @Param("node") String node, @Param("now") LocalDateTime now,
+            @Param("staleBefore") LocalDateTime staleBefore);
+
+    // Hands this node's running jobs back on shutdown so the next node to poll resumes them straight away
+    @Modifying
+    @Query("UPDATE BatchJob j SET j.status = com.kaddy.model.enums.BatchJobStatus.PENDING, "
+            + "j.workerNode = NULL, j.updatedAt = LOCAL DATETIME WHERE j.status = 'RUNNING' AND j.workerNode = :node")
+    int release(@Param("node") String node);
+}
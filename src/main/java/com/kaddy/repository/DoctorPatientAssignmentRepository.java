@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,4 +25,10 @@ public interface DoctorPatientAssignmentRepository extends JpaRepository<DoctorP
 
     @Query("SELECT DISTINCT a.patient.id FROM DoctorPatientAssignment a WHERE a.doctor.id = :doctorId AND a.status = 'ACTIVE'")
     List<Long> findPatientIdsByDoctorId(@Param("doctorId") Long doctorId);
+
+    @Query("SELECT a.id, a.doctor.id, a.patient.id FROM DoctorPatientAssignment a WHERE a.status = 'ACTIVE'")
+    List<Object[]> findActiveDoctorPatientPairs();
+
+    @Query("SELECT MAX(a.updatedAt) FROM DoctorPatientAssignment a")
+    LocalDateTime findLastUpdatedAt();
 }
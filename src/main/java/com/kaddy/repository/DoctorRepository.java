@@ -1,8 +1,11 @@
 package com.kaddy.repository;
 
 import com.kaddy.model.Doctor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -13,9 +16,12 @@ import java.util.Optional;
 public interface DoctorRepository extends JpaRepository<Doctor, Long> {
     Optional<Doctor> findByDoctorId(String doctorId);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT d FROM Doctor d WHERE d.user.id = :userId")
     Optional<Doctor> findByUserId(@Param("userId") Long userId);
 
+    Optional<Doctor> findFirstByEmailIgnoreCase(String email);
+
     List<Doctor> findBySpecialization(String specialization);
 
     List<Doctor> findByDepartment(String department);
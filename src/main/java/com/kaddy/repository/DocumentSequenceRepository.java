@@ -0,0 +1,19 @@
+package com.kaddy.repository;
+
+import com.kaddy.model.DocumentSequence;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface DocumentSequenceRepository extends JpaRepository<DocumentSequence, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM DocumentSequence s WHERE s.scopeId = :scopeId AND s.prefix = :prefix")
+    Optional<DocumentSequence> findForUpdate(@Param("scopeId") Long scopeId, @Param("prefix") String prefix);
+}
@@ -3,8 +3,11 @@ package com.kaddy.repository;
 import com.kaddy.model.Hospital;
 import com.kaddy.model.enums.SubscriptionPlan;
 import com.kaddy.model.enums.SubscriptionStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -15,6 +18,7 @@ import java.util.Optional;
 @Repository
 public interface HospitalRepository extends JpaRepository<Hospital, Long> {
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Hospital> findByCode(String code);
 
     Optional<Hospital> findByEmail(String email);
@@ -38,4 +42,7 @@ public interface HospitalRepository extends JpaRepository<Hospital, Long> {
     long countActiveUsersByHospitalId(@Param("hospitalId") Long hospitalId);
 
     List<Hospital> findByActiveTrue();
+
+    @Query("SELECT h.id FROM Hospital h")
+    List<Long> findAllIds();
 }
@@ -36,6 +36,10 @@ public interface InsuranceClaimRepository extends JpaRepository<InsuranceClaim,
             + "AND ic.status IN ('SUBMITTED', 'UNDER_REVIEW')")
     List<InsuranceClaim> findPendingClaims(@Param("hospitalId") Long hospitalId);
 
+    @Query("SELECT COUNT(ic) FROM InsuranceClaim ic WHERE ic.hospital.id = :hospitalId "
+            + "AND ic.status IN ('SUBMITTED', 'UNDER_REVIEW')")
+    long countPendingClaims(@Param("hospitalId") Long hospitalId);
+
     @Query("SELECT SUM(ic.claimedAmount) FROM InsuranceClaim ic WHERE ic.hospital.id = :hospitalId "
             + "AND ic.claimDate BETWEEN :startDate AND :endDate")
     BigDecimal getTotalClaimedAmount(@Param("hospitalId") Long hospitalId, @Param("startDate") LocalDate startDate,
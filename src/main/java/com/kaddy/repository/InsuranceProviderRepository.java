@@ -1,10 +1,13 @@
 package com.kaddy.repository;
 
 import com.kaddy.model.InsuranceProvider;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -14,10 +17,12 @@ import java.util.Optional;
 @Repository
 public interface InsuranceProviderRepository extends JpaRepository<InsuranceProvider, Long> {
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<InsuranceProvider> findByIsActiveTrue();
 
     Page<InsuranceProvider> findByIsActiveTrue(Pageable pageable);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<InsuranceProvider> findByProviderCode(String providerCode);
 
     @Query("SELECT ip FROM InsuranceProvider ip WHERE ip.isActive = true "
@@ -2,13 +2,17 @@ package com.kaddy.repository;
 
 import com.kaddy.model.InventoryItem;
 import com.kaddy.model.enums.InventoryCategory;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -45,7 +49,58 @@ public interface InventoryItemRepository extends JpaRepository<InventoryItem, Lo
             + "WHERE i.hospital.id = :hospitalId AND i.isActive = true GROUP BY i.category")
     List<Object[]> getStockSummaryByCategory(@Param("hospitalId") Long hospitalId);
 
+    // Every per-item figure of the inventory report in one pass over the hospital's active items
+    @Query("SELECT i.category, COUNT(i), COALESCE(SUM(i.currentStock), 0), "
+            + "COALESCE(SUM(i.currentStock * i.purchasePrice), 0), "
+            + "SUM(CASE WHEN i.currentStock <= i.reorderLevel THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN i.currentStock <= 0 THEN 1 ELSE 0 END) FROM InventoryItem i "
+            + "WHERE i.hospital.id = :hospitalId AND i.isActive = true GROUP BY i.category")
+    List<Object[]> getReportSummaryByCategory(@Param("hospitalId") Long hospitalId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM InventoryItem i WHERE i.id = :itemId")
+    Optional<InventoryItem> findByIdForUpdate(@Param("itemId") Long itemId);
+
+    // Locks in id order so two callers locking overlapping sets cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM InventoryItem i WHERE i.id IN :itemIds ORDER BY i.id")
+    List<InventoryItem> findAllByIdForUpdate(@Param("itemIds") Collection<Long> itemIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT sb.inventoryItem FROM StockBatch sb WHERE sb.id = :batchId")
+    Optional<InventoryItem> findByBatchIdForUpdate(@Param("batchId") Long batchId);
+
+    // Takes the item row lock and only succeeds while enough stock remains, so concurrent deductions serialize here
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE InventoryItem i SET i.currentStock = i.currentStock - :quantity, i.updatedAt = LOCAL DATETIME "
+            + "WHERE i.id = :itemId AND i.currentStock >= :quantity")
+    int decrementStockIfAvailable(@Param("itemId") Long itemId, @Param("quantity") int quantity);
+
+    // Keyset page of the columns the reorder forecast needs, without hydrating items
+    @Query("SELECT i.id, i.currentStock, v.id FROM InventoryItem i LEFT JOIN i.preferredVendor v "
+            + "WHERE i.hospital.id = :hospitalId AND i.isActive = true AND i.id > :afterId ORDER BY i.id")
+    List<Object[]> findReorderCandidates(@Param("hospitalId") Long hospitalId, @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    // Touches only the reorder level, so a concurrent stock change on the same rows is never overwritten
+    @Modifying
+    @Query("UPDATE InventoryItem i SET i.reorderLevel = :reorderLevel, i.updatedAt = LOCAL DATETIME "
+            + "WHERE i.id IN :itemIds")
+    int updateReorderLevel(@Param("reorderLevel") int reorderLevel, @Param("itemIds") Collection<Long> itemIds);
+
+    // Keyset page of the columns the pharmacy lookup index keeps, without hydrating items
+    @Query("SELECT i.id, i.hospital.id, i.sku, i.barcode, i.name, i.genericName FROM InventoryItem i "
+            + "WHERE i.isActive = true AND i.id > :afterId ORDER BY i.id")
+    List<Object[]> findLookupEntries(@Param("afterId") Long afterId, Pageable pageable);
+
     boolean existsByHospitalIdAndSku(Long hospitalId, String sku);
 
     boolean existsByHospitalIdAndBarcode(Long hospitalId, String barcode);
+
+    @Query("SELECT i.sku FROM InventoryItem i WHERE i.hospital.id = :hospitalId AND i.sku IN :skus")
+    List<String> findExistingSkus(@Param("hospitalId") Long hospitalId, @Param("skus") Collection<String> skus);
+
+    @Query("SELECT i.barcode FROM InventoryItem i WHERE i.hospital.id = :hospitalId AND i.barcode IN :barcodes")
+    List<String> findExistingBarcodes(@Param("hospitalId") Long hospitalId,
+            @Param("barcodes") Collection<String> barcodes);
 }
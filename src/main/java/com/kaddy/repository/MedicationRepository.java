@@ -1,11 +1,15 @@
 package com.kaddy.repository;
 
 import com.kaddy.model.Medication;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +25,9 @@ public interface MedicationRepository extends JpaRepository<Medication, Long> {
     @Query("SELECT m FROM Medication m WHERE m.stockQuantity <= m.reorderLevel")
     List<Medication> findLowStockMedications();
 
+    @Query("SELECT m.id FROM Medication m WHERE m.stockQuantity < :threshold")
+    List<Long> findIdsWithStockBelow(@Param("threshold") int threshold);
+
     @Query("SELECT m FROM Medication m WHERE m.expiryDate < :date")
     List<Medication> findExpiredMedications(LocalDate date);
 
@@ -30,5 +37,22 @@ public interface MedicationRepository extends JpaRepository<Medication, Long> {
     @Query("SELECT m FROM Medication m WHERE m.active = true ORDER BY m.name")
     List<Medication> findAllActiveMedications();
 
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Medication m SET m.stockQuantity = m.stockQuantity - :quantity, m.updatedAt = LOCAL DATETIME "
+            + "WHERE m.id = :medicationId AND m.stockQuantity >= :quantity")
+    int decrementStockIfAvailable(@Param("medicationId") Long medicationId, @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Medication m SET m.stockQuantity = m.stockQuantity + :quantity, m.updatedAt = LOCAL DATETIME "
+            + "WHERE m.id = :medicationId")
+    int incrementStock(@Param("medicationId") Long medicationId, @Param("quantity") int quantity);
+
+    @Query("SELECT m.id, m.medicationCode, m.name, m.genericName FROM Medication m "
+            + "WHERE m.active = true AND m.id > :afterId ORDER BY m.id")
+    List<Object[]> findLookupEntries(@Param("afterId") Long afterId, Pageable pageable);
+
     boolean existsByMedicationCode(String medicationCode);
+
+    @Query("SELECT m.medicationCode FROM Medication m WHERE m.medicationCode IN :codes")
+    List<String> findExistingMedicationCodes(@Param("codes") Collection<String> codes);
 }
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -25,4 +26,10 @@ public interface NursePatientAssignmentRepository extends JpaRepository<NursePat
     @Query("SELECT n FROM NursePatientAssignment n WHERE n.nurse.id = :nurseId AND n.patient.id = :patientId")
     List<NursePatientAssignment> findByNurseIdAndPatientId(@Param("nurseId") Long nurseId,
             @Param("patientId") Long patientId);
+
+    @Query("SELECT n.id, n.nurse.id, n.patient.id FROM NursePatientAssignment n WHERE n.active = true")
+    List<Object[]> findActiveNursePatientPairs();
+
+    @Query("SELECT MAX(n.updatedAt) FROM NursePatientAssignment n")
+    LocalDateTime findLastUpdatedAt();
 }
@@ -6,6 +6,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,6 +28,13 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
 
     boolean existsByPatientId(String patientId);
 
+    @Query("SELECT p.patientId FROM Patient p WHERE p.patientId IN :patientIds")
+    List<String> findExistingPatientIds(@Param("patientIds") Collection<String> patientIds);
+
     @Query("SELECT p FROM Patient p WHERE p.active = true ORDER BY p.createdAt DESC")
     List<Patient> findAllActivePatients();
+
+    @Query("SELECT YEAR(p.createdAt), MONTH(p.createdAt), COUNT(p) FROM Patient p WHERE p.createdAt >= :since "
+            + "GROUP BY YEAR(p.createdAt), MONTH(p.createdAt)")
+    List<Object[]> countRegistrationsByMonthSince(@Param("since") LocalDateTime since);
 }
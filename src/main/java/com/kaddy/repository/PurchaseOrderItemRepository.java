@@ -1,11 +1,13 @@
 package com.kaddy.repository;
 
 import com.kaddy.model.PurchaseOrderItem;
+import com.kaddy.model.enums.PurchaseOrderStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -22,4 +24,10 @@ public interface PurchaseOrderItemRepository extends JpaRepository<PurchaseOrder
     @Query("SELECT poi FROM PurchaseOrderItem poi WHERE poi.purchaseOrder.id = :poId "
             + "AND poi.receivedQuantity >= poi.orderedQuantity")
     List<PurchaseOrderItem> findReceivedItems(@Param("poId") Long purchaseOrderId);
+
+    @Query("SELECT poi.inventoryItem.id, SUM(poi.pendingQuantity) FROM PurchaseOrderItem poi "
+            + "WHERE poi.inventoryItem.id IN :itemIds AND poi.purchaseOrder.status IN :statuses "
+            + "GROUP BY poi.inventoryItem.id")
+    List<Object[]> sumPendingQuantityByItem(@Param("itemIds") Collection<Long> itemIds,
+            @Param("statuses") Collection<PurchaseOrderStatus> statuses);
 }
@@ -2,9 +2,11 @@ package com.kaddy.repository;
 
 import com.kaddy.model.PurchaseOrder;
 import com.kaddy.model.enums.PurchaseOrderStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -19,6 +21,10 @@ public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrder, Lo
 
     Optional<PurchaseOrder> findByPoNumber(String poNumber);
 
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT po FROM PurchaseOrder po WHERE po.id = :poId")
+    Optional<PurchaseOrder> findByIdForUpdate(@Param("poId") Long poId);
+
     Page<PurchaseOrder> findByHospitalId(Long hospitalId, Pageable pageable);
 
     Page<PurchaseOrder> findByHospitalIdAndStatus(Long hospitalId, PurchaseOrderStatus status, Pageable pageable);
@@ -43,4 +49,8 @@ public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrder, Lo
 
     @Query("SELECT MAX(po.poNumber) FROM PurchaseOrder po WHERE po.hospital.id = :hospitalId AND po.poNumber LIKE :prefix%")
     String findLastPoNumber(@Param("hospitalId") Long hospitalId, @Param("prefix") String prefix);
+
+    @Query("SELECT po.vendor.id, po.orderDate, po.actualDeliveryDate FROM PurchaseOrder po "
+            + "WHERE po.hospital.id = :hospitalId AND po.actualDeliveryDate IS NOT NULL AND po.orderDate >= :since")
+    List<Object[]> findDeliveryHistory(@Param("hospitalId") Long hospitalId, @Param("since") LocalDate since);
 }
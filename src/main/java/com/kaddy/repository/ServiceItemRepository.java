@@ -2,10 +2,13 @@ package com.kaddy.repository;
 
 import com.kaddy.model.ServiceItem;
 import com.kaddy.model.enums.ServiceCategory;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -15,12 +18,14 @@ import java.util.Optional;
 @Repository
 public interface ServiceItemRepository extends JpaRepository<ServiceItem, Long> {
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<ServiceItem> findByHospitalIdAndIsActiveTrue(Long hospitalId);
 
     Page<ServiceItem> findByHospitalIdAndIsActiveTrue(Long hospitalId, Pageable pageable);
 
     List<ServiceItem> findByHospitalIdAndCategoryAndIsActiveTrue(Long hospitalId, ServiceCategory category);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<ServiceItem> findByHospitalIdAndCode(Long hospitalId, String code);
 
     @Query("SELECT s FROM ServiceItem s WHERE s.hospital.id = :hospitalId AND s.isActive = true "
@@ -0,0 +1,34 @@
+package com.kaddy.repository;
+
+import com.kaddy.model.StockBalanceCheckpoint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StockBalanceCheckpointRepository extends JpaRepository<StockBalanceCheckpoint, Long> {
+
+    boolean existsByHospitalIdAndAsOf(Long hospitalId, LocalDateTime asOf);
+
+    @Query("SELECT MAX(c.asOf) FROM StockBalanceCheckpoint c WHERE c.hospital.id = :hospitalId")
+    LocalDateTime findLatestAsOf(@Param("hospitalId") Long hospitalId);
+
+    @Query("SELECT c FROM StockBalanceCheckpoint c WHERE c.inventoryItem.id = :itemId AND c.asOf <= :at "
+            + "ORDER BY c.asOf DESC")
+    List<StockBalanceCheckpoint> findLatestForItem(@Param("itemId") Long itemId, @Param("at") LocalDateTime at,
+            Pageable pageable);
+
+    @Query("SELECT c.inventoryItem.id, c.quantity, c.stockValue FROM StockBalanceCheckpoint c "
+            + "WHERE c.hospital.id = :hospitalId AND c.asOf = :asOf")
+    List<Object[]> findBalances(@Param("hospitalId") Long hospitalId, @Param("asOf") LocalDateTime asOf);
+
+    @Query("SELECT c.inventoryItem.category, COUNT(c), SUM(c.quantity), SUM(c.stockValue) "
+            + "FROM StockBalanceCheckpoint c WHERE c.hospital.id = :hospitalId AND c.asOf = :asOf "
+            + "GROUP BY c.inventoryItem.category")
+    List<Object[]> getValuationByCategory(@Param("hospitalId") Long hospitalId, @Param("asOf") LocalDateTime asOf);
+}
@@ -4,11 +4,13 @@ import com.kaddy.model.StockBatch;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,6 +28,23 @@ public interface StockBatchRepository extends JpaRepository<StockBatch, Long> {
             + "AND sb.currentQuantity > 0 ORDER BY sb.expiryDate ASC")
     List<StockBatch> findAvailableBatchesFEFO(@Param("itemId") Long itemId);
 
+    @Query("SELECT COALESCE(SUM(sb.currentQuantity), 0) FROM StockBatch sb WHERE sb.inventoryItem.id = :itemId "
+            + "AND sb.isActive = true AND sb.currentQuantity > 0")
+    long sumAvailableQuantity(@Param("itemId") Long itemId);
+
+    // Splits a deduction across batches in expiry order in a single statement: each batch gives up whatever is still
+    // owed after the earlier-expiring batches. Callers must hold the inventory item row lock.
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE stock_batches sb SET current_quantity = sb.current_quantity - alloc.take, "
+            + "updated_at = CURRENT_TIMESTAMP FROM ("
+            + "SELECT b.id, LEAST(b.current_quantity, :quantity - (b.running_total - b.current_quantity)) AS take "
+            + "FROM (SELECT id, current_quantity, "
+            + "SUM(current_quantity) OVER (ORDER BY expiry_date ASC, id ASC) AS running_total FROM stock_batches "
+            + "WHERE inventory_item_id = :itemId AND is_active = true AND current_quantity > 0) b "
+            + "WHERE b.running_total - b.current_quantity < :quantity) alloc "
+            + "WHERE sb.id = alloc.id", nativeQuery = true)
+    int deductFEFO(@Param("itemId") Long itemId, @Param("quantity") int quantity);
+
     @Query("SELECT sb FROM StockBatch sb WHERE sb.hospital.id = :hospitalId AND sb.isActive = true "
             + "AND sb.currentQuantity > 0 AND sb.expiryDate <= :expiryDate")
     List<StockBatch> findExpiringSoon(@Param("hospitalId") Long hospitalId, @Param("expiryDate") LocalDate expiryDate);
@@ -34,6 +53,20 @@ public interface StockBatchRepository extends JpaRepository<StockBatch, Long> {
             + "AND sb.currentQuantity > 0 AND sb.expiryDate < :today")
     List<StockBatch> findExpiredBatches(@Param("hospitalId") Long hospitalId, @Param("today") LocalDate today);
 
+    @Query("SELECT COUNT(sb), SUM(CASE WHEN sb.expiryDate < :today THEN 1 ELSE 0 END) FROM StockBatch sb "
+            + "WHERE sb.hospital.id = :hospitalId AND sb.isActive = true AND sb.currentQuantity > 0 "
+            + "AND sb.expiryDate <= :expiryDate")
+    List<Object[]> countExpiringAndExpired(@Param("hospitalId") Long hospitalId, @Param("today") LocalDate today,
+            @Param("expiryDate") LocalDate expiryDate);
+
+    // Keyset page of (id, hospital id, expiry date) for batches still holding stock
+    @Query("SELECT sb.id, sb.hospital.id, sb.expiryDate FROM StockBatch sb WHERE sb.isActive = true "
+            + "AND sb.currentQuantity > 0 AND sb.id > :afterId ORDER BY sb.id")
+    List<Object[]> findStockedExpiryEntries(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT DISTINCT sb.inventoryItem.id FROM StockBatch sb WHERE sb.id IN :batchIds")
+    List<Long> findItemIdsByBatchIds(@Param("batchIds") Collection<Long> batchIds);
+
     Optional<StockBatch> findByInventoryItemIdAndBatchNumber(Long itemId, String batchNumber);
 
     Page<StockBatch> findByHospitalId(Long hospitalId, Pageable pageable);
@@ -0,0 +1,18 @@
+package com.kaddy.repository;
+
+import com.kaddy.model.StockLedgerClosure;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface StockLedgerClosureRepository extends JpaRepository<StockLedgerClosure, Long> {
+
+    boolean existsByHospitalIdAndAsOf(Long hospitalId, LocalDateTime asOf);
+
+    @Query("SELECT MAX(c.asOf) FROM StockLedgerClosure c WHERE c.hospital.id = :hospitalId")
+    LocalDateTime findLatestAsOf(@Param("hospitalId") Long hospitalId);
+}
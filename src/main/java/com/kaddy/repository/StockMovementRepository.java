@@ -2,16 +2,21 @@ package com.kaddy.repository;
 
 import com.kaddy.model.StockMovement;
 import com.kaddy.model.enums.StockMovementType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
@@ -46,4 +51,31 @@ public interface StockMovementRepository extends JpaRepository<StockMovement, Lo
 
     @Query("SELECT sm FROM StockMovement sm WHERE sm.inventoryItem.id = :itemId ORDER BY sm.movementDate DESC")
     List<StockMovement> findRecentMovements(@Param("itemId") Long itemId, Pageable pageable);
+
+    @Query("SELECT COALESCE(SUM(sm.quantity), 0) FROM StockMovement sm WHERE sm.inventoryItem.id = :itemId "
+            + "AND sm.movementDate >= :from AND sm.movementDate < :to")
+    long sumQuantityBetween(@Param("itemId") Long itemId, @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    @Query("SELECT COUNT(sm) FROM StockMovement sm WHERE sm.inventoryItem.id = :itemId "
+            + "AND sm.movementDate >= :from AND sm.movementDate < :to")
+    long countBetween(@Param("itemId") Long itemId, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT sm.inventoryItem.id, CAST(sm.movementDate AS LocalDate), SUM(sm.quantity) FROM StockMovement sm "
+            + "WHERE sm.inventoryItem.id IN :itemIds AND sm.movementType IN :types AND sm.movementDate >= :since "
+            + "GROUP BY sm.inventoryItem.id, CAST(sm.movementDate AS LocalDate)")
+    List<Object[]> findDailyQuantities(@Param("itemIds") Collection<Long> itemIds,
+            @Param("types") Collection<StockMovementType> types, @Param("since") LocalDateTime since);
+
+    @Query("SELECT MIN(sm.movementDate) FROM StockMovement sm WHERE sm.hospital.id = :hospitalId")
+    LocalDateTime findEarliestMovementDate(@Param("hospitalId") Long hospitalId);
+
+    // Ledger rows for one period in replay order; read through a cursor so a month of movements is never held in memory
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT sm.inventoryItem.id, sm.quantity, sm.unitPrice FROM StockMovement sm "
+            + "WHERE sm.hospital.id = :hospitalId AND sm.movementDate >= :from AND sm.movementDate < :to "
+            + "ORDER BY sm.movementDate, sm.id")
+    Stream<Object[]> streamLedger(@Param("hospitalId") Long hospitalId, @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
 }
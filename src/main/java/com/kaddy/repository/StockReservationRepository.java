@@ -0,0 +1,42 @@
+package com.kaddy.repository;
+
+import com.kaddy.model.StockReservation;
+import com.kaddy.model.enums.ReservationStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    // On-hand stock minus committed holds in one statement, so both come from the same snapshot
+    @Query("SELECT m.stockQuantity - (SELECT COALESCE(SUM(r.quantity), 0) FROM StockReservation r "
+            + "WHERE r.medication.id = m.id AND r.status = com.kaddy.model.enums.ReservationStatus.HELD) "
+            + "FROM Medication m WHERE m.id = :medicationId")
+    Optional<Long> findAvailableToPromise(@Param("medicationId") Long medicationId);
+
+    boolean existsByOrderIdAndStatus(Long orderId, ReservationStatus status);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM StockReservation r WHERE r.order.id = :orderId AND r.status = :status")
+    List<StockReservation> findByOrderIdAndStatusForUpdate(@Param("orderId") Long orderId,
+            @Param("status") ReservationStatus status);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM StockReservation r WHERE r.status = com.kaddy.model.enums.ReservationStatus.HELD "
+            + "AND r.expiresAt < :now ORDER BY r.expiresAt")
+    List<StockReservation> findExpiredHeldForUpdate(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.status = :status, r.updatedAt = LOCAL DATETIME WHERE r.id IN :ids")
+    int updateStatus(@Param("ids") List<Long> ids, @Param("status") ReservationStatus status);
+}
@@ -3,8 +3,12 @@ package com.kaddy.repository;
 import com.kaddy.model.User;
 import com.kaddy.model.enums.UserRole;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,6 +17,11 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
     List<User> findByRole(UserRole role);
+    List<User> findByHospitalIdAndRoleInAndActiveTrue(Long hospitalId, Collection<UserRole> roles);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+    List<User> findByTokenVersionGreaterThanAndUpdatedAtAfter(Integer tokenVersion, LocalDateTime updatedAt);
+
+    @Query("SELECT COALESCE(u.tokenVersion, 0) FROM User u WHERE u.id = :id")
+    Optional<Integer> findTokenVersionById(@Param("id") Long id);
 }
@@ -1,10 +1,13 @@
 package com.kaddy.repository;
 
 import com.kaddy.model.Vendor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -14,10 +17,12 @@ import java.util.Optional;
 @Repository
 public interface VendorRepository extends JpaRepository<Vendor, Long> {
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Vendor> findByHospitalIdAndIsActiveTrue(Long hospitalId);
 
     Page<Vendor> findByHospitalIdAndIsActiveTrue(Long hospitalId, Pageable pageable);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Vendor> findByHospitalIdAndVendorCode(Long hospitalId, String vendorCode);
 
     @Query("SELECT v FROM Vendor v WHERE v.hospital.id = :hospitalId AND v.isActive = true "
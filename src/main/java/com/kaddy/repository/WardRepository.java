@@ -2,8 +2,11 @@ package com.kaddy.repository;
 
 import com.kaddy.model.Ward;
 import com.kaddy.model.enums.WardType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -13,6 +16,7 @@ import java.util.Optional;
 @Repository
 public interface WardRepository extends JpaRepository<Ward, Long> {
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Ward> findByHospitalIdAndIsActiveTrue(Long hospitalId);
 
     List<Ward> findByHospitalIdAndWardTypeAndIsActiveTrue(Long hospitalId, WardType wardType);
@@ -0,0 +1,48 @@
+package com.kaddy.security;
+
+import com.kaddy.model.enums.UserRole;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+@Getter
+public class AuthenticatedUser implements UserDetails {
+
+    private final Long userId;
+    private final String username;
+    private final UserRole role;
+    private final Long hospitalId;
+    private final int tokenVersion;
+    private final boolean enabled;
+    private final List<GrantedAuthority> authorities;
+
+    public AuthenticatedUser(Long userId, String username, UserRole role, Long hospitalId, int tokenVersion,
+            boolean enabled) {
+        this.userId = userId;
+        this.username = username;
+        this.role = role;
+        this.hospitalId = hospitalId;
+        this.tokenVersion = tokenVersion;
+        this.enabled = enabled;
+        this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticatedUser{userId=" + userId + ", username=" + username + ", role=" + role + "}";
+    }
+}
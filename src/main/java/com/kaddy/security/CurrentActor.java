@@ -0,0 +1,170 @@
+package com.kaddy.security;
+
+import com.kaddy.model.Doctor;
+import com.kaddy.model.Patient;
+import com.kaddy.model.User;
+import com.kaddy.model.enums.UserRole;
+import com.kaddy.repository.DoctorRepository;
+import com.kaddy.repository.PatientRepository;
+import com.kaddy.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import java.util.Optional;
+
+// Identity of the caller for the current HTTP request; each part is resolved at most once and then reused.
+@Component
+@RequestScope
+@RequiredArgsConstructor
+@Slf4j
+public class CurrentActor {
+
+    private final UserRepository userRepository;
+    private final DoctorRepository doctorRepository;
+    private final PatientRepository patientRepository;
+    private final MeterRegistry meterRegistry;
+
+    private boolean userResolved;
+    private Optional<User> user = Optional.empty();
+
+    private boolean doctorResolved;
+    private Optional<Long> doctorId = Optional.empty();
+
+    private boolean patientResolved;
+    private Optional<Long> patientId = Optional.empty();
+
+    // Lookups made, and repeat reads of a value that took one; values read from the token's claims count as neither
+    private int lookups;
+    private int lookupsAvoided;
+
+    public Optional<User> getUser() {
+        if (userResolved) {
+            countAvoided(user);
+            return user;
+        }
+        user = resolveUser();
+        userResolved = true;
+        return user;
+    }
+
+    public Optional<Long> getUserId() {
+        Optional<AuthenticatedUser> principal = getPrincipal();
+        if (principal.isPresent()) {
+            return Optional.ofNullable(principal.get().getUserId());
+        }
+        return getUser().map(User::getId);
+    }
+
+    public Optional<UserRole> getRole() {
+        Optional<AuthenticatedUser> principal = getPrincipal();
+        if (principal.isPresent()) {
+            return Optional.ofNullable(principal.get().getRole());
+        }
+        return getUser().map(User::getRole);
+    }
+
+    public Optional<Long> getHospitalId() {
+        Optional<AuthenticatedUser> principal = getPrincipal();
+        if (principal.isPresent()) {
+            return Optional.ofNullable(principal.get().getHospitalId());
+        }
+        return getUser().map(User::getHospital).map(hospital -> hospital.getId());
+    }
+
+    public Optional<Long> getDoctorId() {
+        if (doctorResolved) {
+            countAvoided(doctorId);
+            return doctorId;
+        }
+        Optional<Long> userId = hasRole(UserRole.DOCTOR) ? getUserId() : Optional.empty();
+        if (userId.isPresent()) {
+            lookups++;
+            doctorId = doctorRepository.findByUserId(userId.get()).map(Doctor::getId);
+        }
+        doctorResolved = true;
+        return doctorId;
+    }
+
+    public Optional<Long> getPatientId() {
+        if (patientResolved) {
+            countAvoided(patientId);
+            return patientId;
+        }
+        Optional<Long> userId = hasRole(UserRole.PATIENT) ? getUserId() : Optional.empty();
+        if (userId.isPresent()) {
+            lookups++;
+            patientId = patientRepository.findByUserId(userId.get()).map(Patient::getId);
+        }
+        patientResolved = true;
+        return patientId;
+    }
+
+    // Nurse assignments reference the nurse's user account directly
+    public Optional<Long> getNurseId() {
+        return hasRole(UserRole.NURSE) ? getUserId() : Optional.empty();
+    }
+
+    public boolean hasRole(UserRole role) {
+        return getRole().map(role::equals).orElse(false);
+    }
+
+    public int getLookups() {
+        return lookups;
+    }
+
+    public int getLookupsAvoided() {
+        return lookupsAvoided;
+    }
+
+    @PreDestroy
+    void publishLookups() {
+        if (lookups > 0) {
+            Counter.builder("medico.identity.lookups").tag("outcome", "queried").register(meterRegistry)
+                    .increment(lookups);
+        }
+        if (lookupsAvoided > 0) {
+            Counter.builder("medico.identity.lookups").tag("outcome", "avoided").register(meterRegistry)
+                    .increment(lookupsAvoided);
+        }
+        if (lookups > 0 || lookupsAvoided > 0) {
+            log.debug("Identity resolved with {} lookups, {} lookups avoided", lookups, lookupsAvoided);
+        }
+    }
+
+    // An empty value was either never queried or came back empty, so only a cached result counts as a saved query
+    private void countAvoided(Optional<?> cached) {
+        if (cached.isPresent()) {
+            lookupsAvoided++;
+        }
+    }
+
+    private Optional<User> resolveUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return Optional.empty();
+        }
+
+        lookups++;
+        if (authentication.getPrincipal() instanceof AuthenticatedUser principal && principal.getUserId() != null) {
+            return userRepository.findById(principal.getUserId());
+        }
+
+        String username = authentication.getName();
+        return userRepository.findByUsername(username).or(() -> userRepository.findByEmail(username));
+    }
+
+    private Optional<AuthenticatedUser> getPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return Optional.of(principal);
+        }
+        return Optional.empty();
+    }
+}
@@ -19,8 +19,7 @@ public class CustomUserDetailsService implements UserDetailsService {
 
     @Override
     public UserDetails loadUserByUsername(String usernameOrEmail) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(usernameOrEmail).or(() -> userRepository.findByEmail(usernameOrEmail))
-                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + usernameOrEmail));
+        User user = findUser(usernameOrEmail);
 
         return org.springframework.security.core.userdetails.User.builder().username(user.getUsername())
                 .password(user.getPassword())
@@ -28,4 +27,17 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .accountExpired(false).accountLocked(false).credentialsExpired(false).disabled(!user.getEnabled())
                 .build();
     }
+
+    public AuthenticatedUser loadAuthenticatedUser(String usernameOrEmail) throws UsernameNotFoundException {
+        User user = findUser(usernameOrEmail);
+        Long hospitalId = user.getHospital() != null ? user.getHospital().getId() : null;
+        int tokenVersion = user.getTokenVersion() != null ? user.getTokenVersion() : 0;
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getRole(), hospitalId, tokenVersion,
+                Boolean.TRUE.equals(user.getEnabled()));
+    }
+
+    private User findUser(String usernameOrEmail) {
+        return userRepository.findByUsername(usernameOrEmail).or(() -> userRepository.findByEmail(usernameOrEmail))
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + usernameOrEmail));
+    }
 }
@@ -1,16 +1,16 @@
 package com.kaddy.security;
 
+import com.kaddy.model.enums.UserRole;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -23,14 +23,17 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final CustomUserDetailsService userDetailsService;
+    private final TokenVersionRegistry tokenVersionRegistry;
+
+    @Value("${jwt.claims-auth.enabled:true}")
+    private boolean claimsAuthEnabled;
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
             @NonNull FilterChain filterChain) throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String username;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -40,14 +43,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         jwt = authHeader.substring(7);
 
         try {
-            username = jwtService.extractUsername(jwt);
+            JwtService.VerifiedToken token = jwtService.verify(jwt);
+            String username = token.username();
 
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+                AuthenticatedUser principal = resolvePrincipal(token);
 
-                if (jwtService.isTokenValid(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails,
-                            null, userDetails.getAuthorities());
+                if (principal != null && principal.isEnabled() && jwtService.isTokenValid(token, principal)) {
+                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(principal,
+                            null, principal.getAuthorities());
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
                     log.debug("User {} authenticated via JWT", username);
@@ -59,4 +63,31 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    private AuthenticatedUser resolvePrincipal(JwtService.VerifiedToken token) {
+        if (claimsAuthEnabled && token.hasIdentityClaims() && !tokenVersionRegistry.isSaturated()) {
+            AuthenticatedUser principal = fromClaims(token);
+            if (tokenVersionRegistry.isRevoked(principal.getUserId(), principal.getTokenVersion())) {
+                log.debug("Rejected revoked token version {} for user {}", principal.getTokenVersion(),
+                        principal.getUsername());
+                return null;
+            }
+            return principal;
+        }
+
+        AuthenticatedUser principal = userDetailsService.loadAuthenticatedUser(token.username());
+        Long tokenVersion = token.longClaim(JwtService.CLAIM_TOKEN_VERSION);
+        if (tokenVersion != null && tokenVersion < principal.getTokenVersion()) {
+            log.debug("Rejected stale token version {} for user {}", tokenVersion, principal.getUsername());
+            return null;
+        }
+        return principal;
+    }
+
+    private AuthenticatedUser fromClaims(JwtService.VerifiedToken token) {
+        return new AuthenticatedUser(token.longClaim(JwtService.CLAIM_USER_ID), token.username(),
+                UserRole.valueOf(token.claim(JwtService.CLAIM_ROLE, String.class)),
+                token.longClaim(JwtService.CLAIM_HOSPITAL_ID),
+                token.longClaim(JwtService.CLAIM_TOKEN_VERSION).intValue(), true);
+    }
 }
@@ -1,9 +1,12 @@
 package com.kaddy.security;
 
+import com.kaddy.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
@@ -17,15 +20,30 @@ import java.util.function.Function;
 @Service
 public class JwtService {
 
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_HOSPITAL_ID = "hid";
+    public static final String CLAIM_TOKEN_VERSION = "tv";
+
     @Value("${jwt.secret:404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970}")
     private String secretKey;
 
     @Value("${jwt.expiration:86400000}") // 24 hours in milliseconds
     private long jwtExpiration;
 
-    private SecretKey getSigningKey() {
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void init() {
         byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+        this.signingKey = Keys.hmacShaKeyFor(keyBytes);
+        this.jwtParser = Jwts.parser().verifyWith(signingKey).build();
+    }
+
+    // Signature and expiry are checked by the parser; invalid or expired tokens throw JwtException
+    public VerifiedToken verify(String token) {
+        return VerifiedToken.from(extractAllClaims(token));
     }
 
     public String extractUsername(String token) {
@@ -42,29 +60,62 @@ public class JwtService {
     }
 
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        return buildToken(extraClaims, userDetails, jwtExpiration);
+        return buildToken(extraClaims, userDetails.getUsername(), jwtExpiration);
     }
 
-    private String buildToken(Map<String, Object> extraClaims, UserDetails userDetails, long expiration) {
-        return Jwts.builder().claims(extraClaims).subject(userDetails.getUsername())
-                .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + expiration)).signWith(getSigningKey()).compact();
+    public String generateToken(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_USER_ID, user.getId());
+        claims.put(CLAIM_ROLE, user.getRole().name());
+        claims.put(CLAIM_TOKEN_VERSION, user.getTokenVersion() == null ? 0 : user.getTokenVersion());
+        if (user.getHospital() != null) {
+            claims.put(CLAIM_HOSPITAL_ID, user.getHospital().getId());
+        }
+        return buildToken(claims, user.getUsername(), jwtExpiration);
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+    private String buildToken(Map<String, Object> extraClaims, String subject, long expiration) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder().claims(extraClaims).subject(subject).issuedAt(new Date(now))
+                .expiration(new Date(now + expiration)).signWith(signingKey).compact();
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public boolean isTokenValid(String token, UserDetails userDetails) {
+        return isTokenValid(verify(token), userDetails);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public boolean isTokenValid(VerifiedToken token, UserDetails userDetails) {
+        return token.username() != null && token.username().equals(userDetails.getUsername()) && !token.isExpired();
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser().verifyWith(getSigningKey()).build().parseSignedClaims(token).getPayload();
+        return jwtParser.parseSignedClaims(token).getPayload();
+    }
+
+    public record VerifiedToken(String username, Date issuedAt, Date expiration, Map<String, Object> claims) {
+
+        static VerifiedToken from(Claims claims) {
+            return new VerifiedToken(claims.getSubject(), claims.getIssuedAt(), claims.getExpiration(),
+                    Map.copyOf(claims));
+        }
+
+        public boolean isExpired() {
+            return expiration != null && expiration.before(new Date());
+        }
+
+        public <T> T claim(String name, Class<T> type) {
+            Object value = claims.get(name);
+            return type.isInstance(value) ? type.cast(value) : null;
+        }
+
+        public Long longClaim(String name) {
+            Number value = claim(name, Number.class);
+            return value != null ? value.longValue() : null;
+        }
+
+        public boolean hasIdentityClaims() {
+            return claims.containsKey(CLAIM_USER_ID) && claims.containsKey(CLAIM_ROLE)
+                    && claims.containsKey(CLAIM_TOKEN_VERSION);
+        }
     }
 }
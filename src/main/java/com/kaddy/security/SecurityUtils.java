@@ -1,13 +1,17 @@
 package com.kaddy.security;
 
+import com.kaddy.model.Doctor;
 import com.kaddy.model.User;
 import com.kaddy.model.enums.UserRole;
+import com.kaddy.repository.DoctorRepository;
 import com.kaddy.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import java.util.Optional;
 
@@ -16,8 +20,15 @@ import java.util.Optional;
 public class SecurityUtils {
 
     private final UserRepository userRepository;
+    private final DoctorRepository doctorRepository;
+    private final ObjectProvider<CurrentActor> currentActorProvider;
 
     public Optional<User> getCurrentUser() {
+        Optional<CurrentActor> actor = getCurrentActor();
+        if (actor.isPresent()) {
+            return actor.get().getUser();
+        }
+
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
         if (authentication == null || !authentication.isAuthenticated()) {
@@ -37,7 +48,11 @@ public class SecurityUtils {
     }
 
     public Optional<UserRole> getCurrentUserRole() {
-        return getCurrentUser().map(User::getRole);
+        Optional<CurrentActor> actor = getCurrentActor();
+        if (actor.isPresent()) {
+            return actor.get().getRole();
+        }
+        return getAuthenticatedUser().map(AuthenticatedUser::getRole).or(() -> getCurrentUser().map(User::getRole));
     }
 
     public boolean hasRole(UserRole role) {
@@ -61,13 +76,46 @@ public class SecurityUtils {
     }
 
     public Optional<Long> getCurrentUserId() {
-        return getCurrentUser().map(User::getId);
+        Optional<CurrentActor> actor = getCurrentActor();
+        if (actor.isPresent()) {
+            return actor.get().getUserId();
+        }
+        return getAuthenticatedUser().map(AuthenticatedUser::getUserId).or(() -> getCurrentUser().map(User::getId));
     }
 
     public Optional<Long> getCurrentDoctorId() {
-        return getCurrentUser().filter(user -> user.getRole() == UserRole.DOCTOR).map(User::getId); // Placeholder -
-                                                                                                    // adjust based on
-                                                                                                    // your User-Doctor
-                                                                                                    // relationship
+        Optional<CurrentActor> actor = getCurrentActor();
+        if (actor.isPresent()) {
+            return actor.get().getDoctorId();
+        }
+        if (!isDoctor()) {
+            return Optional.empty();
+        }
+        return getCurrentUserId().flatMap(doctorRepository::findByUserId).map(Doctor::getId);
+    }
+
+    // Nurse assignments reference the nurse's user account, so this is the user id of a caller with the nurse role
+    public Optional<Long> getCurrentNurseId() {
+        Optional<CurrentActor> actor = getCurrentActor();
+        if (actor.isPresent()) {
+            return actor.get().getNurseId();
+        }
+        return isNurse() ? getCurrentUserId() : Optional.empty();
+    }
+
+    public Optional<AuthenticatedUser> getAuthenticatedUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser authenticatedUser) {
+            return Optional.of(authenticatedUser);
+        }
+        return Optional.empty();
+    }
+
+    // The request-scoped actor is only available on request threads; async and scheduled work falls back to lookups
+    public Optional<CurrentActor> getCurrentActor() {
+        if (RequestContextHolder.getRequestAttributes() == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(currentActorProvider.getIfAvailable());
     }
 }
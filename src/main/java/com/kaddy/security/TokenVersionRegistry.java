@@ -0,0 +1,129 @@
+package com.kaddy.security;
+
+import com.kaddy.model.User;
+import com.kaddy.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Tracks the minimum accepted token version for users whose tokens were invalidated (role change, disable,
+// delete). Entries only need to outlive the longest-lived token, so they expire after jwt.expiration. Changes made on
+// this node apply at once; those made on other nodes only reach it through the database, so each user's current
+// version is re-read once the copy last read is older than jwt.revocation.recheck-interval, and a deleted user has
+// no version left to accept.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenVersionRegistry {
+
+    private static final int REVOKED_ALL = Integer.MAX_VALUE;
+
+    private final UserRepository userRepository;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Long, Checked> checked = new ConcurrentHashMap<>();
+
+    @Value("${jwt.expiration:86400000}")
+    private long jwtExpiration;
+
+    @Value("${jwt.revocation.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${jwt.revocation.recheck-interval:PT30S}")
+    private Duration recheckInterval;
+
+    private volatile long saturatedUntil;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRecentVersionChanges() {
+        LocalDateTime since = LocalDateTime.now().minusNanos(jwtExpiration * 1_000_000);
+        List<User> changed = userRepository.findByTokenVersionGreaterThanAndUpdatedAtAfter(0, since);
+        changed.forEach(user -> record(user.getId(), user.getTokenVersion()));
+        log.info("Loaded {} recent token version changes", changed.size());
+    }
+
+    public User bumpVersion(User user) {
+        int current = user.getTokenVersion() == null ? 0 : user.getTokenVersion();
+        user.setTokenVersion(current + 1);
+        return user;
+    }
+
+    public void record(Long userId, int minVersion) {
+        if (userId == null) {
+            return;
+        }
+        if (!entries.containsKey(userId) && entries.size() >= maxEntries) {
+            purgeExpired();
+            if (entries.size() >= maxEntries) {
+                saturatedUntil = System.currentTimeMillis() + jwtExpiration;
+                log.warn("Token version registry is full ({} entries); falling back to database authentication",
+                        maxEntries);
+                return;
+            }
+        }
+        entries.merge(userId, new Entry(minVersion, System.currentTimeMillis() + jwtExpiration),
+                (existing, update) -> update.minVersion() >= existing.minVersion() ? update : existing);
+        checked.remove(userId);
+    }
+
+    public void revokeAll(Long userId) {
+        record(userId, REVOKED_ALL);
+    }
+
+    public boolean isRevoked(Long userId, int tokenVersion) {
+        Entry entry = entries.get(userId);
+        if (entry != null) {
+            if (entry.expiresAt() >= System.currentTimeMillis()) {
+                if (tokenVersion < entry.minVersion()) {
+                    return true;
+                }
+            } else {
+                entries.remove(userId, entry);
+            }
+        }
+        return tokenVersion < currentVersion(userId);
+    }
+
+    // A dropped entry could still matter until every token issued before it has expired
+    public boolean isSaturated() {
+        return saturatedUntil > System.currentTimeMillis();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private int currentVersion(Long userId) {
+        long now = System.currentTimeMillis();
+        Checked last = checked.get(userId);
+        if (last != null && now - last.checkedAt() < recheckInterval.toMillis()) {
+            return last.version();
+        }
+        if (checked.size() >= maxEntries) {
+            checked.values().removeIf(stale -> now - stale.checkedAt() >= recheckInterval.toMillis());
+        }
+        int version = userRepository.findTokenVersionById(userId).orElse(REVOKED_ALL);
+        checked.put(userId, new Checked(version, now));
+        return version;
+    }
+
+    private void purgeExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAt() < now);
+    }
+
+    private record Entry(int minVersion, long expiresAt) {
+    }
+
+    private record Checked(int version, long checkedAt) {
+    }
+}
@@ -0,0 +1,160 @@
+package com.kaddy.service;
+
+import com.kaddy.monitoring.ExecutorTelemetry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Admits low-priority work (async batches, bulk imports and reports) against a limit that follows the interactive
+// executors. The number of low-priority requests in flight halves whenever an interactive pool's queue wait or
+// utilisation passes its target and grows back by one per interval while they stay healthy, so a month-end report run
+// backs off before patient-facing calls start queueing behind it. The limit is adjusted on a thread of its own rather
+// than the shared @Scheduled thread, which the month-end ledger close can hold for a long time.
+@Service
+@Slf4j
+public class AdmissionControl {
+
+    private final ExecutorTelemetry executorTelemetry;
+    private final List<String> interactiveExecutors;
+    private final long targetQueueWaitMillis;
+    private final double maxUtilisation;
+    private final int minLimit;
+    private final int maxLimit;
+    private final Duration retryAfter;
+    private final Duration adjustInterval;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter admitted;
+    private final Counter shed;
+    private volatile int limit;
+    private volatile String pressuredExecutor;
+    private ScheduledExecutorService scheduler;
+
+    public AdmissionControl(ExecutorTelemetry executorTelemetry, MeterRegistry meterRegistry,
+            @Value("${admission.interactive-executors:taskExecutor}") List<String> interactiveExecutors,
+            @Value("${admission.target-queue-wait:PT0.1S}") Duration targetQueueWait,
+            @Value("${admission.max-utilisation:0.5}") double maxUtilisation,
+            @Value("${admission.low-priority.min-concurrent:1}") int minLimit,
+            @Value("${admission.low-priority.max-concurrent:20}") int maxLimit,
+            @Value("${admission.retry-after:PT10S}") Duration retryAfter,
+            @Value("${admission.adjust-interval:PT1S}") Duration adjustInterval) {
+        if (minLimit < 0 || maxLimit < minLimit) {
+            throw new IllegalArgumentException(
+                    "Invalid low-priority concurrency bounds: " + minLimit + ".." + maxLimit);
+        }
+        this.executorTelemetry = executorTelemetry;
+        this.interactiveExecutors = interactiveExecutors;
+        this.targetQueueWaitMillis = targetQueueWait.toMillis();
+        this.maxUtilisation = maxUtilisation;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.retryAfter = retryAfter;
+        this.adjustInterval = adjustInterval;
+        this.limit = maxLimit;
+
+        admitted = Counter.builder("medico.admission.requests").tag("outcome", "admitted").register(meterRegistry);
+        shed = Counter.builder("medico.admission.requests").tag("outcome", "shed").register(meterRegistry);
+        Gauge.builder("medico.admission.limit", this, control -> control.limit).register(meterRegistry);
+        Gauge.builder("medico.admission.in-flight", inFlight, AtomicInteger::get).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Medico-Admission");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::adjustSafely, adjustInterval.toMillis(), adjustInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    // Every successful call must be paired with release once the work has finished
+    public boolean tryAdmit() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                shed.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                admitted.increment();
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    // Multiplicative decrease under pressure and additive increase otherwise, so the limit drops within a few
+    // intervals of a queue building up but recovers gradually rather than letting a backlog of retries in at once
+    public void adjust() {
+        String pressured = findPressuredExecutor();
+        int previous = limit;
+        if (pressured != null) {
+            limit = Math.max(minLimit, previous / 2);
+            if (pressuredExecutor == null) {
+                log.warn("Executor {} is under pressure, shedding low-priority work above {} in flight", pressured,
+                        limit);
+            }
+        } else if (previous < maxLimit) {
+            limit = previous + 1;
+            if (limit == maxLimit) {
+                log.info("Interactive executors recovered, low-priority limit back at {}", maxLimit);
+            }
+        }
+        pressuredExecutor = pressured;
+    }
+
+    public AdmissionSnapshot snapshot() {
+        return new AdmissionSnapshot(limit, minLimit, maxLimit, inFlight.get(), (long) admitted.count(),
+                (long) shed.count(), pressuredExecutor);
+    }
+
+    // An exception would cancel every later run of a scheduled task
+    private void adjustSafely() {
+        try {
+            adjust();
+        } catch (RuntimeException e) {
+            log.error("Could not adjust the low-priority admission limit", e);
+        }
+    }
+
+    private String findPressuredExecutor() {
+        for (String name : interactiveExecutors) {
+            ExecutorTelemetry.Pool pool = executorTelemetry.pool(name);
+            if (pool.queueWaitMillis() > targetQueueWaitMillis || pool.utilisation() > maxUtilisation) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+    public record AdmissionSnapshot(int limit, int minLimit, int maxLimit, int inFlight, long admitted, long shed,
+            String pressuredExecutor) {
+    }
+}
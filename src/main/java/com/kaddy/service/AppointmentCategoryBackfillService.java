@@ -0,0 +1,69 @@
+package com.kaddy.service;
+
+import com.kaddy.model.enums.AppointmentCategory;
+import com.kaddy.repository.AppointmentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Categorizes appointments written before the category column existed, one chunk per transaction
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AppointmentCategoryBackfillService {
+
+    private final AppointmentRepository appointmentRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${appointments.category-backfill.batch-size:1000}")
+    private int batchSize;
+
+    @Async("batchExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillCategories() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long total = 0;
+        int updated;
+
+        do {
+            Integer chunk = transactionTemplate.execute(status -> backfillChunk());
+            updated = chunk != null ? chunk : 0;
+            total += updated;
+        } while (updated > 0);
+
+        if (total > 0) {
+            log.info("Backfilled category for {} appointments", total);
+        }
+    }
+
+    private int backfillChunk() {
+        List<Object[]> rows = appointmentRepository.findUncategorized(PageRequest.of(0, batchSize));
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        Map<AppointmentCategory, List<Long>> idsByCategory = new EnumMap<>(AppointmentCategory.class);
+        for (Object[] row : rows) {
+            AppointmentCategory category = AppointmentCategory.fromReason((String) row[1]);
+            idsByCategory.computeIfAbsent(category, c -> new ArrayList<>()).add((Long) row[0]);
+        }
+
+        int updated = 0;
+        for (Map.Entry<AppointmentCategory, List<Long>> entry : idsByCategory.entrySet()) {
+            updated += appointmentRepository.updateCategory(entry.getKey(), entry.getValue());
+        }
+        return updated;
+    }
+}
@@ -6,13 +6,14 @@ import com.kaddy.exception.ResourceNotFoundException;
 import com.kaddy.model.Appointment;
 import com.kaddy.model.Doctor;
 import com.kaddy.model.Patient;
-import com.kaddy.model.User;
+import com.kaddy.model.enums.AppointmentCategory;
 import com.kaddy.model.enums.AppointmentStatus;
 import com.kaddy.model.enums.UserRole;
 import com.kaddy.repository.AppointmentRepository;
 import com.kaddy.repository.DoctorRepository;
 import com.kaddy.repository.PatientRepository;
 import com.kaddy.repository.UserRepository;
+import com.kaddy.security.CurrentActor;
 import com.kaddy.security.SecurityUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -41,20 +42,22 @@ public class AppointmentService {
     public List<AppointmentDTO> getAllAppointments() {
         log.info("Fetching all appointments");
 
-        User currentUser = securityUtils.getCurrentUser()
+        UserRole role = securityUtils.getCurrentUserRole()
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
         List<Appointment> appointments;
 
-        if (currentUser.getRole() == UserRole.DOCTOR) {
-            Doctor doctor = doctorRepository.findByUserId(currentUser.getId())
+        if (role == UserRole.DOCTOR) {
+            Long doctorId = securityUtils.getCurrentDoctorId()
                     .orElseThrow(() -> new ResourceNotFoundException("Doctor profile not found"));
-            appointments = appointmentRepository.findByDoctorId(doctor.getId());
-        } else if (currentUser.getRole() == UserRole.PATIENT) {
-            Patient patient = patientRepository.findByUserId(currentUser.getId())
+            appointments = appointmentRepository.findByDoctorId(doctorId);
+        } else if (role == UserRole.PATIENT) {
+            Long patientId = securityUtils.getCurrentActor().flatMap(CurrentActor::getPatientId)
+                    .or(() -> securityUtils.getCurrentUserId().flatMap(patientRepository::findByUserId)
+                            .map(Patient::getId))
                     .orElseThrow(() -> new ResourceNotFoundException("Patient profile not found"));
-            appointments = appointmentRepository.findByPatientId(patient.getId());
-        } else if (currentUser.getRole() == UserRole.NURSE) {
+            appointments = appointmentRepository.findByPatientId(patientId);
+        } else if (role == UserRole.NURSE) {
             appointments = appointmentRepository.findAll();
         } else {
             appointments = appointmentRepository.findAll();
@@ -122,6 +125,7 @@ public class AppointmentService {
         appointment.setAppointmentDateTime(request.getAppointmentDateTime());
         appointment.setStatus(request.getStatus() != null ? request.getStatus() : AppointmentStatus.SCHEDULED);
         appointment.setReasonForVisit(request.getReasonForVisit());
+        appointment.setCategory(AppointmentCategory.fromReason(request.getReasonForVisit()));
         appointment.setSymptoms(request.getSymptoms());
         appointment.setDiagnosis(request.getDiagnosis());
         appointment.setNotes(request.getNotes());
@@ -161,6 +165,7 @@ public class AppointmentService {
 
         if (request.getReasonForVisit() != null) {
             appointment.setReasonForVisit(request.getReasonForVisit());
+            appointment.setCategory(AppointmentCategory.fromReason(request.getReasonForVisit()));
         }
 
         if (request.getSymptoms() != null) {
@@ -11,6 +11,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
@@ -19,6 +20,7 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
@@ -32,6 +34,8 @@ public class BillingService {
     private final PatientRepository patientRepository;
     private final HospitalRepository hospitalRepository;
     private final UserRepository userRepository;
+    private final DocumentNumberService documentNumberService;
+    private final FanOut fanOut;
 
     public Invoice createInvoice(Long hospitalId, Long patientId, Long createdByUserId) {
         Hospital hospital = hospitalRepository.findById(hospitalId)
@@ -320,46 +324,40 @@ public class BillingService {
         return serviceItemRepository.findByHospitalIdAndCategoryAndIsActiveTrue(hospitalId, category);
     }
 
-    @Transactional(readOnly = true)
+    // The six aggregates are independent, so they run in parallel, each fork in its own read-only transaction
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Map<String, Object> getRevenueReport(Long hospitalId, LocalDate startDate, LocalDate endDate) {
-        BigDecimal totalRevenue = invoiceRepository.getTotalRevenue(hospitalId, startDate, endDate);
-        BigDecimal totalCollected = invoiceRepository.getTotalCollected(hospitalId, startDate, endDate);
-        BigDecimal totalOutstanding = invoiceRepository.getTotalOutstanding(hospitalId);
-
-        Long pendingInvoices = invoiceRepository.countByHospitalIdAndStatus(hospitalId, BillingStatus.PENDING);
-        Long overdueInvoices = invoiceRepository.countByHospitalIdAndStatus(hospitalId, BillingStatus.OVERDUE);
-        Long paidInvoices = invoiceRepository.countByHospitalIdAndStatus(hospitalId, BillingStatus.PAID);
-
-        return Map.of("totalRevenue", totalRevenue != null ? totalRevenue : BigDecimal.ZERO, "totalCollected",
-                totalCollected != null ? totalCollected : BigDecimal.ZERO, "totalOutstanding",
-                totalOutstanding != null ? totalOutstanding : BigDecimal.ZERO, "pendingInvoices", pendingInvoices,
-                "overdueInvoices", overdueInvoices, "paidInvoices", paidInvoices, "startDate", startDate, "endDate",
-                endDate);
+        try (FanOut.Scope scope = fanOut.open()) {
+            Supplier<BigDecimal> totalRevenue = scope
+                    .fork(() -> invoiceRepository.getTotalRevenue(hospitalId, startDate, endDate));
+            Supplier<BigDecimal> totalCollected = scope
+                    .fork(() -> invoiceRepository.getTotalCollected(hospitalId, startDate, endDate));
+            Supplier<BigDecimal> totalOutstanding = scope.fork(() -> invoiceRepository.getTotalOutstanding(hospitalId));
+            Supplier<Long> pendingInvoices = scope
+                    .fork(() -> invoiceRepository.countByHospitalIdAndStatus(hospitalId, BillingStatus.PENDING));
+            Supplier<Long> overdueInvoices = scope
+                    .fork(() -> invoiceRepository.countByHospitalIdAndStatus(hospitalId, BillingStatus.OVERDUE));
+            Supplier<Long> paidInvoices = scope
+                    .fork(() -> invoiceRepository.countByHospitalIdAndStatus(hospitalId, BillingStatus.PAID));
+            scope.join();
+
+            return Map.of("totalRevenue", totalRevenue.get() != null ? totalRevenue.get() : BigDecimal.ZERO,
+                    "totalCollected", totalCollected.get() != null ? totalCollected.get() : BigDecimal.ZERO,
+                    "totalOutstanding", totalOutstanding.get() != null ? totalOutstanding.get() : BigDecimal.ZERO,
+                    "pendingInvoices", pendingInvoices.get(), "overdueInvoices", overdueInvoices.get(),
+                    "paidInvoices", paidInvoices.get(), "startDate", startDate, "endDate", endDate);
+        }
     }
 
     private String generateInvoiceNumber(Long hospitalId) {
         String prefix = "INV-" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMM")) + "-";
-        String lastNumber = invoiceRepository.findLastInvoiceNumber(hospitalId, prefix);
-
-        int nextNumber = 1;
-        if (lastNumber != null) {
-            String numPart = lastNumber.substring(prefix.length());
-            nextNumber = Integer.parseInt(numPart) + 1;
-        }
-
-        return prefix + String.format("%05d", nextNumber);
+        return documentNumberService.next(hospitalId, prefix, 5,
+                () -> invoiceRepository.findLastInvoiceNumber(hospitalId, prefix));
     }
 
     private String generateReceiptNumber(Long hospitalId) {
         String prefix = "RCP-" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMM")) + "-";
-        String lastNumber = paymentRepository.findLastReceiptNumber(hospitalId, prefix);
-
-        int nextNumber = 1;
-        if (lastNumber != null) {
-            String numPart = lastNumber.substring(prefix.length());
-            nextNumber = Integer.parseInt(numPart) + 1;
-        }
-
-        return prefix + String.format("%05d", nextNumber);
+        return documentNumberService.next(hospitalId, prefix, 5,
+                () -> paymentRepository.findLastReceiptNumber(hospitalId, prefix));
     }
 }
@@ -0,0 +1,266 @@
+package com.kaddy.service;
+
+import com.kaddy.repository.DoctorPatientAssignmentRepository;
+import com.kaddy.repository.NursePatientAssignmentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+// In-memory view of active doctor/nurse to patient assignments, kept current by the assignment services on this node.
+// Access checks and listings are served from the index alone. Changes made on other nodes are picked up by a cheap
+// poll of the assignment tables, which rebuilds the index when their row count or latest update has moved, and by a
+// full rebuild on a slower schedule.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CareTeamIndex {
+
+    private final DoctorPatientAssignmentRepository doctorAssignmentRepository;
+    private final NursePatientAssignmentRepository nurseAssignmentRepository;
+
+    // Guards the swap of the relations and the journal; held only for in-memory work, never across a query
+    private final Lock mutationLock = new ReentrantLock();
+    private final Lock rebuildLock = new ReentrantLock();
+
+    private volatile Relation doctors = new Relation();
+    private volatile Relation nurses = new Relation();
+    private volatile boolean loaded;
+    private List<BiConsumer<Relation, Relation>> journal;
+    private volatile ChangeMarker lastMarker;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        ensureLoaded();
+    }
+
+    @Scheduled(fixedDelayString = "${care-team.change-poll-interval:PT15S}",
+            initialDelayString = "${care-team.change-poll-interval:PT15S}")
+    public void pollForChanges() {
+        ChangeMarker marker = readMarker();
+        if (!marker.equals(lastMarker)) {
+            log.debug("Assignment tables changed, rebuilding the care team index");
+            rebuild();
+        }
+    }
+
+    // The first rebuild is left to the ready event, so the schedule starts one interval later
+    @Scheduled(fixedDelayString = "${care-team.index-refresh-interval:PT5M}",
+            initialDelayString = "${care-team.index-refresh-interval:PT5M}")
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            mutationLock.lock();
+            try {
+                journal = new ArrayList<>();
+            } finally {
+                mutationLock.unlock();
+            }
+
+            ChangeMarker marker;
+            Relation doctorRelation = new Relation();
+            Relation nurseRelation = new Relation();
+            try {
+                // Read before the load, so a change committed during it moves the marker again and is polled next time
+                marker = readMarker();
+                doctorAssignmentRepository.findActiveDoctorPatientPairs()
+                        .forEach(row -> doctorRelation.add((Long) row[0], (Long) row[1], (Long) row[2]));
+                nurseAssignmentRepository.findActiveNursePatientPairs()
+                        .forEach(row -> nurseRelation.add((Long) row[0], (Long) row[1], (Long) row[2]));
+            } catch (RuntimeException e) {
+                mutationLock.lock();
+                try {
+                    journal = null;
+                } finally {
+                    mutationLock.unlock();
+                }
+                throw e;
+            }
+
+            mutationLock.lock();
+            try {
+                // Changes applied to the old relations while the tables loaded are replayed onto the new ones. Both
+                // are keyed by assignment id, so replaying a change the load already saw leaves it as it was.
+                journal.forEach(change -> change.accept(doctorRelation, nurseRelation));
+                journal = null;
+                doctors = doctorRelation;
+                nurses = nurseRelation;
+                lastMarker = marker;
+                loaded = true;
+            } finally {
+                mutationLock.unlock();
+            }
+            log.debug("Care team index built: {} doctors, {} nurses", doctorRelation.size(), nurseRelation.size());
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    public boolean isDoctorAssigned(Long doctorId, Long patientId) {
+        ensureLoaded();
+        return doctors.contains(doctorId, patientId);
+    }
+
+    public boolean isNurseAssigned(Long nurseId, Long patientId) {
+        ensureLoaded();
+        return nurses.contains(nurseId, patientId);
+    }
+
+    public Set<Long> getPatientIdsForDoctor(Long doctorId) {
+        ensureLoaded();
+        return doctors.targets(doctorId);
+    }
+
+    public Set<Long> getPatientIdsForNurse(Long nurseId) {
+        ensureLoaded();
+        return nurses.targets(nurseId);
+    }
+
+    public Set<Long> getDoctorIdsForPatient(Long patientId) {
+        ensureLoaded();
+        return doctors.sources(patientId);
+    }
+
+    public Set<Long> getNurseIdsForPatient(Long patientId) {
+        ensureLoaded();
+        return nurses.sources(patientId);
+    }
+
+    public void doctorAssigned(Long assignmentId, Long doctorId, Long patientId) {
+        afterCommit((doctorRelation, nurseRelation) -> doctorRelation.add(assignmentId, doctorId, patientId));
+    }
+
+    public void doctorUnassigned(Long assignmentId, Long doctorId, Long patientId) {
+        afterCommit((doctorRelation, nurseRelation) -> doctorRelation.remove(assignmentId, doctorId, patientId));
+    }
+
+    public void nurseAssigned(Long assignmentId, Long nurseId, Long patientId) {
+        afterCommit((doctorRelation, nurseRelation) -> nurseRelation.add(assignmentId, nurseId, patientId));
+    }
+
+    public void nurseUnassigned(Long assignmentId, Long nurseId, Long patientId) {
+        afterCommit((doctorRelation, nurseRelation) -> nurseRelation.remove(assignmentId, nurseId, patientId));
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            rebuildLock.lock();
+            try {
+                if (!loaded) {
+                    rebuild();
+                }
+            } finally {
+                rebuildLock.unlock();
+            }
+        }
+    }
+
+    private ChangeMarker readMarker() {
+        return new ChangeMarker(doctorAssignmentRepository.count(), doctorAssignmentRepository.findLastUpdatedAt(),
+                nurseAssignmentRepository.count(), nurseAssignmentRepository.findLastUpdatedAt());
+    }
+
+    private void afterCommit(BiConsumer<Relation, Relation> change) {
+        Runnable apply = () -> {
+            mutationLock.lock();
+            try {
+                change.accept(doctors, nurses);
+                if (journal != null) {
+                    journal.add(change);
+                }
+            } finally {
+                mutationLock.unlock();
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    // A deleted or deactivated assignment changes the row count or the latest update
+    private record ChangeMarker(long doctorRows, LocalDateTime doctorsUpdatedAt, long nurseRows,
+            LocalDateTime nursesUpdatedAt) {
+    }
+
+    // Pairs hold the ids of their active assignments, since the same doctor may hold several for one patient. Adding
+    // or removing an assignment the relation already reflects is a no-op.
+    private static final class Relation {
+        private final Map<Long, Map<Long, Set<Long>>> forward = new ConcurrentHashMap<>();
+        private final Map<Long, Map<Long, Set<Long>>> reverse = new ConcurrentHashMap<>();
+
+        void add(Long assignmentId, Long source, Long target) {
+            if (assignmentId == null || source == null || target == null) {
+                return;
+            }
+            add(forward, source, target, assignmentId);
+            add(reverse, target, source, assignmentId);
+        }
+
+        void remove(Long assignmentId, Long source, Long target) {
+            if (assignmentId == null || source == null || target == null) {
+                return;
+            }
+            remove(forward, source, target, assignmentId);
+            remove(reverse, target, source, assignmentId);
+        }
+
+        boolean contains(Long source, Long target) {
+            Map<Long, Set<Long>> targets = forward.get(source);
+            return targets != null && targets.containsKey(target);
+        }
+
+        Set<Long> targets(Long source) {
+            Map<Long, Set<Long>> targets = forward.get(source);
+            return targets != null ? Set.copyOf(targets.keySet()) : Set.of();
+        }
+
+        Set<Long> sources(Long target) {
+            Map<Long, Set<Long>> sources = reverse.get(target);
+            return sources != null ? Set.copyOf(sources.keySet()) : Set.of();
+        }
+
+        int size() {
+            return forward.size();
+        }
+
+        private static void add(Map<Long, Map<Long, Set<Long>>> map, Long key, Long value, Long assignmentId) {
+            map.compute(key, (k, values) -> {
+                Map<Long, Set<Long>> updated = values != null ? values : new ConcurrentHashMap<>();
+                updated.computeIfAbsent(value, v -> ConcurrentHashMap.newKeySet()).add(assignmentId);
+                return updated;
+            });
+        }
+
+        private static void remove(Map<Long, Map<Long, Set<Long>>> map, Long key, Long value, Long assignmentId) {
+            map.computeIfPresent(key, (k, values) -> {
+                values.computeIfPresent(value, (v, assignmentIds) -> {
+                    assignmentIds.remove(assignmentId);
+                    return assignmentIds.isEmpty() ? null : assignmentIds;
+                });
+                return values.isEmpty() ? null : values;
+            });
+        }
+    }
+}
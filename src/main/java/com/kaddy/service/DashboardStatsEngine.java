@@ -0,0 +1,232 @@
+package com.kaddy.service;
+
+import com.kaddy.dto.DashboardStatsDTO;
+import com.kaddy.model.Appointment;
+import com.kaddy.model.Doctor;
+import com.kaddy.model.EntityWriteEvent;
+import com.kaddy.model.Medication;
+import com.kaddy.model.Patient;
+import com.kaddy.repository.AppointmentRepository;
+import com.kaddy.repository.DoctorRepository;
+import com.kaddy.repository.MedicationRepository;
+import com.kaddy.repository.PatientRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Live dashboard counters updated from entity write events; a periodic reconciliation corrects any drift from
+// rolled-back transactions or bulk JPQL updates that bypass the entity listeners.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardStatsEngine {
+
+    static final int LOW_STOCK_THRESHOLD = 10;
+    private static final int MONTHS_TRACKED = 6;
+
+    private final PatientRepository patientRepository;
+    private final DoctorRepository doctorRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final MedicationRepository medicationRepository;
+
+    private final AtomicLong totalPatients = new AtomicLong();
+    private final AtomicLong totalDoctors = new AtomicLong();
+    private final Map<YearMonth, AtomicLong> monthlyRegistrations = new ConcurrentHashMap<>();
+    private final Set<Long> todayAppointmentIds = ConcurrentHashMap.newKeySet();
+    private final Set<Long> lowStockMedicationIds = ConcurrentHashMap.newKeySet();
+
+    private volatile LocalDate trackedDay = LocalDate.now();
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reconcile();
+    }
+
+    @Scheduled(cron = "${dashboard.stats.reconcile-cron:0 */10 * * * *}")
+    @Transactional(readOnly = true)
+    public void reconcile() {
+        long start = System.currentTimeMillis();
+        LocalDate today = LocalDate.now();
+
+        totalPatients.set(patientRepository.count());
+        totalDoctors.set(doctorRepository.count());
+
+        YearMonth firstTracked = YearMonth.now().minusMonths(MONTHS_TRACKED - 1);
+        Map<YearMonth, AtomicLong> buckets = new ConcurrentHashMap<>();
+        for (Object[] row : patientRepository.countRegistrationsByMonthSince(firstTracked.atDay(1).atStartOfDay())) {
+            YearMonth month = YearMonth.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue());
+            buckets.put(month, new AtomicLong(((Number) row[2]).longValue()));
+        }
+        monthlyRegistrations.keySet().retainAll(buckets.keySet());
+        monthlyRegistrations.putAll(buckets);
+
+        replace(todayAppointmentIds, appointmentRepository.findIdsBetweenDates(today.atStartOfDay(),
+                today.plusDays(1).atStartOfDay()));
+        replace(lowStockMedicationIds, medicationRepository.findIdsWithStockBelow(LOW_STOCK_THRESHOLD));
+
+        trackedDay = today;
+        ready = true;
+        log.debug("Dashboard statistics reconciled in {}ms", System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return ready && trackedDay.equals(LocalDate.now());
+    }
+
+    public DashboardStatsDTO snapshot() {
+        return DashboardStatsDTO.builder().totalPatients(totalPatients.get()).totalDoctors(totalDoctors.get())
+                .todayAppointments((long) todayAppointmentIds.size())
+                .lowStockMedications((long) lowStockMedicationIds.size()).monthlyPatients(monthlyPatients()).build();
+    }
+
+    // Writes to the tracked entities, published by EntityWriteListener
+    @EventListener
+    public void onEntityWrite(EntityWriteEvent event) {
+        Object entity = event.entity();
+        switch (event.kind()) {
+            case PERSISTED -> {
+                if (entity instanceof Patient patient) {
+                    patientCreated(patient);
+                } else if (entity instanceof Doctor doctor) {
+                    doctorCreated(doctor);
+                } else if (entity instanceof Appointment appointment) {
+                    appointmentSaved(appointment);
+                } else if (entity instanceof Medication medication) {
+                    medicationSaved(medication);
+                }
+            }
+            case UPDATED -> {
+                if (entity instanceof Appointment appointment) {
+                    appointmentSaved(appointment);
+                } else if (entity instanceof Medication medication) {
+                    medicationSaved(medication);
+                }
+            }
+            case REMOVED -> {
+                if (entity instanceof Patient patient) {
+                    patientRemoved(patient);
+                } else if (entity instanceof Doctor doctor) {
+                    doctorRemoved(doctor);
+                } else if (entity instanceof Appointment appointment) {
+                    appointmentRemoved(appointment);
+                } else if (entity instanceof Medication medication) {
+                    medicationRemoved(medication);
+                }
+            }
+        }
+    }
+
+    void patientCreated(Patient patient) {
+        afterCommit(() -> {
+            totalPatients.incrementAndGet();
+            registrationBucket(patient.getCreatedAt()).incrementAndGet();
+        });
+    }
+
+    void patientRemoved(Patient patient) {
+        afterCommit(() -> {
+            totalPatients.decrementAndGet();
+            registrationBucket(patient.getCreatedAt()).decrementAndGet();
+        });
+    }
+
+    void doctorCreated(Doctor doctor) {
+        afterCommit(totalDoctors::incrementAndGet);
+    }
+
+    void doctorRemoved(Doctor doctor) {
+        afterCommit(totalDoctors::decrementAndGet);
+    }
+
+    void appointmentSaved(Appointment appointment) {
+        Long id = appointment.getId();
+        boolean today = appointment.getAppointmentDateTime() != null
+                && appointment.getAppointmentDateTime().toLocalDate().equals(trackedDay);
+        afterCommit(() -> {
+            if (today) {
+                todayAppointmentIds.add(id);
+            } else {
+                todayAppointmentIds.remove(id);
+            }
+        });
+    }
+
+    void appointmentRemoved(Appointment appointment) {
+        Long id = appointment.getId();
+        afterCommit(() -> todayAppointmentIds.remove(id));
+    }
+
+    void medicationSaved(Medication medication) {
+        Long id = medication.getId();
+        boolean lowStock = medication.getStockQuantity() != null
+                && medication.getStockQuantity() < LOW_STOCK_THRESHOLD;
+        afterCommit(() -> {
+            if (lowStock) {
+                lowStockMedicationIds.add(id);
+            } else {
+                lowStockMedicationIds.remove(id);
+            }
+        });
+    }
+
+    void medicationRemoved(Medication medication) {
+        Long id = medication.getId();
+        afterCommit(() -> lowStockMedicationIds.remove(id));
+    }
+
+    private List<DashboardStatsDTO.MonthlyPatientCount> monthlyPatients() {
+        List<DashboardStatsDTO.MonthlyPatientCount> monthlyCounts = new ArrayList<>();
+        for (int i = MONTHS_TRACKED - 1; i >= 0; i--) {
+            YearMonth yearMonth = YearMonth.now().minusMonths(i);
+            AtomicLong count = monthlyRegistrations.get(yearMonth);
+            String monthName = yearMonth.getMonth().getDisplayName(TextStyle.SHORT, Locale.ENGLISH);
+            monthlyCounts.add(DashboardStatsDTO.MonthlyPatientCount.builder().month(monthName)
+                    .patients(count != null ? count.get() : 0L).build());
+        }
+        return monthlyCounts;
+    }
+
+    private AtomicLong registrationBucket(LocalDateTime createdAt) {
+        YearMonth month = createdAt != null ? YearMonth.from(createdAt) : YearMonth.now();
+        return monthlyRegistrations.computeIfAbsent(month, m -> new AtomicLong());
+    }
+
+    private static void replace(Set<Long> target, List<Long> ids) {
+        Set<Long> fresh = new HashSet<>(ids);
+        target.retainAll(fresh);
+        target.addAll(fresh);
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+}
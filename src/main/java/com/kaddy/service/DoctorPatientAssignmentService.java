@@ -28,6 +28,7 @@ public class DoctorPatientAssignmentService {
     private final DoctorRepository doctorRepository;
     private final PatientRepository patientRepository;
     private final ModelMapper modelMapper;
+    private final CareTeamIndex careTeamIndex;
 
     public DoctorPatientAssignmentDTO assignDoctorToPatient(DoctorPatientAssignmentDTO assignmentDTO) {
         log.info("Assigning doctor {} to patient {}", assignmentDTO.getDoctorId(), assignmentDTO.getPatientId());
@@ -47,6 +48,7 @@ public class DoctorPatientAssignmentService {
         assignment.setStatus(DoctorPatientAssignment.AssignmentStatus.ACTIVE);
 
         DoctorPatientAssignment saved = assignmentRepository.save(assignment);
+        careTeamIndex.doctorAssigned(saved.getId(), doctor.getId(), patient.getId());
         return convertToDTO(saved);
     }
 
@@ -66,13 +68,13 @@ public class DoctorPatientAssignmentService {
 
     @Transactional(readOnly = true)
     public List<Long> getPatientIdsForDoctor(Long doctorId) {
-        return assignmentRepository.findPatientIdsByDoctorId(doctorId);
+        return List.copyOf(careTeamIndex.getPatientIdsForDoctor(doctorId));
     }
 
     @Transactional(readOnly = true)
     public long getPatientCountForDoctor(Long doctorId) {
         log.info("Getting patient count for doctor {}", doctorId);
-        return assignmentRepository.findPatientIdsByDoctorId(doctorId).size();
+        return careTeamIndex.getPatientIdsForDoctor(doctorId).size();
     }
 
     public void removeAssignment(Long assignmentId) {
@@ -80,8 +82,13 @@ public class DoctorPatientAssignmentService {
         DoctorPatientAssignment assignment = assignmentRepository.findById(assignmentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Assignment not found with id: " + assignmentId));
 
+        boolean wasActive = assignment.getStatus() == DoctorPatientAssignment.AssignmentStatus.ACTIVE;
         assignment.setStatus(DoctorPatientAssignment.AssignmentStatus.COMPLETED);
         assignmentRepository.save(assignment);
+        if (wasActive) {
+            careTeamIndex.doctorUnassigned(assignment.getId(), assignment.getDoctor().getId(),
+                    assignment.getPatient().getId());
+        }
     }
 
     private DoctorPatientAssignmentDTO convertToDTO(DoctorPatientAssignment assignment) {
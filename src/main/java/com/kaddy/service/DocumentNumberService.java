@@ -0,0 +1,134 @@
+package com.kaddy.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kaddy.model.DocumentSequence;
+import com.kaddy.repository.DocumentSequenceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Hands out document numbers (invoice, receipt, PO, claim...) per scope and period prefix. Each node reserves a block
+// of values from document_sequences in a short transaction of its own and then issues them from memory, so numbering
+// never scans the document table and two concurrent requests can never receive the same number. A block left unused
+// when a node stops, or a number whose transaction rolls back, leaves a gap.
+@Service
+@Slf4j
+public class DocumentNumberService {
+
+    public static final long GLOBAL_SCOPE = 0L;
+
+    private final DocumentSequenceRepository sequenceRepository;
+    private final TransactionTemplate allocationTransaction;
+    private final Cache<SequenceKey, Block> blocks;
+    private final int blockSize;
+
+    public DocumentNumberService(DocumentSequenceRepository sequenceRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${document-numbers.block-size:20}") int blockSize,
+            @Value("${document-numbers.idle-expiry:P2D}") Duration idleExpiry) {
+        this.sequenceRepository = sequenceRepository;
+        this.blockSize = blockSize;
+        this.allocationTransaction = new TransactionTemplate(transactionManager);
+        this.allocationTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // Prefixes embed their period, so last month's blocks simply age out
+        this.blocks = Caffeine.newBuilder().expireAfterAccess(idleExpiry).build();
+    }
+
+    // The caller builds the prefix from a single clock reading, so a number issued at 23:59:59 on the last day of the
+    // month and one issued a second later land in different sequences. lastIssued seeds a sequence the first time it
+    // is seen so numbering continues after documents created by the old MAX()+1 generators.
+    public String next(Long scopeId, String prefix, int width, Supplier<String> lastIssued) {
+        SequenceKey key = new SequenceKey(scopeId != null ? scopeId : GLOBAL_SCOPE, prefix);
+        return prefix + pad(nextValue(key, lastIssued), width);
+    }
+
+    private long nextValue(SequenceKey key, Supplier<String> lastIssued) {
+        Block block = blocks.get(key, k -> new Block(0, 0));
+        long value = block.next.getAndIncrement();
+        if (value < block.limit) {
+            return value;
+        }
+
+        // A lock rather than synchronized: the refill runs a transaction, and a virtual thread blocked on I/O
+        // inside a monitor pins its carrier
+        block.refillLock.lock();
+        try {
+            Block current = blocks.get(key, k -> new Block(0, 0));
+            if (current != block) {
+                return nextValue(key, lastIssued);
+            }
+            Block refilled = allocate(key, lastIssued);
+            long first = refilled.next.getAndIncrement();
+            blocks.put(key, refilled);
+            return first;
+        } finally {
+            block.refillLock.unlock();
+        }
+    }
+
+    private Block allocate(SequenceKey key, Supplier<String> lastIssued) {
+        try {
+            return allocationTransaction.execute(status -> reserveBlock(key, lastIssued));
+        } catch (DataIntegrityViolationException e) {
+            // Another node created the sequence row first; its row is visible now
+            return allocationTransaction.execute(status -> reserveBlock(key, lastIssued));
+        }
+    }
+
+    private Block reserveBlock(SequenceKey key, Supplier<String> lastIssued) {
+        DocumentSequence sequence = sequenceRepository.findForUpdate(key.scopeId(), key.prefix()).orElse(null);
+        if (sequence == null) {
+            sequence = new DocumentSequence();
+            sequence.setScopeId(key.scopeId());
+            sequence.setPrefix(key.prefix());
+            sequence.setNextValue(seed(key.prefix(), lastIssued));
+        }
+
+        long start = sequence.getNextValue();
+        sequence.setNextValue(start + blockSize);
+        sequenceRepository.saveAndFlush(sequence);
+        return new Block(start, start + blockSize);
+    }
+
+    private long seed(String prefix, Supplier<String> lastIssued) {
+        String last = lastIssued != null ? lastIssued.get() : null;
+        if (last == null || last.length() <= prefix.length()) {
+            return 1;
+        }
+        try {
+            return Long.parseLong(last.substring(prefix.length())) + 1;
+        } catch (NumberFormatException e) {
+            log.warn("Could not parse sequence from existing document number: {}", last);
+            return 1;
+        }
+    }
+
+    private static String pad(long value, int width) {
+        String digits = Long.toString(value);
+        return digits.length() >= width ? digits : "0".repeat(width - digits.length()) + digits;
+    }
+
+    private record SequenceKey(Long scopeId, String prefix) {
+    }
+
+    private static final class Block {
+        final AtomicLong next;
+        final long limit;
+        final ReentrantLock refillLock = new ReentrantLock();
+
+        Block(long start, long limit) {
+            this.next = new AtomicLong(start);
+            this.limit = limit;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.kaddy.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+// Runs the independent reads of a composite endpoint side by side, shaped like StructuredTaskScope.ShutdownOnFailure
+// (a preview API in Java 21): fork each read, join once, and every fork is finished or cancelled when the scope
+// closes. The first failure cancels the siblings and is rethrown from join, and the whole scope shares one deadline.
+//
+// A database session is bound to one thread, so each fork runs in its own read-only transaction whose timeout is the
+// time left on the deadline, and anything lazy must be read inside the fork. Forks carry the caller's MDC and
+// security context, and never see the caller's uncommitted writes.
+@Component
+@Slf4j
+public class FanOut {
+
+    private final Executor queryExecutor;
+    private final PlatformTransactionManager transactionManager;
+    private final Duration defaultTimeout;
+
+    public FanOut(@Qualifier("queryExecutor") Executor queryExecutor,
+            PlatformTransactionManager transactionManager,
+            @Value("${fan-out.timeout:PT10S}") Duration defaultTimeout) {
+        this.queryExecutor = queryExecutor;
+        this.transactionManager = transactionManager;
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    public Scope open() {
+        return open(defaultTimeout);
+    }
+
+    public Scope open(Duration timeout) {
+        return new Scope(System.nanoTime() + timeout.toNanos());
+    }
+
+    public final class Scope implements AutoCloseable {
+        private final long deadline;
+        private final Map<String, String> mdc = MDC.getCopyOfContextMap();
+        private final SecurityContext securityContext = SecurityContextHolder.getContext();
+        private final List<Fork<?>> forks = new ArrayList<>();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private CountDownLatch remaining;
+        private boolean joined;
+
+        private Scope(long deadline) {
+            this.deadline = deadline;
+        }
+
+        public <T> Supplier<T> fork(Callable<T> task) {
+            if (joined) {
+                throw new IllegalStateException("Cannot fork after join");
+            }
+            Fork<T> fork = new Fork<>(task);
+            forks.add(fork);
+            return fork;
+        }
+
+        // Forks are submitted together here so the latch is sized before any of them can finish
+        public void join() {
+            if (joined) {
+                throw new IllegalStateException("Scope already joined");
+            }
+            joined = true;
+            remaining = new CountDownLatch(forks.size());
+            for (Fork<?> fork : forks) {
+                queryExecutor.execute(fork::run);
+            }
+
+            try {
+                if (!remaining.await(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    cancelAll();
+                    throw new QueryTimeoutException("Parallel reads did not finish before the deadline");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelAll();
+                throw new IllegalStateException("Interrupted waiting for parallel reads", e);
+            }
+
+            Throwable first = failure.get();
+            if (first instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (first instanceof Error error) {
+                throw error;
+            }
+            if (first != null) {
+                throw new IllegalStateException(first.getMessage(), first);
+            }
+        }
+
+        @Override
+        public void close() {
+            cancelAll();
+        }
+
+        private void cancelAll() {
+            for (Fork<?> fork : forks) {
+                fork.cancel();
+            }
+        }
+
+        // Wakes join at once: a cancelled fork still counts down, but only once a thread picks it up, which for a fork
+        // still queued behind other work can be close to the deadline
+        private void fail(Throwable e) {
+            if (failure.compareAndSet(null, e)) {
+                log.debug("Parallel read failed, cancelling its siblings: {}", e.getMessage());
+                cancelAll();
+                while (remaining.getCount() > 0) {
+                    remaining.countDown();
+                }
+            }
+        }
+
+        private int secondsLeft() {
+            long nanos = deadline - System.nanoTime();
+            return (int) Math.max(1, TimeUnit.NANOSECONDS.toSeconds(nanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        }
+
+        private final class Fork<T> implements Supplier<T> {
+            private final Callable<T> task;
+            private volatile T result;
+            private volatile boolean done;
+            private boolean cancelled;
+            private Thread runner;
+
+            Fork(Callable<T> task) {
+                this.task = task;
+            }
+
+            void run() {
+                Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+                SecurityContext previousSecurity = SecurityContextHolder.getContext();
+                try {
+                    if (!enter()) {
+                        return;
+                    }
+                    if (mdc != null) {
+                        MDC.setContextMap(mdc);
+                    }
+                    SecurityContextHolder.setContext(securityContext);
+
+                    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+                    transaction.setReadOnly(true);
+                    transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+                    transaction.setTimeout(secondsLeft());
+                    result = transaction.execute(status -> {
+                        try {
+                            return task.call();
+                        } catch (RuntimeException e) {
+                            throw e;
+                        } catch (Exception e) {
+                            throw new IllegalStateException(e.getMessage(), e);
+                        }
+                    });
+                    done = true;
+                } catch (Throwable e) {
+                    fail(e);
+                } finally {
+                    exit();
+                    if (previousMdc != null) {
+                        MDC.setContextMap(previousMdc);
+                    } else {
+                        MDC.clear();
+                    }
+                    SecurityContextHolder.setContext(previousSecurity);
+                    remaining.countDown();
+                }
+            }
+
+            // The monitor only guards the runner field, never a blocking call, so an interrupt can only reach the
+            // thread while it is still running this fork
+            private synchronized boolean enter() {
+                if (cancelled) {
+                    return false;
+                }
+                runner = Thread.currentThread();
+                return true;
+            }
+
+            // An interrupt from cancel must not outlive the fork, least of all when it ran on the caller's thread
+            private synchronized void exit() {
+                runner = null;
+                if (cancelled) {
+                    Thread.interrupted();
+                }
+            }
+
+            synchronized void cancel() {
+                cancelled = true;
+                if (runner != null && runner != Thread.currentThread()) {
+                    runner.interrupt();
+                }
+            }
+
+            @Override
+            public T get() {
+                if (!done) {
+                    throw new IllegalStateException("Fork has not completed successfully");
+                }
+                return result;
+            }
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.kaddy.exception.ResourceNotFoundException;
 import com.kaddy.exception.SubscriptionException;
 import com.kaddy.model.Hospital;
 import com.kaddy.model.User;
+import com.kaddy.model.enums.HospitalFeature;
 import com.kaddy.model.enums.SubscriptionPlan;
 import com.kaddy.model.enums.SubscriptionStatus;
 import com.kaddy.model.enums.UserRole;
@@ -32,6 +33,7 @@ public class HospitalService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final ModelMapper modelMapper;
+    private final TenantContextCache tenantContextCache;
 
     private static final int TRIAL_DAYS = 10;
 
@@ -132,6 +134,7 @@ public class HospitalService {
         hospital.setWebsite(dto.getWebsite());
         hospital.setLogoUrl(dto.getLogoUrl());
 
+        tenantContextCache.invalidate(id);
         return mapToDTO(hospitalRepository.save(hospital));
     }
 
@@ -154,56 +157,36 @@ public class HospitalService {
         hospital.setAiEnabled(newPlan.isAiEnabled());
         hospital.setFhirEnabled(newPlan.isFhirEnabled());
 
+        tenantContextCache.invalidate(hospitalId);
         log.info("Hospital {} upgraded to {} plan", hospitalId, newPlan);
         return mapToDTO(hospitalRepository.save(hospital));
     }
 
-    @Transactional(readOnly = true)
     public void validateSubscription(Long hospitalId) {
-        Hospital hospital = hospitalRepository.findById(hospitalId)
-                .orElseThrow(() -> new ResourceNotFoundException("Hospital not found with id: " + hospitalId));
-
-        if (!hospital.isSubscriptionActive()) {
+        if (!getTenantContext(hospitalId).isSubscriptionActive()) {
             throw new SubscriptionException("Hospital subscription has expired. Please upgrade your plan.");
         }
     }
 
     @Transactional(readOnly = true)
     public void validateUserLimit(Long hospitalId) {
-        Hospital hospital = hospitalRepository.findById(hospitalId)
-                .orElseThrow(() -> new ResourceNotFoundException("Hospital not found with id: " + hospitalId));
+        TenantContextCache.TenantContext context = getTenantContext(hospitalId);
+        if (context.hasUnlimitedUsers()) {
+            return;
+        }
 
         long currentUsers = hospitalRepository.countActiveUsersByHospitalId(hospitalId);
-        if (hospital.getMaxUsers() != -1 && currentUsers >= hospital.getMaxUsers()) {
+        if (currentUsers >= context.maxUsers()) {
             throw new SubscriptionException("User limit reached. Please upgrade your plan to add more users.");
         }
     }
 
-    @Transactional(readOnly = true)
     public void validateFeatureAccess(Long hospitalId, String feature) {
-        Hospital hospital = hospitalRepository.findById(hospitalId)
-                .orElseThrow(() -> new ResourceNotFoundException("Hospital not found with id: " + hospitalId));
+        TenantContextCache.TenantContext context = getTenantContext(hospitalId);
 
-        switch (feature.toLowerCase()) {
-            case "ai" :
-                if (!hospital.getAiEnabled()) {
-                    throw new SubscriptionException(
-                            "AI features are not available in your current plan. Please upgrade to Professional or Enterprise.");
-                }
-                break;
-            case "fhir" :
-                if (!hospital.getFhirEnabled()) {
-                    throw new SubscriptionException(
-                            "FHIR/EHR features are not available in your current plan. Please upgrade to Basic or higher.");
-                }
-                break;
-            case "bed_management" :
-                if (!hospital.getBedManagementEnabled()) {
-                    throw new SubscriptionException("Bed Management is not available in your current plan.");
-                }
-                break;
-            default :
-                break;
+        HospitalFeature hospitalFeature = HospitalFeature.fromKey(feature);
+        if (hospitalFeature != null && !context.hasFeature(hospitalFeature)) {
+            throw new SubscriptionException(hospitalFeature.getUnavailableMessage());
         }
     }
 
@@ -213,6 +196,7 @@ public class HospitalService {
         for (Hospital hospital : expiredTrials) {
             hospital.setSubscriptionStatus(SubscriptionStatus.EXPIRED);
             hospitalRepository.save(hospital);
+            tenantContextCache.invalidate(hospital.getId());
             log.info("Trial expired for hospital: {}", hospital.getCode());
         }
     }
@@ -228,6 +212,14 @@ public class HospitalService {
         return mapToDTO(savedHospital);
     }
 
+    private TenantContextCache.TenantContext getTenantContext(Long hospitalId) {
+        TenantContextCache.TenantContext context = tenantContextCache.get(hospitalId);
+        if (context == null) {
+            throw new ResourceNotFoundException("Hospital not found with id: " + hospitalId);
+        }
+        return context;
+    }
+
     private String generateHospitalCode(String hospitalName) {
         String prefix = hospitalName.replaceAll("[^a-zA-Z]", "").toUpperCase();
         prefix = prefix.length() > 3 ? prefix.substring(0, 3) : prefix;
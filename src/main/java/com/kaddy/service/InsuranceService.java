@@ -9,6 +9,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
@@ -18,6 +19,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
@@ -32,6 +34,8 @@ public class InsuranceService {
     private final PatientRepository patientRepository;
     private final InvoiceRepository invoiceRepository;
     private final UserRepository userRepository;
+    private final DocumentNumberService documentNumberService;
+    private final FanOut fanOut;
 
     public InsuranceProvider createProvider(String providerCode, String name, String address, String phone,
             String email, String contactPerson, String tpaName, String tpaCode, BigDecimal defaultCoveragePercentage,
@@ -369,20 +373,36 @@ public class InsuranceService {
         return insuranceClaimRepository.findPendingClaims(hospitalId);
     }
 
-    @Transactional(readOnly = true)
+    // The aggregates are independent, so they run in parallel, each fork in its own read-only transaction
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Map<String, Object> getClaimsReport(Long hospitalId, LocalDate startDate, LocalDate endDate) {
         Map<String, Object> report = new HashMap<>();
 
-        BigDecimal totalClaimed = insuranceClaimRepository.getTotalClaimedAmount(hospitalId, startDate, endDate);
-        BigDecimal totalSettled = insuranceClaimRepository.getTotalSettledAmount(hospitalId, startDate, endDate);
-        BigDecimal totalRejected = insuranceClaimRepository.getTotalRejectedAmount(hospitalId, startDate, endDate);
+        BigDecimal totalClaimed;
+        BigDecimal totalSettled;
+        BigDecimal totalRejected;
+        long pendingClaims;
+        try (FanOut.Scope scope = fanOut.open()) {
+            Supplier<BigDecimal> claimed = scope
+                    .fork(() -> insuranceClaimRepository.getTotalClaimedAmount(hospitalId, startDate, endDate));
+            Supplier<BigDecimal> settled = scope
+                    .fork(() -> insuranceClaimRepository.getTotalSettledAmount(hospitalId, startDate, endDate));
+            Supplier<BigDecimal> rejected = scope
+                    .fork(() -> insuranceClaimRepository.getTotalRejectedAmount(hospitalId, startDate, endDate));
+            Supplier<Long> pending = scope.fork(() -> insuranceClaimRepository.countPendingClaims(hospitalId));
+            scope.join();
+            totalClaimed = claimed.get();
+            totalSettled = settled.get();
+            totalRejected = rejected.get();
+            pendingClaims = pending.get();
+        }
 
         report.put("startDate", startDate);
         report.put("endDate", endDate);
         report.put("totalClaimedAmount", totalClaimed != null ? totalClaimed : BigDecimal.ZERO);
         report.put("totalSettledAmount", totalSettled != null ? totalSettled : BigDecimal.ZERO);
         report.put("totalRejectedAmount", totalRejected != null ? totalRejected : BigDecimal.ZERO);
-        report.put("pendingClaims", insuranceClaimRepository.findPendingClaims(hospitalId).size());
+        report.put("pendingClaims", (int) pendingClaims);
 
         BigDecimal settlementRate = BigDecimal.ZERO;
         if (totalClaimed != null && totalClaimed.compareTo(BigDecimal.ZERO) > 0 && totalSettled != null) {
@@ -396,14 +416,7 @@ public class InsuranceService {
 
     private String generateClaimNumber(Long hospitalId) {
         String prefix = "CLM" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMM"));
-        String lastNumber = insuranceClaimRepository.findLastClaimNumber(hospitalId, prefix);
-
-        int sequence = 1;
-        if (lastNumber != null) {
-            String seqStr = lastNumber.substring(prefix.length());
-            sequence = Integer.parseInt(seqStr) + 1;
-        }
-
-        return prefix + String.format("%04d", sequence);
+        return documentNumberService.next(hospitalId, prefix, 4,
+                () -> insuranceClaimRepository.findLastClaimNumber(hospitalId, prefix));
     }
 }
@@ -1,5 +1,7 @@
 package com.kaddy.service;
 
+import com.kaddy.config.CacheConfig;
+import com.kaddy.dto.GoodsReceiptRequest;
 import com.kaddy.model.*;
 import com.kaddy.model.enums.InventoryCategory;
 import com.kaddy.model.enums.PurchaseOrderStatus;
@@ -8,7 +10,11 @@ import com.kaddy.repository.*;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,9 +23,16 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -34,6 +47,11 @@ public class InventoryService {
     private final PurchaseOrderRepository purchaseOrderRepository;
     private final HospitalRepository hospitalRepository;
     private final UserRepository userRepository;
+    private final StockAllocationEngine stockAllocationEngine;
+    private final DocumentNumberService documentNumberService;
+    private final CacheManager cacheManager;
+    private final StockExpiryIndex stockExpiryIndex;
+    private final PharmacyLookupIndex pharmacyLookupIndex;
 
     public InventoryItem createInventoryItem(Long hospitalId, String sku, String name, String genericName,
             InventoryCategory category, String unit, BigDecimal purchasePrice, BigDecimal sellingPrice, BigDecimal mrp,
@@ -75,7 +93,10 @@ public class InventoryService {
         }
 
         log.info("Created inventory item: {} (SKU: {})", name, sku);
-        return inventoryItemRepository.save(item);
+        evictInventoryReport(hospitalId);
+        InventoryItem saved = inventoryItemRepository.save(item);
+        pharmacyLookupIndex.put(saved);
+        return saved;
     }
 
     public InventoryItem updateInventoryItem(Long itemId, String name, BigDecimal sellingPrice, BigDecimal mrp,
@@ -100,7 +121,10 @@ public class InventoryService {
         if (isActive != null)
             item.setIsActive(isActive);
 
-        return inventoryItemRepository.save(item);
+        evictInventoryReport(item.getHospital().getId());
+        InventoryItem saved = inventoryItemRepository.save(item);
+        pharmacyLookupIndex.put(saved);
+        return saved;
     }
 
     @Transactional(readOnly = true)
@@ -114,6 +138,52 @@ public class InventoryService {
         return inventoryItemRepository.findByHospitalIdAndIsActiveTrue(hospitalId, pageable);
     }
 
+    // Counter typeahead. Index hits are re-loaded by id so an item deactivated or moved on another node since the last
+    // rebuild is dropped; the LIKE search answers until the index has loaded or when none of its hits survive
+    @Transactional(readOnly = true)
+    public List<PharmacyLookupIndex.Match> lookupInventoryItems(Long hospitalId, String query, int limit) {
+        if (pharmacyLookupIndex.isLoaded()) {
+            List<Long> ids = pharmacyLookupIndex.findItems(hospitalId, query, limit).stream()
+                    .map(PharmacyLookupIndex.Match::id).toList();
+            Map<Long, InventoryItem> loaded = new HashMap<>();
+            for (InventoryItem item : inventoryItemRepository.findAllById(ids)) {
+                if (isActiveIn(item, hospitalId)) {
+                    loaded.put(item.getId(), item);
+                }
+            }
+            List<PharmacyLookupIndex.Match> matches = ids.stream().map(loaded::get).filter(Objects::nonNull)
+                    .map(this::toMatch).toList();
+            if (!matches.isEmpty()) {
+                return matches;
+            }
+        }
+        return inventoryItemRepository.searchItems(hospitalId, query, PageRequest.of(0, limit)).stream()
+                .map(this::toMatch).toList();
+    }
+
+    @Transactional(readOnly = true)
+    public InventoryItem getInventoryItemByBarcode(Long hospitalId, String barcode) {
+        Long itemId = pharmacyLookupIndex.isLoaded() ? pharmacyLookupIndex.findItemIdByBarcode(hospitalId, barcode)
+                : null;
+        // The index can be behind another node's re-labelling or deactivation, so its hit is checked against the row
+        // and a miss, or a hit that no longer holds, falls through to the database
+        Optional<InventoryItem> indexed = itemId == null ? Optional.empty()
+                : inventoryItemRepository.findById(itemId)
+                        .filter(item -> isActiveIn(item, hospitalId) && barcode.equals(item.getBarcode()));
+        return indexed.or(() -> inventoryItemRepository.findByHospitalIdAndBarcode(hospitalId, barcode))
+                .filter(item -> isActiveIn(item, hospitalId))
+                .orElseThrow(() -> new EntityNotFoundException("Inventory item not found for barcode: " + barcode));
+    }
+
+    private boolean isActiveIn(InventoryItem item, Long hospitalId) {
+        return Boolean.TRUE.equals(item.getIsActive()) && item.getHospital().getId().equals(hospitalId);
+    }
+
+    private PharmacyLookupIndex.Match toMatch(InventoryItem item) {
+        return new PharmacyLookupIndex.Match(item.getId(), item.getSku(), item.getBarcode(), item.getName(),
+                item.getGenericName());
+    }
+
     @Transactional(readOnly = true)
     public Page<InventoryItem> searchInventoryItems(Long hospitalId, String search, Pageable pageable) {
         return inventoryItemRepository.searchItems(hospitalId, search, pageable);
@@ -137,7 +207,7 @@ public class InventoryService {
     public StockBatch addStockBatch(Long itemId, String batchNumber, LocalDate manufacturingDate, LocalDate expiryDate,
             Integer quantity, BigDecimal purchasePrice, BigDecimal sellingPrice, Long vendorId, Long purchaseOrderId,
             Long userId, String notes) {
-        InventoryItem item = inventoryItemRepository.findById(itemId)
+        InventoryItem item = inventoryItemRepository.findByIdForUpdate(itemId)
                 .orElseThrow(() -> new EntityNotFoundException("Inventory item not found"));
 
         StockBatch batch = new StockBatch();
@@ -162,6 +232,7 @@ public class InventoryService {
         }
 
         batch = stockBatchRepository.save(batch);
+        stockExpiryIndex.add(batch);
 
         int previousStock = item.getCurrentStock();
         item.setCurrentStock(previousStock + quantity);
@@ -182,49 +253,34 @@ public class InventoryService {
     @Transactional(readOnly = true)
     public List<StockBatch> getExpiringSoonBatches(Long hospitalId, int daysThreshold) {
         LocalDate expiryDate = LocalDate.now().plusDays(daysThreshold);
-        return stockBatchRepository.findExpiringSoon(hospitalId, expiryDate);
+        if (!stockExpiryIndex.isLoaded()) {
+            return stockBatchRepository.findExpiringSoon(hospitalId, expiryDate);
+        }
+        return loadStockedBatches(stockExpiryIndex.findExpiringOnOrBefore(hospitalId, expiryDate));
     }
 
     @Transactional(readOnly = true)
     public List<StockBatch> getExpiredBatches(Long hospitalId) {
-        return stockBatchRepository.findExpiredBatches(hospitalId, LocalDate.now());
+        if (!stockExpiryIndex.isLoaded()) {
+            return stockBatchRepository.findExpiredBatches(hospitalId, LocalDate.now());
+        }
+        return loadStockedBatches(stockExpiryIndex.findExpiredBefore(hospitalId, LocalDate.now()));
     }
 
     public void deductStock(Long itemId, int quantity, Long userId, String reason, StockMovementType movementType,
             Long referenceId, String referenceNumber) {
-        InventoryItem item = inventoryItemRepository.findById(itemId)
-                .orElseThrow(() -> new EntityNotFoundException("Inventory item not found"));
-
-        if (item.getCurrentStock() < quantity) {
-            throw new IllegalStateException("Insufficient stock. Available: " + item.getCurrentStock());
-        }
-
-        int remainingQuantity = quantity;
-        List<StockBatch> batches = stockBatchRepository.findAvailableBatchesFEFO(itemId);
-
-        for (StockBatch batch : batches) {
-            if (remainingQuantity <= 0)
-                break;
-
-            int deductFromBatch = Math.min(batch.getCurrentQuantity(), remainingQuantity);
-            batch.setCurrentQuantity(batch.getCurrentQuantity() - deductFromBatch);
-            stockBatchRepository.save(batch);
-
-            remainingQuantity -= deductFromBatch;
-        }
-
-        int previousStock = item.getCurrentStock();
-        item.setCurrentStock(previousStock - quantity);
-        inventoryItemRepository.save(item);
+        StockAllocationEngine.StockAllocation allocation = stockAllocationEngine.allocate(itemId, quantity);
+        InventoryItem item = allocation.item();
 
-        recordStockMovement(item, null, movementType, -quantity, item.getSellingPrice(), previousStock,
-                item.getCurrentStock(), null, referenceNumber, userId, reason);
+        recordStockMovement(item, null, movementType, -quantity, item.getSellingPrice(), allocation.previousStock(),
+                allocation.newStock(), null, referenceNumber, userId, reason);
 
-        log.info("Deducted {} units from item {}", quantity, item.getName());
+        log.info("Deducted {} units from item {} across {} batches", quantity, item.getName(),
+                allocation.batchesTouched());
     }
 
     public void adjustStock(Long itemId, int adjustmentQuantity, Long userId, String reason, boolean isAddition) {
-        InventoryItem item = inventoryItemRepository.findById(itemId)
+        InventoryItem item = inventoryItemRepository.findByIdForUpdate(itemId)
                 .orElseThrow(() -> new EntityNotFoundException("Inventory item not found"));
 
         int previousStock = item.getCurrentStock();
@@ -245,6 +301,9 @@ public class InventoryService {
     }
 
     public void writeOffExpiredStock(Long batchId, Long userId, String reason) {
+        // Lock the item before reading the batch so a concurrent FEFO deduction cannot change it underneath us
+        InventoryItem item = inventoryItemRepository.findByBatchIdForUpdate(batchId)
+                .orElseThrow(() -> new EntityNotFoundException("Stock batch not found"));
         StockBatch batch = stockBatchRepository.findById(batchId)
                 .orElseThrow(() -> new EntityNotFoundException("Stock batch not found"));
 
@@ -253,12 +312,12 @@ public class InventoryService {
         }
 
         int quantity = batch.getCurrentQuantity();
-        InventoryItem item = batch.getInventoryItem();
         int previousStock = item.getCurrentStock();
 
         batch.setCurrentQuantity(0);
         batch.setIsActive(false);
         stockBatchRepository.save(batch);
+        stockExpiryIndex.remove(batch);
 
         item.setCurrentStock(previousStock - quantity);
         inventoryItemRepository.save(item);
@@ -270,6 +329,46 @@ public class InventoryService {
                 quantity);
     }
 
+    // Writes off a chunk of expired batches in one transaction. Item rows are locked in id order before the batches
+    // are read, so a concurrent FEFO deduction or another chunk cannot interleave, and the movements are inserted as
+    // one JDBC batch. Batches that were emptied or are no longer expired by the time the locks are held are skipped.
+    public int writeOffExpiredBatches(Long hospitalId, List<Long> batchIds, String reason) {
+        List<Long> itemIds = stockBatchRepository.findItemIdsByBatchIds(batchIds);
+        if (itemIds.isEmpty()) {
+            return 0;
+        }
+        Map<Long, InventoryItem> items = new HashMap<>();
+        for (InventoryItem item : inventoryItemRepository.findAllByIdForUpdate(itemIds)) {
+            items.put(item.getId(), item);
+        }
+
+        LocalDate today = LocalDate.now();
+        List<StockMovement> movements = new ArrayList<>();
+        for (StockBatch batch : stockBatchRepository.findAllById(batchIds)) {
+            if (!Boolean.TRUE.equals(batch.getIsActive()) || batch.getCurrentQuantity() <= 0
+                    || !batch.getExpiryDate().isBefore(today)) {
+                continue;
+            }
+
+            InventoryItem item = items.get(batch.getInventoryItem().getId());
+            int quantity = batch.getCurrentQuantity();
+            int previousStock = item.getCurrentStock();
+            item.setCurrentStock(previousStock - quantity);
+            batch.setCurrentQuantity(0);
+            batch.setIsActive(false);
+            stockExpiryIndex.remove(batch);
+
+            movements.add(newStockMovement(item, batch, StockMovementType.EXPIRED, -quantity, batch.getPurchasePrice(),
+                    previousStock, item.getCurrentStock(), null, batch.getBatchNumber(), null, reason));
+        }
+
+        stockMovementRepository.saveAll(movements);
+        if (!movements.isEmpty()) {
+            evictInventoryReport(hospitalId);
+        }
+        return movements.size();
+    }
+
     public Vendor createVendor(Long hospitalId, String vendorCode, String name, String contactPerson, String email,
             String phone, String address, String gstNumber, Integer paymentTermDays, BigDecimal creditLimit) {
         Hospital hospital = hospitalRepository.findById(hospitalId)
@@ -344,21 +443,33 @@ public class InventoryService {
         InventoryItem item = inventoryItemRepository.findById(itemId)
                 .orElseThrow(() -> new EntityNotFoundException("Inventory item not found"));
 
-        PurchaseOrderItem poItem = new PurchaseOrderItem();
-        poItem.setPurchaseOrder(po);
-        poItem.setInventoryItem(item);
-        poItem.setItemName(item.getName());
-        poItem.setOrderedQuantity(quantity);
-        poItem.setReceivedQuantity(0);
-        poItem.setPendingQuantity(quantity);
-        poItem.setUnit(item.getUnit());
-        poItem.setUnitPrice(unitPrice != null ? unitPrice : item.getPurchasePrice());
-        poItem.setDiscountPercentage(discountPercentage != null ? discountPercentage : BigDecimal.ZERO);
-        poItem.setTaxRate(taxRate != null ? taxRate : item.getTaxRate());
-        poItem.setHsnCode(item.getHsnCode());
-        poItem.setNotes(notes);
+        po.addItem(newPurchaseOrderItem(item, quantity, unitPrice, discountPercentage, taxRate, notes));
+        return purchaseOrderRepository.save(po);
+    }
 
-        po.addItem(poItem);
+    // Draft raised by the reorder forecast rather than a user; it still goes through submit and approval as usual
+    public PurchaseOrder draftReorderPurchaseOrder(Long hospitalId, Long vendorId, Map<Long, Integer> quantities,
+            String notes) {
+        Hospital hospital = hospitalRepository.findById(hospitalId)
+                .orElseThrow(() -> new EntityNotFoundException("Hospital not found"));
+        Vendor vendor = vendorRepository.findById(vendorId)
+                .orElseThrow(() -> new EntityNotFoundException("Vendor not found"));
+
+        PurchaseOrder po = new PurchaseOrder();
+        po.setPoNumber(generatePoNumber(hospitalId));
+        po.setHospital(hospital);
+        po.setVendor(vendor);
+        po.setOrderDate(LocalDate.now());
+        po.setStatus(PurchaseOrderStatus.DRAFT);
+        po.setNotes(notes);
+        po.setPaidAmount(BigDecimal.ZERO);
+
+        for (InventoryItem item : inventoryItemRepository.findAllById(quantities.keySet())) {
+            po.addItem(newPurchaseOrderItem(item, quantities.get(item.getId()), null, null, null, null));
+        }
+
+        log.info("Drafted reorder purchase order {} for vendor {} with {} items", po.getPoNumber(), vendor.getName(),
+                po.getItems().size());
         return purchaseOrderRepository.save(po);
     }
 
@@ -415,27 +526,125 @@ public class InventoryService {
 
     public PurchaseOrder receiveGoods(Long poId, Long itemId, Integer receivedQuantity, String batchNumber,
             LocalDate manufacturingDate, LocalDate expiryDate, BigDecimal purchasePrice, Long userId, String notes) {
-        PurchaseOrder po = purchaseOrderRepository.findById(poId)
+        GoodsReceiptRequest.GoodsReceiptLine line = new GoodsReceiptRequest.GoodsReceiptLine(itemId, null,
+                receivedQuantity, batchNumber, manufacturingDate, expiryDate, purchasePrice, notes);
+        return receiveGoods(poId, new GoodsReceiptRequest(null, null, notes, List.of(line)), userId);
+    }
+
+    // Receives a whole goods received note in one transaction. The PO row is locked so two receipts against the same
+    // order serialise, every line is validated before anything is written, item rows are locked in id order, and the
+    // batches and movements go out as JDBC batches. Any invalid line rejects the whole note.
+    public PurchaseOrder receiveGoods(Long poId, GoodsReceiptRequest receipt, Long userId) {
+        PurchaseOrder po = purchaseOrderRepository.findByIdForUpdate(poId)
                 .orElseThrow(() -> new EntityNotFoundException("Purchase order not found"));
 
         if (po.getStatus() != PurchaseOrderStatus.ORDERED && po.getStatus() != PurchaseOrderStatus.PARTIAL_RECEIVED) {
             throw new IllegalStateException("Cannot receive goods for this order status");
         }
 
-        PurchaseOrderItem poItem = po.getItems().stream().filter(item -> item.getInventoryItem().getId().equals(itemId))
-                .findFirst().orElseThrow(() -> new EntityNotFoundException("Item not found in purchase order"));
+        Map<Long, PurchaseOrderItem> poItems = new HashMap<>();
+        Map<Long, List<PurchaseOrderItem>> poItemsByItem = new HashMap<>();
+        for (PurchaseOrderItem poItem : po.getItems()) {
+            poItems.put(poItem.getId(), poItem);
+            poItemsByItem.computeIfAbsent(poItem.getInventoryItem().getId(), id -> new ArrayList<>()).add(poItem);
+        }
 
-        int totalReceived = poItem.getReceivedQuantity() + receivedQuantity;
-        if (totalReceived > poItem.getOrderedQuantity()) {
-            throw new IllegalArgumentException("Received quantity exceeds ordered quantity");
+        // A line is received against the order line it names, or against its item's only line on the order, so an
+        // item ordered on several lines (at different prices, say) is tracked per line rather than merged into one
+        List<PurchaseOrderItem> lineTargets = new ArrayList<>();
+        Map<Long, Integer> receivedByPoItem = new LinkedHashMap<>();
+        Set<Long> itemIds = new HashSet<>();
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < receipt.getLines().size(); i++) {
+            GoodsReceiptRequest.GoodsReceiptLine line = receipt.getLines().get(i);
+            PurchaseOrderItem poItem = null;
+            if (line.getPurchaseOrderItemId() != null) {
+                poItem = poItems.get(line.getPurchaseOrderItemId());
+                if (poItem == null || !poItem.getInventoryItem().getId().equals(line.getItemId())) {
+                    errors.add("Line " + (i + 1) + ": purchase order line " + line.getPurchaseOrderItemId()
+                            + " for item " + line.getItemId() + " is not on this purchase order");
+                    poItem = null;
+                }
+            } else {
+                List<PurchaseOrderItem> candidates = poItemsByItem.getOrDefault(line.getItemId(), List.of());
+                if (candidates.size() == 1) {
+                    poItem = candidates.get(0);
+                } else if (candidates.isEmpty()) {
+                    errors.add("Line " + (i + 1) + ": item " + line.getItemId() + " is not on this purchase order");
+                } else {
+                    errors.add("Line " + (i + 1) + ": item " + line.getItemId()
+                            + " is on several lines of this purchase order, so the purchase order line is required");
+                }
+            }
+            lineTargets.add(poItem);
+            if (poItem == null) {
+                continue;
+            }
+            if (line.getManufacturingDate() != null && line.getExpiryDate() != null
+                    && line.getExpiryDate().isBefore(line.getManufacturingDate())) {
+                errors.add("Line " + (i + 1) + ": expiry date is before manufacturing date");
+            }
+            receivedByPoItem.merge(poItem.getId(), line.getReceivedQuantity(), Integer::sum);
+            itemIds.add(line.getItemId());
+        }
+        // The same order line may arrive in several batches, so its ordered quantity is checked against the note's
+        // total for that line
+        receivedByPoItem.forEach((poItemId, quantity) -> {
+            PurchaseOrderItem poItem = poItems.get(poItemId);
+            if (poItem.getReceivedQuantity() + quantity > poItem.getOrderedQuantity()) {
+                errors.add("Item " + poItem.getItemName() + ": received quantity exceeds ordered quantity");
+            }
+        });
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", errors));
         }
 
-        poItem.setReceivedQuantity(totalReceived);
-        poItem.setPendingQuantity(poItem.getOrderedQuantity() - totalReceived);
+        Map<Long, InventoryItem> items = new HashMap<>();
+        for (InventoryItem item : inventoryItemRepository.findAllByIdForUpdate(itemIds)) {
+            items.put(item.getId(), item);
+        }
+        User receivedBy = userId != null ? userRepository.findById(userId).orElse(null) : null;
+
+        List<StockBatch> batches = new ArrayList<>();
+        List<StockMovement> movements = new ArrayList<>();
+        for (int i = 0; i < receipt.getLines().size(); i++) {
+            GoodsReceiptRequest.GoodsReceiptLine line = receipt.getLines().get(i);
+            InventoryItem item = items.get(line.getItemId());
+            PurchaseOrderItem poItem = lineTargets.get(i);
+            int quantity = line.getReceivedQuantity();
+            BigDecimal purchasePrice = line.getPurchasePrice() != null ? line.getPurchasePrice()
+                    : poItem.getUnitPrice();
+            String notes = line.getNotes() != null ? line.getNotes() : receipt.getNotes();
+
+            StockBatch batch = new StockBatch();
+            batch.setHospital(po.getHospital());
+            batch.setInventoryItem(item);
+            batch.setBatchNumber(line.getBatchNumber());
+            batch.setManufacturingDate(line.getManufacturingDate());
+            batch.setExpiryDate(line.getExpiryDate());
+            batch.setInitialQuantity(quantity);
+            batch.setCurrentQuantity(quantity);
+            batch.setPurchasePrice(purchasePrice);
+            batch.setSellingPrice(item.getSellingPrice());
+            batch.setReceivedDate(LocalDate.now());
+            batch.setNotes(notes);
+            batch.setIsActive(true);
+            batch.setVendor(po.getVendor());
+            batch.setPurchaseOrder(po);
+            batches.add(batch);
+
+            int previousStock = item.getCurrentStock();
+            item.setCurrentStock(previousStock + quantity);
+            movements.add(newStockMovement(item, batch, StockMovementType.PURCHASE, quantity, purchasePrice,
+                    previousStock, item.getCurrentStock(), po, receipt.getGrnNumber(), receivedBy, notes));
+
+            poItem.setReceivedQuantity(poItem.getReceivedQuantity() + quantity);
+            poItem.setPendingQuantity(poItem.getOrderedQuantity() - poItem.getReceivedQuantity());
+        }
 
-        addStockBatch(itemId, batchNumber, manufacturingDate, expiryDate, receivedQuantity,
-                purchasePrice != null ? purchasePrice : poItem.getUnitPrice(), null, po.getVendor().getId(), poId,
-                userId, notes);
+        stockBatchRepository.saveAll(batches);
+        stockMovementRepository.saveAll(movements);
+        batches.forEach(stockExpiryIndex::add);
 
         boolean allReceived = po.getItems().stream()
                 .allMatch(item -> item.getReceivedQuantity() >= item.getOrderedQuantity());
@@ -446,8 +655,15 @@ public class InventoryService {
         } else {
             po.setStatus(PurchaseOrderStatus.PARTIAL_RECEIVED);
         }
+        if (receipt.getGrnNumber() != null) {
+            po.setGrnNumber(receipt.getGrnNumber());
+        }
+        if (receipt.getInvoiceNumber() != null) {
+            po.setInvoiceNumber(receipt.getInvoiceNumber());
+        }
 
-        log.info("Received {} units for item {} on PO {}", receivedQuantity, poItem.getItemName(), po.getPoNumber());
+        evictInventoryReport(po.getHospital().getId());
+        log.info("Received {} lines ({} items) on PO {}", batches.size(), items.size(), po.getPoNumber());
         return purchaseOrderRepository.save(po);
     }
 
@@ -485,21 +701,42 @@ public class InventoryService {
         return purchaseOrderRepository.findOverdueOrders(hospitalId, LocalDate.now());
     }
 
+    // Two aggregate queries, one over items and one over batches, cached per hospital until the next stock movement
     @Transactional(readOnly = true)
+    @Cacheable(value = CacheConfig.INVENTORY_REPORTS, key = "#hospitalId")
     public Map<String, Object> getInventoryReport(Long hospitalId) {
-        Map<String, Object> report = new HashMap<>();
-
-        report.put("totalStockValue", inventoryItemRepository.getTotalStockValue(hospitalId));
-        report.put("lowStockItems", inventoryItemRepository.findLowStockItems(hospitalId).size());
-        report.put("outOfStockItems", inventoryItemRepository.findOutOfStockItems(hospitalId).size());
-        report.put("expiringSoon",
-                stockBatchRepository.findExpiringSoon(hospitalId, LocalDate.now().plusDays(30)).size());
-        report.put("expired", stockBatchRepository.findExpiredBatches(hospitalId, LocalDate.now()).size());
-        report.put("stockByCategory", inventoryItemRepository.getStockSummaryByCategory(hospitalId));
+        BigDecimal totalStockValue = BigDecimal.ZERO;
+        long lowStockItems = 0;
+        long outOfStockItems = 0;
+        List<Object[]> stockByCategory = new ArrayList<>();
+        for (Object[] row : inventoryItemRepository.getReportSummaryByCategory(hospitalId)) {
+            stockByCategory.add(new Object[] { row[0], row[1], row[2] });
+            totalStockValue = totalStockValue.add((BigDecimal) row[3]);
+            lowStockItems += ((Number) row[4]).longValue();
+            outOfStockItems += ((Number) row[5]).longValue();
+        }
 
+        LocalDate today = LocalDate.now();
+        Object[] expiry = stockBatchRepository.countExpiringAndExpired(hospitalId, today, today.plusDays(30)).get(0);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("totalStockValue", totalStockValue);
+        report.put("lowStockItems", lowStockItems);
+        report.put("outOfStockItems", outOfStockItems);
+        report.put("expiringSoon", ((Number) expiry[0]).longValue());
+        report.put("expired", expiry[1] != null ? ((Number) expiry[1]).longValue() : 0L);
+        report.put("stockByCategory", stockByCategory);
+        report.put("asOf", LocalDateTime.now());
         return report;
     }
 
+    public void evictInventoryReport(Long hospitalId) {
+        Cache cache = cacheManager.getCache(CacheConfig.INVENTORY_REPORTS);
+        if (cache != null && hospitalId != null) {
+            cache.evict(hospitalId);
+        }
+    }
+
     @Transactional(readOnly = true)
     public List<StockMovement> getStockMovements(Long itemId, Pageable pageable) {
         return stockMovementRepository.findRecentMovements(itemId, pageable);
@@ -508,6 +745,17 @@ public class InventoryService {
     private void recordStockMovement(InventoryItem item, StockBatch batch, StockMovementType type, int quantity,
             BigDecimal unitPrice, int previousStock, int newStock, Long purchaseOrderId, String referenceNumber,
             Long userId, String notes) {
+        PurchaseOrder purchaseOrder = purchaseOrderId != null
+                ? purchaseOrderRepository.findById(purchaseOrderId).orElse(null) : null;
+        User performedBy = userId != null ? userRepository.findById(userId).orElse(null) : null;
+        stockMovementRepository.save(newStockMovement(item, batch, type, quantity, unitPrice, previousStock, newStock,
+                purchaseOrder, referenceNumber, performedBy, notes));
+        evictInventoryReport(item.getHospital().getId());
+    }
+
+    private StockMovement newStockMovement(InventoryItem item, StockBatch batch, StockMovementType type, int quantity,
+            BigDecimal unitPrice, int previousStock, int newStock, PurchaseOrder purchaseOrder, String referenceNumber,
+            User performedBy, String notes) {
         StockMovement movement = new StockMovement();
         movement.setHospital(item.getHospital());
         movement.setInventoryItem(item);
@@ -522,29 +770,48 @@ public class InventoryService {
         movement.setReferenceNumber(referenceNumber);
         movement.setNotes(notes);
 
-        if (purchaseOrderId != null) {
-            movement.setPurchaseOrder(purchaseOrderRepository.findById(purchaseOrderId).orElse(null));
+        movement.setPerformedBy(performedBy);
+
+        if (purchaseOrder != null) {
+            movement.setPurchaseOrder(purchaseOrder);
             movement.setReferenceType("PURCHASE_ORDER");
-            movement.setReferenceId(purchaseOrderId);
+            movement.setReferenceId(purchaseOrder.getId());
         }
+        return movement;
+    }
 
-        if (userId != null) {
-            movement.setPerformedBy(userRepository.findById(userId).orElse(null));
+    private List<StockBatch> loadStockedBatches(List<Long> batchIds) {
+        if (batchIds.isEmpty()) {
+            return List.of();
         }
+        // The index may briefly hold batches that were emptied since it was built
+        return stockBatchRepository.findAllById(batchIds).stream()
+                .filter(batch -> Boolean.TRUE.equals(batch.getIsActive()) && batch.getCurrentQuantity() > 0)
+                .sorted(Comparator.comparing(StockBatch::getExpiryDate)).toList();
+    }
 
-        stockMovementRepository.save(movement);
+    private PurchaseOrderItem newPurchaseOrderItem(InventoryItem item, Integer quantity, BigDecimal unitPrice,
+            BigDecimal discountPercentage, BigDecimal taxRate, String notes) {
+        PurchaseOrderItem poItem = new PurchaseOrderItem();
+        poItem.setInventoryItem(item);
+        poItem.setItemName(item.getName());
+        poItem.setOrderedQuantity(quantity);
+        poItem.setReceivedQuantity(0);
+        poItem.setPendingQuantity(quantity);
+        poItem.setUnit(item.getUnit());
+        poItem.setUnitPrice(unitPrice != null ? unitPrice : item.getPurchasePrice());
+        poItem.setDiscountPercentage(discountPercentage != null ? discountPercentage : BigDecimal.ZERO);
+        poItem.setTaxRate(taxRate != null ? taxRate : item.getTaxRate());
+        poItem.setHsnCode(item.getHsnCode());
+        poItem.setNotes(notes);
+        // Line totals are needed before persist so the order totals below include them
+        poItem.calculateTotals();
+        return poItem;
     }
 
     private String generatePoNumber(Long hospitalId) {
         String prefix = "PO" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMM"));
-        String lastNumber = purchaseOrderRepository.findLastPoNumber(hospitalId, prefix);
-
-        int sequence = 1;
-        if (lastNumber != null) {
-            String seqStr = lastNumber.substring(prefix.length());
-            sequence = Integer.parseInt(seqStr) + 1;
-        }
-
-        return prefix + String.format("%04d", sequence);
+        return documentNumberService.next(hospitalId, prefix, 4,
+                () -> purchaseOrderRepository.findLastPoNumber(hospitalId, prefix));
     }
 }
@@ -33,6 +33,7 @@ public class MedicationRequestService {
     private final UserRepository userRepository;
     private final NotificationService notificationService;
     private final ModelMapper modelMapper;
+    private final PharmacyLookupIndex pharmacyLookupIndex;
 
     public MedicationRequestDTO createRequest(MedicationRequestDTO requestDTO) {
         log.info("Creating medication request for medication: {}", requestDTO.getMedicationName());
@@ -107,6 +108,7 @@ public class MedicationRequestService {
 
         Medication newMedication = createMedicationFromRequest(request);
         medicationRepository.save(newMedication);
+        pharmacyLookupIndex.put(newMedication);
         log.info("New medication created from request: {} with code: {}", newMedication.getName(),
                 newMedication.getMedicationCode());
 
@@ -1,5 +1,6 @@
 package com.kaddy.service;
 
+import com.kaddy.config.CacheConfig;
 import com.kaddy.dto.MedicationDTO;
 import com.kaddy.exception.ResourceNotFoundException;
 import com.kaddy.model.Medication;
@@ -7,8 +8,12 @@ import com.kaddy.repository.MedicationRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,9 +29,12 @@ public class MedicationService {
 
     private final MedicationRepository medicationRepository;
     private final ModelMapper modelMapper;
+    private final CacheManager cacheManager;
+    private final StockReservationService stockReservationService;
+    private final PharmacyLookupIndex pharmacyLookupIndex;
 
     @Transactional(readOnly = true)
-    @Cacheable(value = "medications", key = "#id")
+    @Cacheable(value = CacheConfig.MEDICATIONS, key = "'id:' + #id")
     public MedicationDTO getMedicationById(Long id) {
         log.info("Fetching medication with ID: {}", id);
         Medication medication = medicationRepository.findById(id)
@@ -35,7 +43,7 @@ public class MedicationService {
     }
 
     @Transactional(readOnly = true)
-    @Cacheable(value = "medications", key = "#medicationCode")
+    @Cacheable(value = CacheConfig.MEDICATIONS, key = "'code:' + #medicationCode")
     public MedicationDTO getMedicationByCode(String medicationCode) {
         log.info("Fetching medication with code: {}", medicationCode);
         Medication medication = medicationRepository.findByMedicationCode(medicationCode)
@@ -63,6 +71,18 @@ public class MedicationService {
                 .collect(Collectors.toList());
     }
 
+    // Typeahead over code, name and generic name; falls back to the name search only until the index has loaded
+    @Transactional(readOnly = true)
+    public List<PharmacyLookupIndex.Match> lookupMedications(String query, int limit) {
+        if (pharmacyLookupIndex.isLoaded()) {
+            return pharmacyLookupIndex.findMedications(query, limit);
+        }
+        return medicationRepository.findByNameContainingIgnoreCase(query).stream().limit(limit)
+                .map(medication -> new PharmacyLookupIndex.Match(medication.getId(), medication.getMedicationCode(),
+                        null, medication.getName(), medication.getGenericName()))
+                .toList();
+    }
+
     @Transactional(readOnly = true)
     public List<MedicationDTO> getMedicationsByCategory(String category) {
         log.info("Fetching medications by category: {}", category);
@@ -92,7 +112,8 @@ public class MedicationService {
                 .map(this::convertToDTO).collect(Collectors.toList());
     }
 
-    @CacheEvict(value = "medications", allEntries = true)
+    @Caching(put = { @CachePut(value = CacheConfig.MEDICATIONS, key = "'id:' + #result.id"),
+            @CachePut(value = CacheConfig.MEDICATIONS, key = "'code:' + #result.medicationCode") })
     public MedicationDTO createMedication(MedicationDTO medicationDTO) {
         log.info("Creating new medication with code: {}", medicationDTO.getMedicationCode());
 
@@ -103,12 +124,14 @@ public class MedicationService {
 
         Medication medication = convertToEntity(medicationDTO);
         Medication savedMedication = medicationRepository.save(medication);
+        pharmacyLookupIndex.put(savedMedication);
         log.info("Medication created successfully with ID: {}", savedMedication.getId());
 
         return convertToDTO(savedMedication);
     }
 
-    @CacheEvict(value = "medications", allEntries = true)
+    @Caching(put = { @CachePut(value = CacheConfig.MEDICATIONS, key = "'id:' + #result.id"),
+            @CachePut(value = CacheConfig.MEDICATIONS, key = "'code:' + #result.medicationCode") })
     public MedicationDTO updateMedication(Long id, MedicationDTO medicationDTO) {
         log.info("Updating medication with ID: {}", id);
 
@@ -134,12 +157,15 @@ public class MedicationService {
         existingMedication.setStorageInstructions(medicationDTO.getStorageInstructions());
 
         Medication updatedMedication = medicationRepository.save(existingMedication);
+        stockReservationService.invalidate(id);
+        pharmacyLookupIndex.put(updatedMedication);
         log.info("Medication updated successfully with ID: {}", updatedMedication.getId());
 
         return convertToDTO(updatedMedication);
     }
 
-    @CacheEvict(value = "medications", allEntries = true)
+    @Caching(put = { @CachePut(value = CacheConfig.MEDICATIONS, key = "'id:' + #result.id"),
+            @CachePut(value = CacheConfig.MEDICATIONS, key = "'code:' + #result.medicationCode") })
     public MedicationDTO updateStock(Long id, Integer quantity) {
         log.info("Updating stock for medication ID: {} with quantity: {}", id, quantity);
 
@@ -148,12 +174,13 @@ public class MedicationService {
 
         medication.setStockQuantity(medication.getStockQuantity() + quantity);
         Medication updatedMedication = medicationRepository.save(medication);
+        stockReservationService.invalidate(id);
 
         log.info("Stock updated successfully for medication ID: {}", id);
         return convertToDTO(updatedMedication);
     }
 
-    @CacheEvict(value = "medications", allEntries = true)
+    @CacheEvict(value = CacheConfig.MEDICATIONS, key = "'id:' + #id")
     public void deleteMedication(Long id) {
         log.info("Deleting medication with ID: {}", id);
 
@@ -162,9 +189,18 @@ public class MedicationService {
 
         medication.setActive(false);
         medicationRepository.save(medication);
+        evictByCode(medication.getMedicationCode());
+        pharmacyLookupIndex.put(medication);
         log.info("Medication deactivated successfully with ID: {}", id);
     }
 
+    private void evictByCode(String medicationCode) {
+        Cache cache = cacheManager.getCache(CacheConfig.MEDICATIONS);
+        if (cache != null && medicationCode != null) {
+            cache.evict("code:" + medicationCode);
+        }
+    }
+
     private MedicationDTO convertToDTO(Medication medication) {
         MedicationDTO dto = modelMapper.map(medication, MedicationDTO.class);
         dto.setLowStock(medication.isLowStock());
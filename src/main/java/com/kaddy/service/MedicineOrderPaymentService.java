@@ -33,6 +33,8 @@ public class MedicineOrderPaymentService {
     private final MedicineOrderPaymentRepository paymentRepository;
     private final MedicineOrderRepository orderRepository;
     private final UserRepository userRepository;
+    private final MedicineOrderService medicineOrderService;
+    private final DocumentNumberService documentNumberService;
 
     public MedicineOrderPaymentDTO recordPayment(RecordPaymentRequest request, Long receivedByUserId) {
         log.info("Recording payment for order ID: {}", request.getOrderId());
@@ -79,7 +81,7 @@ public class MedicineOrderPaymentService {
         // Update order payment status
         BigDecimal newTotalPaid = totalPaid.add(request.getAmount());
         if (newTotalPaid.compareTo(order.getFinalAmount()) >= 0) {
-            order.setPaymentStatus(PaymentStatus.PAID);
+            medicineOrderService.markPaid(order);
         }
         orderRepository.save(order);
 
@@ -228,15 +230,8 @@ public class MedicineOrderPaymentService {
 
     private String generateReceiptNumber() {
         String prefix = "MOP-" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")) + "-";
-        String lastNumber = paymentRepository.findLastReceiptNumber(prefix);
-
-        int nextNumber = 1;
-        if (lastNumber != null) {
-            String numPart = lastNumber.substring(prefix.length());
-            nextNumber = Integer.parseInt(numPart) + 1;
-        }
-
-        return prefix + String.format("%05d", nextNumber);
+        return documentNumberService.next(DocumentNumberService.GLOBAL_SCOPE, prefix, 5,
+                () -> paymentRepository.findLastReceiptNumber(prefix));
     }
 
     private MedicineOrderPaymentDTO convertToDTO(MedicineOrderPayment payment) {
@@ -16,7 +16,6 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,6 +31,8 @@ public class MedicineOrderService {
     private final MedicationRepository medicationRepository;
     private final PrescriptionItemRepository prescriptionItemRepository;
     private final UserRepository userRepository;
+    private final StockReservationService stockReservationService;
+    private final DocumentNumberService documentNumberService;
 
     public MedicineOrderDTO createOrder(CreateMedicineOrderRequest request) {
         log.info("Creating new medicine order for patient ID: {}", request.getPatientId());
@@ -68,10 +69,6 @@ public class MedicineOrderService {
                     .orElseThrow(() -> new ResourceNotFoundException(
                             "Medication not found with ID: " + itemRequest.getMedicationId()));
 
-            if (medication.getStockQuantity() < itemRequest.getQuantity()) {
-                throw new IllegalStateException("Insufficient stock for medication: " + medication.getName());
-            }
-
             MedicineOrderItem item = new MedicineOrderItem();
             item.setOrder(savedOrder);
             item.setMedication(medication);
@@ -91,6 +88,7 @@ public class MedicineOrderService {
 
             orderItemRepository.save(item);
             savedOrder.getItems().add(item);
+            stockReservationService.hold(savedOrder, item);
         }
 
         savedOrder.calculateTotals();
@@ -172,6 +170,7 @@ public class MedicineOrderService {
         MedicineOrder order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Medicine order not found with ID: " + orderId));
 
+        MedicineOrderStatus previousStatus = order.getStatus();
         order.setStatus(status);
 
         if (processedById != null && order.getProcessedBy() == null) {
@@ -181,12 +180,8 @@ public class MedicineOrderService {
             order.setProcessedDate(LocalDateTime.now());
         }
 
-        if (status == MedicineOrderStatus.CONFIRMED) {
-            for (MedicineOrderItem item : order.getItems()) {
-                Medication medication = item.getMedication();
-                medication.setStockQuantity(medication.getStockQuantity() - item.getQuantity());
-                medicationRepository.save(medication);
-            }
+        if (status == MedicineOrderStatus.CONFIRMED && previousStatus == MedicineOrderStatus.PENDING) {
+            stockReservationService.convert(order);
         }
 
         if (status == MedicineOrderStatus.DELIVERED) {
@@ -204,13 +199,28 @@ public class MedicineOrderService {
         MedicineOrder order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Medicine order not found with ID: " + orderId));
 
-        order.setPaymentStatus(paymentStatus);
+        if (paymentStatus == PaymentStatus.PAID) {
+            markPaid(order);
+        } else {
+            order.setPaymentStatus(paymentStatus);
+        }
         MedicineOrder updatedOrder = orderRepository.save(order);
 
         log.info("Medicine order {} payment status updated to: {}", orderId, paymentStatus);
         return convertToDTO(updatedOrder);
     }
 
+    // Every payment path marks an order paid through here, so a paid order always has its holds converted into stock
+    // deductions. Razorpay can report one payment through both its verify call and its webhook; conversion locks the
+    // order, so whichever arrives second finds the holds converted and changes nothing.
+    public void markPaid(MedicineOrder order) {
+        if (order.getPaymentStatus() == PaymentStatus.PAID) {
+            return;
+        }
+        stockReservationService.convert(order);
+        order.setPaymentStatus(PaymentStatus.PAID);
+    }
+
     public MedicineOrderDTO cancelOrder(Long orderId) {
         log.info("Cancelling medicine order: {}", orderId);
 
@@ -221,14 +231,8 @@ public class MedicineOrderService {
             throw new IllegalStateException("Cannot cancel a delivered order");
         }
 
-        if (order.getStatus() == MedicineOrderStatus.CONFIRMED ||
-                order.getStatus() == MedicineOrderStatus.PROCESSING ||
-                order.getStatus() == MedicineOrderStatus.READY_FOR_PICKUP) {
-            for (MedicineOrderItem item : order.getItems()) {
-                Medication medication = item.getMedication();
-                medication.setStockQuantity(medication.getStockQuantity() + item.getQuantity());
-                medicationRepository.save(medication);
-            }
+        if (order.getStatus() != MedicineOrderStatus.CANCELLED) {
+            stockReservationService.release(order);
         }
 
         order.setStatus(MedicineOrderStatus.CANCELLED);
@@ -249,15 +253,21 @@ public class MedicineOrderService {
         log.info("Medicine order {} deactivated successfully", orderId);
     }
 
+    @Transactional(readOnly = true)
+    public int getAvailableToPromise(Long medicationId) {
+        Medication medication = medicationRepository.findById(medicationId)
+                .orElseThrow(() -> new ResourceNotFoundException("Medication not found with ID: " + medicationId));
+        return stockReservationService.getAvailableToPromise(medication);
+    }
+
     @Transactional(readOnly = true)
     public long countOrdersByStatus(MedicineOrderStatus status) {
         return orderRepository.countByStatus(status);
     }
 
     private String generateOrderNumber() {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        String random = UUID.randomUUID().toString().substring(0, 4).toUpperCase();
-        return "ORD-" + timestamp + "-" + random;
+        String prefix = "ORD-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMM")) + "-";
+        return documentNumberService.next(DocumentNumberService.GLOBAL_SCOPE, prefix, 6, null);
     }
 
     private MedicineOrderDTO convertToDTO(MedicineOrder order) {
@@ -27,6 +27,7 @@ public class NursePatientAssignmentService {
     private final NursePatientAssignmentRepository assignmentRepository;
     private final UserRepository userRepository;
     private final PatientRepository patientRepository;
+    private final CareTeamIndex careTeamIndex;
 
     public NursePatientAssignmentDTO assignNurseToPatient(NursePatientAssignmentDTO dto) {
         log.info("Assigning nurse {} to patient {}", dto.getNurseId(), dto.getPatientId());
@@ -60,6 +61,7 @@ public class NursePatientAssignmentService {
         assignment.setActive(true);
 
         NursePatientAssignment savedAssignment = assignmentRepository.save(assignment);
+        careTeamIndex.nurseAssigned(savedAssignment.getId(), nurse.getId(), patient.getId());
         log.info("Successfully assigned nurse {} to patient {}", nurse.getId(), patient.getId());
 
         return convertToDTO(savedAssignment);
@@ -112,17 +114,25 @@ public class NursePatientAssignmentService {
         log.info("Deactivating assignment with id: {}", id);
         NursePatientAssignment assignment = assignmentRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Assignment not found with id: " + id));
+        boolean wasActive = assignment.isActive();
         assignment.setActive(false);
         assignmentRepository.save(assignment);
+        if (wasActive) {
+            careTeamIndex.nurseUnassigned(assignment.getId(), assignment.getNurse().getId(),
+                    assignment.getPatient().getId());
+        }
         log.info("Successfully deactivated assignment {}", id);
     }
 
     public void deleteAssignment(Long id) {
         log.info("Deleting assignment with id: {}", id);
-        if (!assignmentRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Assignment not found with id: " + id);
+        NursePatientAssignment assignment = assignmentRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Assignment not found with id: " + id));
+        assignmentRepository.delete(assignment);
+        if (assignment.isActive()) {
+            careTeamIndex.nurseUnassigned(assignment.getId(), assignment.getNurse().getId(),
+                    assignment.getPatient().getId());
         }
-        assignmentRepository.deleteById(id);
         log.info("Successfully deleted assignment {}", id);
     }
 
@@ -1,64 +1,74 @@
 package com.kaddy.service;
 
-import com.kaddy.model.DoctorPatientAssignment;
+import com.kaddy.model.Doctor;
 import com.kaddy.model.Patient;
 import com.kaddy.model.User;
 import com.kaddy.model.enums.UserRole;
-import com.kaddy.repository.DoctorPatientAssignmentRepository;
 import com.kaddy.repository.DoctorRepository;
 import com.kaddy.repository.PatientRepository;
-import com.kaddy.repository.UserRepository;
+import com.kaddy.security.SecurityUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PatientAccessService {
 
-    private final UserRepository userRepository;
+    private final SecurityUtils securityUtils;
     private final PatientRepository patientRepository;
     private final DoctorRepository doctorRepository;
-    private final DoctorPatientAssignmentRepository assignmentRepository;
+    private final CareTeamIndex careTeamIndex;
 
     @Transactional(readOnly = true)
     public List<Patient> getAccessiblePatients() {
-        User currentUser = getCurrentUser();
+        UserRole role = getCurrentRole();
 
-        if (currentUser.getRole() == UserRole.ADMIN ||
-                currentUser.getRole() == UserRole.RECEPTIONIST ||
-                currentUser.getRole() == UserRole.PHARMACIST) {
+        if (role == UserRole.ADMIN ||
+                role == UserRole.RECEPTIONIST ||
+                role == UserRole.PHARMACIST) {
             return patientRepository.findAll();
         }
 
-        if (currentUser.getRole() == UserRole.DOCTOR || currentUser.getRole() == UserRole.NURSE) {
-            return getAssignedPatients(currentUser);
+        if (role == UserRole.DOCTOR) {
+            return getCurrentDoctorId().map(doctorId -> patientRepository
+                    .findAllById(careTeamIndex.getPatientIdsForDoctor(doctorId))).orElse(List.of());
         }
 
-        log.warn("User {} with role {} attempted to access patient list", currentUser.getUsername(),
-                currentUser.getRole());
+        if (role == UserRole.NURSE) {
+            return securityUtils.getCurrentNurseId().map(nurseId -> patientRepository
+                    .findAllById(careTeamIndex.getPatientIdsForNurse(nurseId))).orElse(List.of());
+        }
+
+        log.warn("User {} with role {} attempted to access patient list",
+                SecurityContextHolder.getContext().getAuthentication().getName(), role);
         return List.of();
     }
 
     @Transactional(readOnly = true)
     public boolean canAccessPatient(Long patientId) {
-        User currentUser = getCurrentUser();
+        UserRole role = getCurrentRole();
 
-        if (currentUser.getRole() == UserRole.ADMIN ||
-                currentUser.getRole() == UserRole.RECEPTIONIST ||
-                currentUser.getRole() == UserRole.PHARMACIST) {
+        if (role == UserRole.ADMIN ||
+                role == UserRole.RECEPTIONIST ||
+                role == UserRole.PHARMACIST) {
             return true;
         }
 
-        if (currentUser.getRole() == UserRole.DOCTOR || currentUser.getRole() == UserRole.NURSE) {
-            return isPatientAssignedToUser(patientId, currentUser);
+        if (role == UserRole.DOCTOR) {
+            return getCurrentDoctorId().map(doctorId -> careTeamIndex.isDoctorAssigned(doctorId, patientId))
+                    .orElse(false);
+        }
+
+        if (role == UserRole.NURSE) {
+            return securityUtils.getCurrentNurseId()
+                    .map(nurseId -> careTeamIndex.isNurseAssigned(nurseId, patientId)).orElse(false);
         }
 
         return false;
@@ -74,42 +84,24 @@ public class PatientAccessService {
                 .orElseThrow(() -> new RuntimeException("Patient not found with id: " + patientId));
     }
 
-    private List<Patient> getAssignedPatients(User user) {
-        var doctorOpt = doctorRepository.findAll().stream().filter(d -> {
-            if (d.getUser() != null && d.getUser().getId().equals(user.getId())) {
-                return true;
-            }
-            if (d.getEmail() != null && d.getEmail().equalsIgnoreCase(user.getEmail())) {
-                return true;
-            }
-            return false;
-        }).findFirst();
-
-        if (doctorOpt.isEmpty()) {
-            log.warn("No doctor profile found for user: {}", user.getUsername());
-            return List.of();
+    // Doctor profiles created before accounts were linked are matched on email
+    private Optional<Long> getCurrentDoctorId() {
+        Optional<Long> linked = securityUtils.getCurrentDoctorId();
+        if (linked.isPresent()) {
+            return linked;
         }
 
-        Long doctorId = doctorOpt.get().getId();
-
-        List<DoctorPatientAssignment> assignments = assignmentRepository.findAll().stream()
-                .filter(a -> a.getDoctor() != null && a.getDoctor().getId().equals(doctorId))
-                .filter(a -> a.getActive() != null && a.getActive()).collect(Collectors.toList());
-
-        return assignments.stream().map(DoctorPatientAssignment::getPatient).filter(p -> p != null)
-                .collect(Collectors.toList());
-    }
-
-    private boolean isPatientAssignedToUser(Long patientId, User user) {
-        List<Patient> assignedPatients = getAssignedPatients(user);
-        return assignedPatients.stream().anyMatch(p -> p.getId().equals(patientId));
+        Optional<Long> byEmail = securityUtils.getCurrentUser().map(User::getEmail)
+                .flatMap(doctorRepository::findFirstByEmailIgnoreCase).map(Doctor::getId);
+        if (byEmail.isEmpty()) {
+            log.warn("No doctor profile found for user: {}",
+                    SecurityContextHolder.getContext().getAuthentication().getName());
+        }
+        return byEmail;
     }
 
-    private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-
-        return userRepository.findByUsername(username).or(() -> userRepository.findByEmail(username))
-                .orElseThrow(() -> new RuntimeException("User not found: " + username));
+    private UserRole getCurrentRole() {
+        return securityUtils.getCurrentUserRole().orElseThrow(() -> new RuntimeException(
+                "User not found: " + SecurityContextHolder.getContext().getAuthentication().getName()));
     }
 }
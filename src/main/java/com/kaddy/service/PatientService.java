@@ -1,5 +1,6 @@
 package com.kaddy.service;
 
+import com.kaddy.config.CacheConfig;
 import com.kaddy.dto.PatientDTO;
 import com.kaddy.exception.ResourceNotFoundException;
 import com.kaddy.model.Patient;
@@ -7,8 +8,12 @@ import com.kaddy.repository.PatientRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,9 +30,10 @@ public class PatientService {
     private final ModelMapper modelMapper;
     private final DoctorPatientAssignmentService assignmentService;
     private final com.kaddy.security.SecurityUtils securityUtils;
+    private final CacheManager cacheManager;
 
     @Transactional(readOnly = true)
-    @Cacheable(value = "patients", key = "#id")
+    @Cacheable(value = CacheConfig.PATIENTS, key = "'id:' + #id")
     public PatientDTO getPatientById(Long id) {
         log.info("Fetching patient with ID: {}", id);
         Patient patient = patientRepository.findById(id)
@@ -36,7 +42,7 @@ public class PatientService {
     }
 
     @Transactional(readOnly = true)
-    @Cacheable(value = "patients", key = "#patientId")
+    @Cacheable(value = CacheConfig.PATIENTS, key = "'pid:' + #patientId")
     public PatientDTO getPatientByPatientId(String patientId) {
         log.info("Fetching patient with Patient ID: {}", patientId);
         Patient patient = patientRepository.findByPatientId(patientId)
@@ -78,7 +84,8 @@ public class PatientService {
                 .map(this::convertToDTO).collect(Collectors.toList());
     }
 
-    @CacheEvict(value = "patients", allEntries = true)
+    @Caching(put = { @CachePut(value = CacheConfig.PATIENTS, key = "'id:' + #result.id"),
+            @CachePut(value = CacheConfig.PATIENTS, key = "'pid:' + #result.patientId") })
     public PatientDTO createPatient(PatientDTO patientDTO) {
         log.info("Creating new patient with ID: {}", patientDTO.getPatientId());
 
@@ -93,7 +100,8 @@ public class PatientService {
         return convertToDTO(savedPatient);
     }
 
-    @CacheEvict(value = "patients", allEntries = true)
+    @Caching(put = { @CachePut(value = CacheConfig.PATIENTS, key = "'id:' + #result.id"),
+            @CachePut(value = CacheConfig.PATIENTS, key = "'pid:' + #result.patientId") })
     public PatientDTO updatePatient(Long id, PatientDTO patientDTO) {
         log.info("Updating patient with ID: {}", id);
 
@@ -119,7 +127,7 @@ public class PatientService {
         return convertToDTO(updatedPatient);
     }
 
-    @CacheEvict(value = "patients", allEntries = true)
+    @CacheEvict(value = CacheConfig.PATIENTS, key = "'id:' + #id")
     public void deletePatient(Long id) {
         log.info("Deleting patient with ID: {}", id);
 
@@ -128,9 +136,17 @@ public class PatientService {
 
         patient.setActive(false);
         patientRepository.save(patient);
+        evictByPatientId(patient.getPatientId());
         log.info("Patient deactivated successfully with ID: {}", id);
     }
 
+    private void evictByPatientId(String patientId) {
+        Cache cache = cacheManager.getCache(CacheConfig.PATIENTS);
+        if (cache != null && patientId != null) {
+            cache.evict("pid:" + patientId);
+        }
+    }
+
     private PatientDTO convertToDTO(Patient patient) {
         PatientDTO dto = modelMapper.map(patient, PatientDTO.class);
         dto.setAge(patient.getAge());
@@ -0,0 +1,341 @@
+package com.kaddy.service;
+
+import com.kaddy.model.InventoryItem;
+import com.kaddy.model.Medication;
+import com.kaddy.repository.InventoryItemRepository;
+import com.kaddy.repository.MedicationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+
+// In-memory catalogue for counter lookups: one catalogue per hospital for inventory items and one shared catalogue for
+// the medication master (medication code stands in for the SKU). A query is answered by an exact barcode hit, then SKU
+// prefix, then name/generic-name word prefix, then trigram candidates for text in the middle of a word, so a scan or a
+// few typed letters never reaches the LIKE '%term%' queries. Creates and updates on this node are applied after commit;
+// the periodic rebuild picks up other nodes' changes, so a result can be briefly stale and callers load by id.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PharmacyLookupIndex {
+
+    private static final int GRAM = 3;
+
+    private final InventoryItemRepository inventoryItemRepository;
+    private final MedicationRepository medicationRepository;
+
+    private volatile Map<Long, Catalog> items = new ConcurrentHashMap<>();
+    private volatile Catalog medications = new Catalog();
+    private volatile boolean loaded;
+
+    @Value("${catalog-index.page-size:5000}")
+    private int pageSize;
+
+    @Scheduled(fixedDelayString = "${catalog-index.refresh-interval:PT30M}")
+    public void refresh() {
+        long started = System.currentTimeMillis();
+
+        Map<Long, Catalog> rebuiltItems = new ConcurrentHashMap<>();
+        Long afterId = 0L;
+        List<Object[]> page;
+        do {
+            page = inventoryItemRepository.findLookupEntries(afterId, PageRequest.of(0, pageSize));
+            for (Object[] row : page) {
+                rebuiltItems.computeIfAbsent((Long) row[1], h -> new Catalog())
+                        .put(new Match((Long) row[0], (String) row[2], (String) row[3], (String) row[4],
+                                (String) row[5]));
+            }
+            if (!page.isEmpty()) {
+                afterId = (Long) page.get(page.size() - 1)[0];
+            }
+        } while (page.size() == pageSize);
+
+        Catalog rebuiltMedications = new Catalog();
+        afterId = 0L;
+        do {
+            page = medicationRepository.findLookupEntries(afterId, PageRequest.of(0, pageSize));
+            for (Object[] row : page) {
+                rebuiltMedications.put(new Match((Long) row[0], (String) row[1], null, (String) row[2],
+                        (String) row[3]));
+            }
+            if (!page.isEmpty()) {
+                afterId = (Long) page.get(page.size() - 1)[0];
+            }
+        } while (page.size() == pageSize);
+
+        items = rebuiltItems;
+        medications = rebuiltMedications;
+        loaded = true;
+        log.debug("Rebuilt pharmacy lookup index: {} hospitals, {} medications in {} ms", rebuiltItems.size(),
+                rebuiltMedications.size(), System.currentTimeMillis() - started);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public List<Match> findItems(Long hospitalId, String query, int limit) {
+        Catalog catalog = items.get(hospitalId);
+        return catalog != null ? catalog.find(query, limit) : List.of();
+    }
+
+    public Long findItemIdByBarcode(Long hospitalId, String barcode) {
+        Catalog catalog = items.get(hospitalId);
+        return catalog != null ? catalog.findByBarcode(barcode) : null;
+    }
+
+    public List<Match> findMedications(String query, int limit) {
+        return medications.find(query, limit);
+    }
+
+    public void put(InventoryItem item) {
+        Long hospitalId = item.getHospital().getId();
+        Match match = new Match(item.getId(), item.getSku(), item.getBarcode(), item.getName(), item.getGenericName());
+        boolean active = Boolean.TRUE.equals(item.getIsActive());
+        afterCommit(() -> {
+            if (active) {
+                items.computeIfAbsent(hospitalId, h -> new Catalog()).put(match);
+            } else {
+                Catalog catalog = items.get(hospitalId);
+                if (catalog != null) {
+                    catalog.remove(match.id());
+                }
+            }
+        });
+    }
+
+    public void put(Medication medication) {
+        Match match = new Match(medication.getId(), medication.getMedicationCode(), null, medication.getName(),
+                medication.getGenericName());
+        boolean active = Boolean.TRUE.equals(medication.getActive());
+        afterCommit(() -> {
+            if (active) {
+                medications.put(match);
+            } else {
+                medications.remove(match.id());
+            }
+        });
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    private static String normalize(String value) {
+        return value != null ? value.trim().toLowerCase(Locale.ROOT) : "";
+    }
+
+    private static List<String> words(String value) {
+        List<String> words = new ArrayList<>();
+        for (String word : normalize(value).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    public record Match(Long id, String sku, String barcode, String name, String genericName) {
+
+        private String text() {
+            return normalize(name) + ' ' + normalize(genericName) + ' ' + normalize(sku);
+        }
+    }
+
+    // Keys of the sorted maps are term + '\0' + id, so equal terms on different entries stay distinct and a prefix
+    // scan is a subMap between the prefix and the prefix followed by the highest character. Readers never lock;
+    // writers serialise on the catalogue so an entry's keys are replaced as a unit.
+    static final class Catalog {
+        private final Map<Long, Match> entries = new ConcurrentHashMap<>();
+        private final Map<String, Long> barcodes = new ConcurrentHashMap<>();
+        private final ConcurrentSkipListMap<String, Long> skus = new ConcurrentSkipListMap<>();
+        private final ConcurrentSkipListMap<String, Long> words = new ConcurrentSkipListMap<>();
+        private final Map<String, Set<Long>> grams = new ConcurrentHashMap<>();
+
+        int size() {
+            return entries.size();
+        }
+
+        synchronized void put(Match match) {
+            remove(match.id());
+            entries.put(match.id(), match);
+            if (match.barcode() != null && !match.barcode().isBlank()) {
+                barcodes.put(normalize(match.barcode()), match.id());
+            }
+            if (match.sku() != null) {
+                skus.put(key(normalize(match.sku()), match.id()), match.id());
+            }
+            for (String word : indexedWords(match)) {
+                words.put(key(word, match.id()), match.id());
+            }
+            for (String gram : grams(match.text())) {
+                grams.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(match.id());
+            }
+        }
+
+        synchronized void remove(Long id) {
+            Match match = entries.remove(id);
+            if (match == null) {
+                return;
+            }
+            if (match.barcode() != null) {
+                barcodes.remove(normalize(match.barcode()), id);
+            }
+            if (match.sku() != null) {
+                skus.remove(key(normalize(match.sku()), id));
+            }
+            for (String word : indexedWords(match)) {
+                words.remove(key(word, id));
+            }
+            for (String gram : grams(match.text())) {
+                Set<Long> ids = grams.get(gram);
+                if (ids != null) {
+                    ids.remove(id);
+                }
+            }
+        }
+
+        Long findByBarcode(String barcode) {
+            return barcode != null ? barcodes.get(normalize(barcode)) : null;
+        }
+
+        List<Match> find(String query, int limit) {
+            String normalized = normalize(query);
+            if (normalized.isEmpty() || limit <= 0) {
+                return List.of();
+            }
+
+            Set<Long> ids = new LinkedHashSet<>();
+            Long barcodeHit = barcodes.get(normalized);
+            if (barcodeHit != null) {
+                ids.add(barcodeHit);
+            }
+            collectPrefix(skus, normalized, ids, limit, null);
+
+            List<String> queryWords = words(normalized);
+            if (!queryWords.isEmpty() && ids.size() < limit) {
+                // Scan on the longest word, the most selective range, and require every other word to prefix one of
+                // the entry's words, so "para 500" finds "Paracetamol 500mg"
+                String longest = queryWords.stream().reduce((a, b) -> b.length() > a.length() ? b : a).orElseThrow();
+                collectPrefix(words, longest, ids, limit, match -> matchesAllWords(match, queryWords));
+            }
+
+            if (normalized.length() >= GRAM && ids.size() < limit) {
+                collectGrams(normalized, ids, limit);
+            }
+
+            List<Match> matches = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                Match match = entries.get(id);
+                if (match != null) {
+                    matches.add(match);
+                }
+            }
+            return matches;
+        }
+
+        private void collectPrefix(ConcurrentSkipListMap<String, Long> map, String prefix, Set<Long> ids, int limit,
+                Predicate<Match> filter) {
+            for (Long id : map.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+                if (ids.size() >= limit) {
+                    return;
+                }
+                if (filter == null || filter.test(entries.get(id))) {
+                    ids.add(id);
+                }
+            }
+        }
+
+        // Intersects the posting sets smallest first, then confirms the query really occurs in the entry's text,
+        // since sharing every trigram does not guarantee they are contiguous
+        private void collectGrams(String normalized, Set<Long> ids, int limit) {
+            List<Set<Long>> postings = new ArrayList<>();
+            for (String gram : grams(normalized)) {
+                Set<Long> posting = grams.get(gram);
+                if (posting == null || posting.isEmpty()) {
+                    return;
+                }
+                postings.add(posting);
+            }
+            postings.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+            for (Long id : postings.get(0)) {
+                if (ids.size() >= limit) {
+                    return;
+                }
+                if (ids.contains(id) || !containsInAll(id, postings)) {
+                    continue;
+                }
+                Match match = entries.get(id);
+                if (match != null && match.text().contains(normalized)) {
+                    ids.add(id);
+                }
+            }
+        }
+
+        private static boolean containsInAll(Long id, Collection<Set<Long>> postings) {
+            for (Set<Long> posting : postings) {
+                if (!posting.contains(id)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean matchesAllWords(Match match, List<String> queryWords) {
+            if (match == null) {
+                return false;
+            }
+            List<String> entryWords = indexedWords(match);
+            for (String queryWord : queryWords) {
+                if (entryWords.stream().noneMatch(word -> word.startsWith(queryWord))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static List<String> indexedWords(Match match) {
+            List<String> indexed = words(match.name());
+            indexed.addAll(words(match.genericName()));
+            return indexed;
+        }
+
+        private static String key(String term, Long id) {
+            return term + '\0' + id;
+        }
+    }
+}
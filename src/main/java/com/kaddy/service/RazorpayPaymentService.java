@@ -39,6 +39,8 @@ public class RazorpayPaymentService {
     private final MedicineOrderRepository orderRepository;
     private final MedicineOrderPaymentRepository paymentRepository;
     private final SecurityUtils securityUtils;
+    private final DocumentNumberService documentNumberService;
+    private final MedicineOrderService medicineOrderService;
 
     // Store razorpay order ID to medicine order ID mapping for verification
     private final ConcurrentHashMap<String, Long> razorpayOrderMapping = new ConcurrentHashMap<>();
@@ -163,7 +165,7 @@ public class RazorpayPaymentService {
             paymentRepository.save(orderPayment);
 
             // Update medicine order payment status
-            medicineOrder.setPaymentStatus(PaymentStatus.PAID);
+            medicineOrderService.markPaid(medicineOrder);
             orderRepository.save(medicineOrder);
 
             // Clean up mapping
@@ -213,7 +215,7 @@ public class RazorpayPaymentService {
             if (medicineOrderId != null) {
                 MedicineOrder medicineOrder = orderRepository.findById(medicineOrderId).orElse(null);
                 if (medicineOrder != null && medicineOrder.getPaymentStatus() != PaymentStatus.PAID) {
-                    medicineOrder.setPaymentStatus(PaymentStatus.PAID);
+                    medicineOrderService.markPaid(medicineOrder);
                     orderRepository.save(medicineOrder);
                     log.info("Webhook: Payment captured for medicine order: {}", medicineOrderId);
                 }
@@ -235,17 +237,7 @@ public class RazorpayPaymentService {
 
     private String generateReceiptNumber() {
         String prefix = "RZP" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        String lastReceipt = paymentRepository.findLastReceiptNumber(prefix);
-
-        int sequence = 1;
-        if (lastReceipt != null && lastReceipt.length() > prefix.length()) {
-            try {
-                sequence = Integer.parseInt(lastReceipt.substring(prefix.length())) + 1;
-            } catch (NumberFormatException e) {
-                log.warn("Could not parse receipt sequence from: {}", lastReceipt);
-            }
-        }
-
-        return prefix + String.format("%04d", sequence);
+        return documentNumberService.next(DocumentNumberService.GLOBAL_SCOPE, prefix, 4,
+                () -> paymentRepository.findLastReceiptNumber(prefix));
     }
 }
@@ -12,11 +12,14 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.time.Year;
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -36,6 +39,9 @@ public class RecordSharingService {
     private final AccessAuditLogRepository auditLogRepository;
     private final FHIRService fhirService;
     private final ConsentService consentService;
+    private final DocumentNumberService documentNumberService;
+    private final FanOut fanOut;
+    private final PlatformTransactionManager transactionManager;
 
     @Transactional
     public RecordShareRequestDTO createShareRequest(CreateShareRequestDTO request, Long requestingHospitalId) {
@@ -147,8 +153,35 @@ public class RecordSharingService {
         return mapToDTO(savedRequest);
     }
 
-    @Transactional
+    // Validation and the header are read in one short transaction and the share is recorded in another. The
+    // ALL_RECORDS fan-out runs between them, so this thread holds no connection while the forks take theirs.
     public SharedMedicalRecordDTO getSharedRecords(Long requestId, Long accessedByUserId) {
+        SharedMedicalRecordDTO sharedRecords = new SharedMedicalRecordDTO();
+        TransactionTemplate readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+        RecordShareRequest request = readTransaction.execute(status -> loadSharedRecords(requestId, sharedRecords));
+
+        Patient patient = request.getPatient();
+        if (request.getRequestedScope() == SharingScope.ALL_RECORDS) {
+            populateAllRecords(sharedRecords, patient);
+        }
+
+        if (request.getSourceHospital().getFhirEnabled()) {
+            try {
+                String fhirBundle = fhirService.getPatientBundleJson(patient.getId());
+                sharedRecords.setFhirBundle(fhirBundle);
+            } catch (Exception e) {
+                log.warn("Failed to generate FHIR bundle for patient {}: {}", patient.getId(), e.getMessage());
+            }
+        }
+
+        new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> recordShare(requestId, accessedByUserId));
+
+        return sharedRecords;
+    }
+
+    private RecordShareRequest loadSharedRecords(Long requestId, SharedMedicalRecordDTO sharedRecords) {
         RecordShareRequest request = shareRequestRepository.findById(requestId)
                 .orElseThrow(() -> new ResourceNotFoundException("Share request not found"));
 
@@ -166,7 +199,6 @@ public class RecordSharingService {
         Patient patient = request.getPatient();
         SharingScope scope = request.getRequestedScope();
 
-        SharedMedicalRecordDTO sharedRecords = new SharedMedicalRecordDTO();
         sharedRecords.setShareRequestNumber(request.getRequestNumber());
         sharedRecords.setSharingScope(scope.name());
         sharedRecords.setSharedAt(LocalDateTime.now());
@@ -176,16 +208,17 @@ public class RecordSharingService {
 
         sharedRecords.setPatient(buildPatientSummary(patient));
 
-        populateRecordsBasedOnScope(sharedRecords, patient, scope);
-
-        if (request.getSourceHospital().getFhirEnabled()) {
-            try {
-                String fhirBundle = fhirService.getPatientBundleJson(patient.getId());
-                sharedRecords.setFhirBundle(fhirBundle);
-            } catch (Exception e) {
-                log.warn("Failed to generate FHIR bundle for patient {}: {}", patient.getId(), e.getMessage());
-            }
+        // ALL_RECORDS is fanned out by the caller once this transaction has ended
+        if (scope != SharingScope.ALL_RECORDS) {
+            populateRecordsBasedOnScope(sharedRecords, patient, scope);
         }
+        return request;
+    }
+
+    private void recordShare(Long requestId, Long accessedByUserId) {
+        RecordShareRequest request = shareRequestRepository.findById(requestId)
+                .orElseThrow(() -> new ResourceNotFoundException("Share request not found"));
+        Patient patient = request.getPatient();
 
         request.setDataSharedAt(LocalDateTime.now());
         request.setShareMethod("API");
@@ -206,8 +239,6 @@ public class RecordSharingService {
 
         log.info("Records shared for request: {} to hospital: {}", request.getRequestNumber(),
                 request.getRequestingHospital().getName());
-
-        return sharedRecords;
     }
 
     @Transactional(readOnly = true)
@@ -248,13 +279,8 @@ public class RecordSharingService {
 
     private String generateRequestNumber() {
         String prefix = "RSR-" + Year.now().getValue() + "-";
-        String maxNumber = shareRequestRepository.findMaxRequestNumber(prefix);
-        int nextNumber = 1;
-        if (maxNumber != null) {
-            String numPart = maxNumber.replace(prefix, "");
-            nextNumber = Integer.parseInt(numPart) + 1;
-        }
-        return prefix + String.format("%05d", nextNumber);
+        return documentNumberService.next(DocumentNumberService.GLOBAL_SCOPE, prefix, 5,
+                () -> shareRequestRepository.findMaxRequestNumber(prefix));
     }
 
     private SharedMedicalRecordDTO.PatientSummary buildPatientSummary(Patient patient) {
@@ -295,17 +321,38 @@ public class RecordSharingService {
         }
     }
 
+    // Medical records, lab tests and prescriptions are independent reads, so they load in parallel and each fork maps
+    // its entities while its own session is open. Medical records are read once for history, diagnoses, vital signs
+    // and the summary rather than once for each.
     private void populateAllRecords(SharedMedicalRecordDTO dto, Patient patient) {
-        dto.setMedicalHistory(getMedicalHistory(patient.getId()));
-        dto.setLabResults(getLabResults(patient.getId()));
-        dto.setPrescriptions(getPrescriptions(patient.getId()));
-        dto.setDiagnoses(getDiagnoses(patient.getId()));
-        dto.setVitalSigns(getVitalSigns(patient.getId()));
-        dto.setClinicalSummary(generateClinicalSummary(patient));
+        Long patientId = patient.getId();
+        try (FanOut.Scope scope = fanOut.open()) {
+            Supplier<MedicalRecordSections> sections = scope.fork(() -> {
+                List<MedicalRecord> records = medicalRecordRepository.findPatientRecordsOrderedByDate(patientId);
+                return new MedicalRecordSections(toMedicalHistory(records), toDiagnoses(records),
+                        toVitalSigns(records), countDiagnoses(records));
+            });
+            Supplier<List<SharedMedicalRecordDTO.LabResultItem>> labResults = scope
+                    .fork(() -> toLabResults(labTestRepository.findByPatientId(patientId)));
+            Supplier<List<SharedMedicalRecordDTO.PrescriptionItem>> prescriptions = scope
+                    .fork(() -> toPrescriptions(prescriptionRepository.findByPatientId(patientId)));
+            scope.join();
+
+            dto.setMedicalHistory(sections.get().medicalHistory());
+            dto.setLabResults(labResults.get());
+            dto.setPrescriptions(prescriptions.get());
+            dto.setDiagnoses(sections.get().diagnoses());
+            dto.setVitalSigns(sections.get().vitalSigns());
+            dto.setClinicalSummary(clinicalSummary(patient, sections.get().diagnosisCount(), labResults.get().size()));
+        }
     }
 
     private List<SharedMedicalRecordDTO.MedicalHistoryItem> getMedicalHistory(Long patientId) {
-        return medicalRecordRepository.findPatientRecordsOrderedByDate(patientId).stream()
+        return toMedicalHistory(medicalRecordRepository.findPatientRecordsOrderedByDate(patientId));
+    }
+
+    private List<SharedMedicalRecordDTO.MedicalHistoryItem> toMedicalHistory(List<MedicalRecord> records) {
+        return records.stream()
                 .map(record -> SharedMedicalRecordDTO.MedicalHistoryItem.builder().id(record.getId())
                         .recordDate(record.getRecordDate()).chiefComplaint(record.getChiefComplaint())
                         .diagnosis(record.getDiagnosis()).treatment(record.getTreatment())
@@ -318,7 +365,11 @@ public class RecordSharingService {
     }
 
     private List<SharedMedicalRecordDTO.LabResultItem> getLabResults(Long patientId) {
-        return labTestRepository.findByPatientId(patientId).stream()
+        return toLabResults(labTestRepository.findByPatientId(patientId));
+    }
+
+    private List<SharedMedicalRecordDTO.LabResultItem> toLabResults(List<LabTest> tests) {
+        return tests.stream()
                 .map(test -> SharedMedicalRecordDTO.LabResultItem.builder().id(test.getId())
                         .testName(test.getTestName()).testCode(test.getTestType()).testDate(test.getResultDate())
                         .result(test.getTestResults()).normalRange(test.getNormalRange())
@@ -328,7 +379,11 @@ public class RecordSharingService {
     }
 
     private List<SharedMedicalRecordDTO.PrescriptionItem> getPrescriptions(Long patientId) {
-        return prescriptionRepository.findByPatientId(patientId).stream()
+        return toPrescriptions(prescriptionRepository.findByPatientId(patientId));
+    }
+
+    private List<SharedMedicalRecordDTO.PrescriptionItem> toPrescriptions(List<Prescription> prescriptions) {
+        return prescriptions.stream()
                 .map(rx -> SharedMedicalRecordDTO.PrescriptionItem.builder().id(rx.getId())
                         .prescribedDate(
                                 rx.getPrescriptionDate() != null ? rx.getPrescriptionDate().atStartOfDay() : null)
@@ -342,7 +397,11 @@ public class RecordSharingService {
     }
 
     private List<SharedMedicalRecordDTO.DiagnosisItem> getDiagnoses(Long patientId) {
-        return medicalRecordRepository.findPatientRecordsOrderedByDate(patientId).stream()
+        return toDiagnoses(medicalRecordRepository.findPatientRecordsOrderedByDate(patientId));
+    }
+
+    private List<SharedMedicalRecordDTO.DiagnosisItem> toDiagnoses(List<MedicalRecord> records) {
+        return records.stream()
                 .filter(record -> record.getDiagnosis() != null && !record.getDiagnosis().isEmpty())
                 .map(record -> SharedMedicalRecordDTO.DiagnosisItem.builder().id(record.getId())
                         .diagnosisDate(record.getRecordDate()).diagnosisName(record.getDiagnosis())
@@ -355,7 +414,11 @@ public class RecordSharingService {
     }
 
     private List<SharedMedicalRecordDTO.VitalSignItem> getVitalSigns(Long patientId) {
-        return medicalRecordRepository.findPatientRecordsOrderedByDate(patientId).stream()
+        return toVitalSigns(medicalRecordRepository.findPatientRecordsOrderedByDate(patientId));
+    }
+
+    private List<SharedMedicalRecordDTO.VitalSignItem> toVitalSigns(List<MedicalRecord> records) {
+        return records.stream()
                 .filter(record -> record.getBloodPressure() != null || record.getHeartRate() != null
                         || record.getTemperature() != null)
                 .map(record -> SharedMedicalRecordDTO.VitalSignItem.builder().id(record.getId())
@@ -371,6 +434,16 @@ public class RecordSharingService {
     }
 
     private String generateClinicalSummary(Patient patient) {
+        long diagnosisCount = countDiagnoses(medicalRecordRepository.findPatientRecordsOrderedByDate(patient.getId()));
+        long labTestCount = labTestRepository.findByPatientId(patient.getId()).size();
+        return clinicalSummary(patient, diagnosisCount, labTestCount);
+    }
+
+    private static long countDiagnoses(List<MedicalRecord> records) {
+        return records.stream().filter(r -> r.getDiagnosis() != null).count();
+    }
+
+    private String clinicalSummary(Patient patient, long diagnosisCount, long labTestCount) {
         StringBuilder summary = new StringBuilder();
         summary.append("Patient: ").append(patient.getFirstName()).append(" ").append(patient.getLastName())
                 .append("\n");
@@ -381,11 +454,7 @@ public class RecordSharingService {
             summary.append("Blood Group: ").append(patient.getBloodGroup()).append("\n");
         }
 
-        long diagnosisCount = medicalRecordRepository.findPatientRecordsOrderedByDate(patient.getId()).stream()
-                .filter(r -> r.getDiagnosis() != null).count();
         summary.append("Total diagnoses on record: ").append(diagnosisCount).append("\n");
-
-        long labTestCount = labTestRepository.findByPatientId(patient.getId()).size();
         summary.append("Total lab tests: ").append(labTestCount).append("\n");
 
         return summary.toString();
@@ -431,4 +500,9 @@ public class RecordSharingService {
                 .updatedAt(request.getUpdatedAt()).isPending(request.isPending()).isApproved(request.isApproved())
                 .isExpired(request.isExpired()).isAccessValid(request.isAccessValid()).build();
     }
+
+    private record MedicalRecordSections(List<SharedMedicalRecordDTO.MedicalHistoryItem> medicalHistory,
+            List<SharedMedicalRecordDTO.DiagnosisItem> diagnoses, List<SharedMedicalRecordDTO.VitalSignItem> vitalSigns,
+            long diagnosisCount) {
+    }
 }
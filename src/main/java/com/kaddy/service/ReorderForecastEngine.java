@@ -0,0 +1,276 @@
+package com.kaddy.service;
+
+import com.kaddy.model.PurchaseOrder;
+import com.kaddy.model.enums.PurchaseOrderStatus;
+import com.kaddy.model.enums.StockMovementType;
+import com.kaddy.repository.HospitalRepository;
+import com.kaddy.repository.InventoryItemRepository;
+import com.kaddy.repository.PurchaseOrderItemRepository;
+import com.kaddy.repository.PurchaseOrderRepository;
+import com.kaddy.repository.StockMovementRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+// Forecast-driven replenishment for inventory items. Each item's daily consumption over the lookback window is
+// smoothed with Holt's linear method (level plus trend), so a seasonal ramp-up raises the forecast within days instead
+// of waiting for someone to edit a static reorder level. The reorder point covers forecast demand over the vendor's
+// observed lead time plus safety stock sized from the forecast error; items whose stock plus open orders has fallen
+// to it are ordered up to lead time plus one review period, one draft purchase order per preferred vendor.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReorderForecastEngine {
+
+    private static final double LEVEL_SMOOTHING = 0.3;
+    private static final double TREND_SMOOTHING = 0.1;
+
+    private static final Set<StockMovementType> CONSUMPTION = EnumSet.of(StockMovementType.SALE,
+            StockMovementType.TRANSFER_OUT);
+    private static final Set<PurchaseOrderStatus> OPEN_ORDER = EnumSet.of(PurchaseOrderStatus.DRAFT,
+            PurchaseOrderStatus.PENDING_APPROVAL, PurchaseOrderStatus.APPROVED, PurchaseOrderStatus.ORDERED,
+            PurchaseOrderStatus.PARTIAL_RECEIVED);
+
+    private final InventoryItemRepository inventoryItemRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final PurchaseOrderRepository purchaseOrderRepository;
+    private final PurchaseOrderItemRepository purchaseOrderItemRepository;
+    private final HospitalRepository hospitalRepository;
+    private final InventoryService inventoryService;
+    private final PlatformTransactionManager transactionManager;
+    private final Executor batchExecutor;
+
+    @Value("${reorder.lookback-days:120}")
+    private int lookbackDays;
+
+    @Value("${reorder.review-days:7}")
+    private int reviewDays;
+
+    @Value("${reorder.default-lead-time-days:7}")
+    private int defaultLeadTimeDays;
+
+    // z-score of the cycle service level; 1.65 covers lead-time demand in about 95% of cycles
+    @Value("${reorder.service-level-z:1.65}")
+    private double serviceLevelZ;
+
+    @Value("${reorder.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${reorder.parallelism:4}")
+    private int parallelism;
+
+    @Value("${reorder.update-reorder-levels:true}")
+    private boolean updateReorderLevels;
+
+    @Scheduled(cron = "${reorder.forecast-cron:0 0 3 * * *}")
+    public void planAllHospitals() {
+        for (Long hospitalId : hospitalRepository.findAllIds()) {
+            try {
+                plan(hospitalId);
+            } catch (RuntimeException e) {
+                log.error("Reorder planning failed for hospital {}", hospitalId, e);
+            }
+        }
+    }
+
+    @Async("taskExecutor")
+    public CompletableFuture<ReorderPlan> planAsync(Long hospitalId) {
+        return CompletableFuture.completedFuture(plan(hospitalId));
+    }
+
+    public ReorderPlan plan(Long hospitalId) {
+        long started = System.currentTimeMillis();
+        Map<Long, Integer> leadTimes = loadLeadTimes(hospitalId);
+
+        // Items are read in keyset chunks and forecast on the batch executor, with a bounded number of chunks in
+        // flight so a large catalogue neither floods the executor queue nor holds every chunk in memory
+        Deque<CompletableFuture<ChunkResult>> inFlight = new ArrayDeque<>();
+        List<ChunkResult> results = new ArrayList<>();
+        Long afterId = 0L;
+        while (true) {
+            List<Object[]> candidates = inventoryItemRepository.findReorderCandidates(hospitalId, afterId,
+                    PageRequest.of(0, chunkSize));
+            if (candidates.isEmpty()) {
+                break;
+            }
+            afterId = (Long) candidates.get(candidates.size() - 1)[0];
+
+            if (inFlight.size() >= parallelism) {
+                results.add(inFlight.removeFirst().join());
+            }
+            inFlight.addLast(CompletableFuture.supplyAsync(() -> forecastChunk(candidates, leadTimes), batchExecutor));
+        }
+        while (!inFlight.isEmpty()) {
+            results.add(inFlight.removeFirst().join());
+        }
+
+        int evaluated = 0;
+        int forecast = 0;
+        int withoutVendor = 0;
+        Map<Long, Map<Long, Integer>> linesByVendor = new LinkedHashMap<>();
+        for (ChunkResult result : results) {
+            evaluated += result.evaluated();
+            forecast += result.forecast();
+            for (ReorderLine line : result.lines()) {
+                if (line.vendorId() == null) {
+                    withoutVendor++;
+                    continue;
+                }
+                linesByVendor.computeIfAbsent(line.vendorId(), v -> new LinkedHashMap<>()).put(line.itemId(),
+                        line.orderQuantity());
+            }
+        }
+
+        if (updateReorderLevels) {
+            inventoryService.evictInventoryReport(hospitalId);
+        }
+
+        List<String> purchaseOrders = new ArrayList<>();
+        for (Map.Entry<Long, Map<Long, Integer>> entry : linesByVendor.entrySet()) {
+            PurchaseOrder po = inventoryService.draftReorderPurchaseOrder(hospitalId, entry.getKey(), entry.getValue(),
+                    "Drafted by reorder forecast");
+            purchaseOrders.add(po.getPoNumber());
+        }
+
+        ReorderPlan plan = new ReorderPlan(hospitalId, evaluated, forecast,
+                linesByVendor.values().stream().mapToInt(Map::size).sum(), withoutVendor, purchaseOrders,
+                LocalDateTime.now());
+        log.info("Reorder plan for hospital {}: {} items evaluated, {} forecast, {} purchase orders drafted in {} ms",
+                hospitalId, evaluated, forecast, purchaseOrders.size(), System.currentTimeMillis() - started);
+        return plan;
+    }
+
+    private ChunkResult forecastChunk(List<Object[]> candidates, Map<Long, Integer> leadTimes) {
+        List<Long> itemIds = candidates.stream().map(row -> (Long) row[0]).toList();
+        LocalDate today = LocalDate.now();
+        LocalDate firstDay = today.minusDays(lookbackDays);
+
+        Map<Long, double[]> demandByItem = new HashMap<>();
+        for (Object[] row : stockMovementRepository.findDailyQuantities(itemIds, CONSUMPTION,
+                firstDay.atStartOfDay())) {
+            int day = (int) ChronoUnit.DAYS.between(firstDay, (LocalDate) row[1]);
+            if (day >= 0 && day < lookbackDays) {
+                double[] demand = demandByItem.computeIfAbsent((Long) row[0], id -> new double[lookbackDays]);
+                // Consumption is recorded as negative quantities
+                demand[day] = -((Number) row[2]).doubleValue();
+            }
+        }
+
+        Map<Long, Long> onOrder = new HashMap<>();
+        for (Object[] row : purchaseOrderItemRepository.sumPendingQuantityByItem(itemIds, OPEN_ORDER)) {
+            onOrder.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+
+        List<ReorderLine> lines = new ArrayList<>();
+        Map<Integer, List<Long>> idsByReorderLevel = new HashMap<>();
+        for (Object[] row : candidates) {
+            Long itemId = (Long) row[0];
+            double[] demand = demandByItem.get(itemId);
+            // Items never consumed in the window keep their configured reorder level
+            if (demand == null) {
+                continue;
+            }
+
+            Long vendorId = (Long) row[2];
+            int leadTime = vendorId != null ? leadTimes.getOrDefault(vendorId, defaultLeadTimeDays)
+                    : defaultLeadTimeDays;
+            Forecast forecast = forecast(demand, leadTime, reviewDays, serviceLevelZ);
+            idsByReorderLevel.computeIfAbsent(forecast.reorderPoint(), level -> new ArrayList<>()).add(itemId);
+
+            long position = (Integer) row[1] + onOrder.getOrDefault(itemId, 0L);
+            if (position <= forecast.reorderPoint() && forecast.orderUpTo() > position) {
+                lines.add(new ReorderLine(itemId, vendorId, (int) (forecast.orderUpTo() - position)));
+            }
+        }
+
+        if (updateReorderLevels && !idsByReorderLevel.isEmpty()) {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> idsByReorderLevel
+                    .forEach((level, ids) -> inventoryItemRepository.updateReorderLevel(level, ids)));
+        }
+        return new ChunkResult(candidates.size(), demandByItem.size(), lines);
+    }
+
+    static Forecast forecast(double[] demand, int leadTime, int reviewDays, double serviceLevelZ) {
+        int warmUp = Math.min(7, demand.length);
+        double level = 0;
+        for (int day = 0; day < warmUp; day++) {
+            level += demand[day] / warmUp;
+        }
+        double trend = 0;
+        double squaredError = 0;
+
+        for (int day = warmUp; day < demand.length; day++) {
+            double error = demand[day] - (level + trend);
+            squaredError += error * error;
+            double previousLevel = level;
+            level = LEVEL_SMOOTHING * demand[day] + (1 - LEVEL_SMOOTHING) * (level + trend);
+            trend = TREND_SMOOTHING * (level - previousLevel) + (1 - TREND_SMOOTHING) * trend;
+        }
+
+        double sigma = Math.sqrt(squaredError / Math.max(1, demand.length - warmUp));
+        double safetyStock = serviceLevelZ * sigma * Math.sqrt(leadTime);
+        double leadTimeDemand = 0;
+        double coverDemand = 0;
+        for (int h = 1; h <= leadTime + reviewDays; h++) {
+            double daily = Math.max(0, level + h * trend);
+            if (h <= leadTime) {
+                leadTimeDemand += daily;
+            }
+            coverDemand += daily;
+        }
+
+        return new Forecast((int) Math.ceil(leadTimeDemand + safetyStock), (long) Math.ceil(coverDemand + safetyStock));
+    }
+
+    // Average order-to-delivery days per vendor over the last year of received orders
+    private Map<Long, Integer> loadLeadTimes(Long hospitalId) {
+        Map<Long, long[]> totals = new HashMap<>();
+        for (Object[] row : purchaseOrderRepository.findDeliveryHistory(hospitalId, LocalDate.now().minusYears(1))) {
+            long days = ChronoUnit.DAYS.between((LocalDate) row[1], (LocalDate) row[2]);
+            if (days >= 0) {
+                long[] total = totals.computeIfAbsent((Long) row[0], v -> new long[2]);
+                total[0] += days;
+                total[1]++;
+            }
+        }
+
+        Map<Long, Integer> leadTimes = new HashMap<>();
+        totals.forEach((vendorId, total) -> leadTimes.put(vendorId,
+                (int) Math.max(1, Math.round((double) total[0] / total[1]))));
+        return leadTimes;
+    }
+
+    record Forecast(int reorderPoint, long orderUpTo) {
+    }
+
+    private record ReorderLine(Long itemId, Long vendorId, int orderQuantity) {
+    }
+
+    private record ChunkResult(int evaluated, int forecast, List<ReorderLine> lines) {
+    }
+
+    public record ReorderPlan(Long hospitalId, int itemsEvaluated, int itemsForecast, int linesDrafted,
+            int itemsWithoutVendor, List<String> purchaseOrders, LocalDateTime generatedAt) {
+    }
+}
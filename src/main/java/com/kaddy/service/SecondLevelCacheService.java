@@ -0,0 +1,101 @@
+package com.kaddy.service;
+
+import com.kaddy.model.Doctor;
+import com.kaddy.model.Hospital;
+import com.kaddy.model.InsuranceProvider;
+import com.kaddy.model.ServiceItem;
+import com.kaddy.model.Vendor;
+import com.kaddy.model.Ward;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Invalidation for the Hibernate second-level cache, whose regions are local to each node. Every node polls a version
+// stamp per cached type (row count and latest updatedAt) and drops the type's region and the query regions when the
+// stamp moves, so a write on another node is seen within one interval rather than at the TTL. A write whose updatedAt
+// is older than one already seen can slip past the stamp; the region TTL still bounds that. An operator can also evict
+// by hand after a database fix that bypasses the entities.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SecondLevelCacheService {
+
+    private static final Map<String, Class<?>> CACHED_ENTITIES = List
+            .of(Hospital.class, Ward.class, ServiceItem.class, InsuranceProvider.class, Vendor.class, Doctor.class)
+            .stream().collect(Collectors.toUnmodifiableMap(Class::getSimpleName, Function.identity()));
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final Map<String, Stamp> stamps = new ConcurrentHashMap<>();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // The first run only records the stamps, since a region filled at startup already holds what it would reload
+    @Scheduled(fixedDelayString = "${second-level-cache.sync-interval:PT30S}")
+    @Transactional(readOnly = true)
+    public void syncWithDatabase() {
+        for (Map.Entry<String, Class<?>> entry : CACHED_ENTITIES.entrySet()) {
+            Object[] row = entityManager
+                    .createQuery("SELECT COUNT(e), MAX(e.updatedAt) FROM " + entry.getKey() + " e", Object[].class)
+                    .getSingleResult();
+            Stamp current = new Stamp(((Number) row[0]).longValue(), (LocalDateTime) row[1]);
+            Stamp previous = stamps.put(entry.getKey(), current);
+            if (previous != null && !previous.equals(current)) {
+                Cache cache = cache();
+                cache.evictEntityData(entry.getValue());
+                cache.evictQueryRegions();
+                log.debug("{} changed in the database, evicted its second-level cache", entry.getKey());
+            }
+        }
+    }
+
+    public List<String> getCachedEntityNames() {
+        return CACHED_ENTITIES.keySet().stream().sorted().toList();
+    }
+
+    public void evict(String entityName, Long id) {
+        Class<?> entityClass = resolve(entityName);
+        Cache cache = cache();
+        if (id != null) {
+            cache.evictEntityData(entityClass, id);
+        } else {
+            cache.evictEntityData(entityClass);
+        }
+        cache.evictQueryRegions();
+        log.info("Evicted second-level cache for {}{}", entityName, id != null ? " id " + id : "");
+    }
+
+    public void evictAll() {
+        cache().evictAllRegions();
+        log.info("Evicted all second-level cache regions");
+    }
+
+    private Class<?> resolve(String entityName) {
+        Class<?> entityClass = CACHED_ENTITIES.get(entityName);
+        if (entityClass == null) {
+            throw new IllegalArgumentException("Entity is not second-level cached: " + entityName);
+        }
+        return entityClass;
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    private record Stamp(long rows, LocalDateTime lastUpdated) {
+    }
+}
@@ -0,0 +1,66 @@
+package com.kaddy.service;
+
+import com.kaddy.model.InventoryItem;
+import com.kaddy.repository.InventoryItemRepository;
+import com.kaddy.repository.StockBatchRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+// Atomic stock deduction: a conditional decrement of the item (which also takes its row lock) followed by one FEFO
+// split across batches. The statement count is the same however many batches the deduction spans, and two
+// concurrent deductions of one item can no longer both pass the availability check. The batches must cover the whole
+// quantity, checked under the same row lock; otherwise the item and its batches would drift apart, so the deduction
+// fails and rolls back.
+@Component
+@RequiredArgsConstructor
+public class StockAllocationEngine {
+
+    private final InventoryItemRepository inventoryItemRepository;
+    private final StockBatchRepository stockBatchRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public StockAllocation allocate(Long itemId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+
+        if (inventoryItemRepository.decrementStockIfAvailable(itemId, quantity) == 0) {
+            InventoryItem item = inventoryItemRepository.findById(itemId)
+                    .orElseThrow(() -> new EntityNotFoundException("Inventory item not found"));
+            throw new IllegalStateException("Insufficient stock. Available: " + item.getCurrentStock());
+        }
+
+        long batchStock = stockBatchRepository.sumAvailableQuantity(itemId);
+        if (batchStock < quantity) {
+            throw new IllegalStateException("Stock batches hold only " + batchStock + " of the " + quantity
+                    + " units requested for inventory item " + itemId);
+        }
+        int batchesTouched = stockBatchRepository.deductFEFO(itemId, quantity);
+
+        InventoryItem item = currentState(itemId);
+        return new StockAllocation(item, item.getCurrentStock() + quantity, item.getCurrentStock(), batchesTouched);
+    }
+
+    // The bulk update bypasses the persistence context, so an item the caller already loaded is refreshed
+    private InventoryItem currentState(Long itemId) {
+        InventoryItem item = entityManager.getReference(InventoryItem.class, itemId);
+        if (Hibernate.isInitialized(item)) {
+            entityManager.refresh(item);
+        } else {
+            Hibernate.initialize(item);
+        }
+        return item;
+    }
+
+    public record StockAllocation(InventoryItem item, int previousStock, int newStock, int batchesTouched) {
+    }
+}
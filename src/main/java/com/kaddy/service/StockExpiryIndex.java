@@ -0,0 +1,127 @@
+package com.kaddy.service;
+
+import com.kaddy.model.StockBatch;
+import com.kaddy.repository.StockBatchRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Per-hospital set of stocked batches ordered by expiry date, so "expiring by D" and "expired before D" are range
+// reads instead of scans of stock_batches. Batches received or written off on this node are applied after commit;
+// the full rebuild on a fixed delay picks up other nodes' changes and drops batches that FEFO deductions emptied.
+// Entries can therefore be briefly stale in both directions, and callers re-check the batches they load.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StockExpiryIndex {
+
+    private static final Comparator<Entry> ORDER = Comparator.comparing(Entry::expiryDate)
+            .thenComparing(Entry::batchId);
+
+    private final StockBatchRepository stockBatchRepository;
+
+    private volatile Map<Long, NavigableSet<Entry>> index = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    @Value("${stock-expiry.index-page-size:5000}")
+    private int pageSize;
+
+    @Scheduled(fixedDelayString = "${stock-expiry.index-refresh-interval:PT15M}")
+    public void refresh() {
+        long started = System.currentTimeMillis();
+        Map<Long, NavigableSet<Entry>> rebuilt = new ConcurrentHashMap<>();
+        long entries = 0;
+        Long afterId = 0L;
+
+        List<Object[]> page;
+        do {
+            page = stockBatchRepository.findStockedExpiryEntries(afterId, PageRequest.of(0, pageSize));
+            for (Object[] row : page) {
+                rebuilt.computeIfAbsent((Long) row[1], h -> new ConcurrentSkipListSet<>(ORDER))
+                        .add(new Entry((LocalDate) row[2], (Long) row[0]));
+            }
+            if (!page.isEmpty()) {
+                afterId = (Long) page.get(page.size() - 1)[0];
+                entries += page.size();
+            }
+        } while (page.size() == pageSize);
+
+        index = rebuilt;
+        loaded = true;
+        log.debug("Rebuilt stock expiry index: {} batches across {} hospitals in {} ms", entries, rebuilt.size(),
+                System.currentTimeMillis() - started);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public Set<Long> getHospitalIds() {
+        return index.keySet();
+    }
+
+    // Batches expiring on or before the given date, soonest first
+    public List<Long> findExpiringOnOrBefore(Long hospitalId, LocalDate date) {
+        NavigableSet<Entry> entries = index.get(hospitalId);
+        if (entries == null) {
+            return List.of();
+        }
+        return entries.headSet(new Entry(date, Long.MAX_VALUE), true).stream().map(Entry::batchId).toList();
+    }
+
+    // Batches whose expiry date is strictly before the given date, soonest first
+    public List<Long> findExpiredBefore(Long hospitalId, LocalDate date) {
+        NavigableSet<Entry> entries = index.get(hospitalId);
+        if (entries == null) {
+            return List.of();
+        }
+        return entries.headSet(new Entry(date, Long.MIN_VALUE), false).stream().map(Entry::batchId).toList();
+    }
+
+    public void add(StockBatch batch) {
+        Long hospitalId = batch.getHospital().getId();
+        Entry entry = new Entry(batch.getExpiryDate(), batch.getId());
+        afterCommit(() -> index.computeIfAbsent(hospitalId, h -> new ConcurrentSkipListSet<>(ORDER)).add(entry));
+    }
+
+    public void remove(StockBatch batch) {
+        Long hospitalId = batch.getHospital().getId();
+        Entry entry = new Entry(batch.getExpiryDate(), batch.getId());
+        afterCommit(() -> {
+            NavigableSet<Entry> entries = index.get(hospitalId);
+            if (entries != null) {
+                entries.remove(entry);
+            }
+        });
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    private record Entry(LocalDate expiryDate, Long batchId) {
+    }
+}
@@ -0,0 +1,73 @@
+package com.kaddy.service;
+
+import com.kaddy.model.Notification;
+import com.kaddy.model.User;
+import com.kaddy.model.enums.UserRole;
+import com.kaddy.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+// Daily pass over the expiry index: writes off batches that expired before today in chunked transactions, then alerts
+// each hospital's pharmacists and admins with the write-off count and the batches expiring within the alert window
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockExpirySweeper {
+
+    private static final Set<UserRole> ALERT_ROLES = EnumSet.of(UserRole.PHARMACIST, UserRole.ADMIN);
+
+    private final StockExpiryIndex stockExpiryIndex;
+    private final InventoryService inventoryService;
+    private final NotificationService notificationService;
+    private final UserRepository userRepository;
+
+    @Value("${stock-expiry.write-off-chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${stock-expiry.alert-days:30}")
+    private int alertDays;
+
+    @Scheduled(cron = "${stock-expiry.sweep-cron:0 15 0 * * *}")
+    public void sweep() {
+        stockExpiryIndex.refresh();
+        LocalDate today = LocalDate.now();
+        for (Long hospitalId : stockExpiryIndex.getHospitalIds()) {
+            try {
+                sweepHospital(hospitalId, today);
+            } catch (RuntimeException e) {
+                log.error("Stock expiry sweep failed for hospital {}", hospitalId, e);
+            }
+        }
+    }
+
+    private void sweepHospital(Long hospitalId, LocalDate today) {
+        List<Long> expired = stockExpiryIndex.findExpiredBefore(hospitalId, today);
+        int writtenOff = 0;
+        for (int from = 0; from < expired.size(); from += chunkSize) {
+            List<Long> chunk = expired.subList(from, Math.min(from + chunkSize, expired.size()));
+            writtenOff += inventoryService.writeOffExpiredBatches(hospitalId, chunk, "Expired before " + today);
+        }
+
+        int expiringSoon = stockExpiryIndex.findExpiringOnOrBefore(hospitalId, today.plusDays(alertDays)).size();
+        if (writtenOff == 0 && expiringSoon == 0) {
+            return;
+        }
+
+        log.info("Stock expiry sweep for hospital {}: {} batches written off, {} expiring within {} days", hospitalId,
+                writtenOff, expiringSoon, alertDays);
+        String message = String.format("%d expired batches were written off today. %d batches expire within %d days.",
+                writtenOff, expiringSoon, alertDays);
+        for (User user : userRepository.findByHospitalIdAndRoleInAndActiveTrue(hospitalId, ALERT_ROLES)) {
+            notificationService.createNotification(user.getId(), "Stock expiry alert", message,
+                    Notification.NotificationType.ALERT, "STOCK_EXPIRY", hospitalId);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.kaddy.service;
+
+import com.kaddy.model.Hospital;
+import com.kaddy.model.InventoryItem;
+import com.kaddy.model.StockBalanceCheckpoint;
+import com.kaddy.model.StockLedgerClosure;
+import com.kaddy.repository.HospitalRepository;
+import com.kaddy.repository.InventoryItemRepository;
+import com.kaddy.repository.StockBalanceCheckpointRepository;
+import com.kaddy.repository.StockLedgerClosureRepository;
+import com.kaddy.repository.StockMovementRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// Month-end balance checkpoints over the append-only stock_movements ledger. Closing a month replays only that month's
+// movements on top of the previous month's checkpoints, valuing stock at weighted-average cost, so a point-in-time
+// balance is one checkpoint plus at most a few weeks of deltas and a valuation report reads one row per item. Every
+// closed month also gets a closure row, so a month that left no checkpoints still counts as closed.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockLedgerService {
+
+    // Lower bound for items that have never been checkpointed
+    private static final LocalDateTime LEDGER_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final StockMovementRepository stockMovementRepository;
+    private final StockBalanceCheckpointRepository checkpointRepository;
+    private final StockLedgerClosureRepository closureRepository;
+    private final InventoryItemRepository inventoryItemRepository;
+    private final HospitalRepository hospitalRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${stock-ledger.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    // Runs well after midnight so every movement dated in the closing month has committed
+    @Scheduled(cron = "${stock-ledger.close-cron:0 30 2 1 * *}")
+    public void closeCompletedMonths() {
+        for (Long hospitalId : hospitalRepository.findAllIds()) {
+            try {
+                closeCompletedMonths(hospitalId);
+            } catch (RuntimeException e) {
+                log.error("Failed to close stock ledger for hospital {}", hospitalId, e);
+            }
+        }
+    }
+
+    // Closes every month after the last checkpoint (or from the first movement) up to last month, one month per
+    // transaction, so the first run over an existing ledger builds the whole checkpoint history
+    public int closeCompletedMonths(Long hospitalId) {
+        YearMonth month;
+        LocalDateTime latest = findLatestClosed(hospitalId);
+        if (latest != null) {
+            month = YearMonth.from(latest);
+        } else {
+            LocalDateTime earliest = stockMovementRepository.findEarliestMovementDate(hospitalId);
+            if (earliest == null) {
+                return 0;
+            }
+            month = YearMonth.from(earliest);
+        }
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        YearMonth current = YearMonth.now();
+        int closed = 0;
+        for (; month.isBefore(current); month = month.plusMonths(1)) {
+            YearMonth closing = month;
+            Integer written = transactionTemplate.execute(status -> closeMonth(hospitalId, closing));
+            log.info("Closed stock ledger {} for hospital {}: {} item balances", closing, hospitalId, written);
+            closed++;
+        }
+        return closed;
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getBalanceAt(Long hospitalId, Long itemId, LocalDateTime at) {
+        InventoryItem item = inventoryItemRepository.findById(itemId)
+                .filter(found -> found.getHospital().getId().equals(hospitalId))
+                .orElseThrow(() -> new EntityNotFoundException("Inventory item not found"));
+
+        List<StockBalanceCheckpoint> checkpoints = checkpointRepository.findLatestForItem(itemId, at,
+                PageRequest.of(0, 1));
+        StockBalanceCheckpoint checkpoint = checkpoints.isEmpty() ? null : checkpoints.get(0);
+        LocalDateTime from = checkpoint != null ? checkpoint.getAsOf() : LEDGER_START;
+        int opening = checkpoint != null ? checkpoint.getQuantity() : 0;
+
+        Map<String, Object> balance = new LinkedHashMap<>();
+        balance.put("itemId", item.getId());
+        balance.put("itemName", item.getName());
+        balance.put("asOf", at);
+        balance.put("quantity", opening + stockMovementRepository.sumQuantityBetween(itemId, from, at));
+        balance.put("checkpointAsOf", checkpoint != null ? checkpoint.getAsOf() : null);
+        balance.put("movementsSinceCheckpoint", stockMovementRepository.countBetween(itemId, from, at));
+        return balance;
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getMonthEndValuation(Long hospitalId, YearMonth month) {
+        LocalDateTime asOf = month.plusMonths(1).atDay(1).atStartOfDay();
+        LocalDateTime latest = findLatestClosed(hospitalId);
+        if (latest == null || latest.isBefore(asOf)) {
+            throw new IllegalStateException("Stock ledger for " + month + " has not been closed yet");
+        }
+
+        long totalQuantity = 0;
+        long itemCount = 0;
+        BigDecimal totalValue = BigDecimal.ZERO;
+        List<Map<String, Object>> byCategory = new ArrayList<>();
+        for (Object[] row : checkpointRepository.getValuationByCategory(hospitalId, asOf)) {
+            Map<String, Object> category = new LinkedHashMap<>();
+            category.put("category", row[0]);
+            category.put("items", row[1]);
+            category.put("quantity", row[2]);
+            category.put("value", row[3]);
+            byCategory.add(category);
+
+            itemCount += ((Number) row[1]).longValue();
+            totalQuantity += ((Number) row[2]).longValue();
+            totalValue = totalValue.add((BigDecimal) row[3]);
+        }
+
+        Map<String, Object> valuation = new LinkedHashMap<>();
+        valuation.put("month", month.toString());
+        valuation.put("asOf", asOf);
+        valuation.put("itemCount", itemCount);
+        valuation.put("totalQuantity", totalQuantity);
+        valuation.put("totalValue", totalValue);
+        valuation.put("byCategory", byCategory);
+        return valuation;
+    }
+
+    private int closeMonth(Long hospitalId, YearMonth month) {
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime asOf = month.plusMonths(1).atDay(1).atStartOfDay();
+        if (closureRepository.existsByHospitalIdAndAsOf(hospitalId, asOf)) {
+            return 0;
+        }
+
+        // A month closed before closures were recorded already has its checkpoints and only needs the marker
+        int written = checkpointRepository.existsByHospitalIdAndAsOf(hospitalId, asOf) ? 0
+                : writeCheckpoints(hospitalId, from, asOf);
+
+        StockLedgerClosure closure = new StockLedgerClosure();
+        closure.setHospital(hospitalRepository.getReferenceById(hospitalId));
+        closure.setAsOf(asOf);
+        entityManager.persist(closure);
+        return written;
+    }
+
+    private int writeCheckpoints(Long hospitalId, LocalDateTime from, LocalDateTime asOf) {
+        Map<Long, Balance> balances = new HashMap<>();
+        for (Object[] row : checkpointRepository.findBalances(hospitalId, from)) {
+            balances.put((Long) row[0], new Balance((Integer) row[1], (BigDecimal) row[2]));
+        }
+
+        try (Stream<Object[]> ledger = stockMovementRepository.streamLedger(hospitalId, from, asOf)) {
+            ledger.forEach(row -> balances.computeIfAbsent((Long) row[0], id -> new Balance(0, BigDecimal.ZERO))
+                    .apply((Integer) row[1], (BigDecimal) row[2]));
+        }
+
+        Hospital hospital = hospitalRepository.getReferenceById(hospitalId);
+        int written = 0;
+        for (Map.Entry<Long, Balance> entry : balances.entrySet()) {
+            Balance balance = entry.getValue();
+            // Items with nothing on hand and no activity carry no information forward
+            if (balance.quantity == 0 && balance.movements == 0) {
+                continue;
+            }
+
+            StockBalanceCheckpoint checkpoint = new StockBalanceCheckpoint();
+            checkpoint.setHospital(hospital);
+            checkpoint.setInventoryItem(inventoryItemRepository.getReferenceById(entry.getKey()));
+            checkpoint.setAsOf(asOf);
+            checkpoint.setQuantity(balance.quantity);
+            checkpoint.setStockValue(balance.value.setScale(2, RoundingMode.HALF_UP));
+            checkpoint.setMovementCount(balance.movements);
+            entityManager.persist(checkpoint);
+
+            if (++written % flushBatchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+                hospital = hospitalRepository.getReferenceById(hospitalId);
+            }
+        }
+        return written;
+    }
+
+    private LocalDateTime findLatestClosed(Long hospitalId) {
+        LocalDateTime closed = closureRepository.findLatestAsOf(hospitalId);
+        LocalDateTime checkpointed = checkpointRepository.findLatestAsOf(hospitalId);
+        if (closed == null || checkpointed != null && checkpointed.isAfter(closed)) {
+            return checkpointed;
+        }
+        return closed;
+    }
+
+    private static final class Balance {
+        int quantity;
+        BigDecimal value;
+        int movements;
+
+        Balance(int quantity, BigDecimal value) {
+            this.quantity = quantity;
+            this.value = value;
+        }
+
+        // Receipts add their cost; issues remove stock at the running average cost, whatever price they were sold at
+        void apply(int delta, BigDecimal unitPrice) {
+            movements++;
+            if (delta > 0) {
+                BigDecimal unitCost = unitPrice != null ? unitPrice : averageCost();
+                value = value.add(unitCost.multiply(BigDecimal.valueOf(delta)));
+                quantity += delta;
+                return;
+            }
+
+            int remaining = quantity + delta;
+            value = remaining > 0 && quantity > 0
+                    ? value.multiply(BigDecimal.valueOf(remaining)).divide(BigDecimal.valueOf(quantity), 2,
+                            RoundingMode.HALF_UP)
+                    : BigDecimal.ZERO;
+            quantity = remaining;
+        }
+
+        private BigDecimal averageCost() {
+            return quantity > 0 ? value.divide(BigDecimal.valueOf(quantity), 4, RoundingMode.HALF_UP) : BigDecimal.ZERO;
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.kaddy.service;
+
+import com.kaddy.model.Medication;
+import com.kaddy.model.MedicineOrder;
+import com.kaddy.model.MedicineOrderItem;
+import com.kaddy.model.StockReservation;
+import com.kaddy.model.enums.ReservationStatus;
+import com.kaddy.repository.MedicationRepository;
+import com.kaddy.repository.StockReservationRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Time-limited holds against medication stock for pending medicine orders. Available-to-promise is kept per
+// medication in memory (on-hand stock minus active holds) so order bursts are admitted or rejected without touching
+// the medications row; on-hand stock is only decremented when an order is confirmed or paid. Writers on this node
+// re-seed a medication's figure when they change its stock, and every figure is re-seeded from the database on a
+// short interval so changes made on other nodes converge. The conditional decrement at conversion stays the final
+// guard against overselling in between.
+//
+// A re-seed is on-hand stock minus committed holds, read in one statement, minus the holds this node has taken but not
+// yet committed. It is applied only if the figure saw no hold, commit, rollback or release while the database was
+// read; otherwise the figure is left alone and the next re-seed tries again.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockReservationService {
+
+    private final StockReservationRepository reservationRepository;
+    private final MedicationRepository medicationRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final Map<Long, Promise> availableToPromise = new ConcurrentHashMap<>();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${reservations.hold-ttl:PT30M}")
+    private Duration holdTtl;
+
+    @Value("${reservations.sweep-batch-size:500}")
+    private int sweepBatchSize;
+
+    public int getAvailableToPromise(Medication medication) {
+        return promise(medication.getId()).available();
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void hold(MedicineOrder order, MedicineOrderItem item) {
+        Medication medication = item.getMedication();
+        acquire(medication, item.getQuantity());
+
+        StockReservation reservation = new StockReservation();
+        reservation.setOrder(order);
+        reservation.setOrderItem(item);
+        reservation.setMedication(medication);
+        reservation.setQuantity(item.getQuantity());
+        reservation.setStatus(ReservationStatus.HELD);
+        reservation.setExpiresAt(LocalDateTime.now().plus(holdTtl));
+        reservationRepository.save(reservation);
+    }
+
+    // Turns the order's holds into stock deductions. Items whose hold already lapsed are re-checked against
+    // available-to-promise. Safe to call more than once per order, also concurrently: the order row lock makes a second
+    // caller wait and then see the first one's converted holds.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void convert(MedicineOrder order) {
+        entityManager.lock(order, LockModeType.PESSIMISTIC_WRITE);
+        if (reservationRepository.existsByOrderIdAndStatus(order.getId(), ReservationStatus.CONVERTED)) {
+            return;
+        }
+
+        Map<Long, StockReservation> heldByItem = new HashMap<>();
+        for (StockReservation reservation : reservationRepository.findByOrderIdAndStatusForUpdate(order.getId(),
+                ReservationStatus.HELD)) {
+            heldByItem.put(reservation.getOrderItem().getId(), reservation);
+        }
+
+        for (MedicineOrderItem item : order.getItems()) {
+            Medication medication = item.getMedication();
+            StockReservation reservation = heldByItem.get(item.getId());
+            if (reservation == null) {
+                acquire(medication, item.getQuantity());
+                reservation = new StockReservation();
+                reservation.setOrder(order);
+                reservation.setOrderItem(item);
+                reservation.setMedication(medication);
+                reservation.setQuantity(item.getQuantity());
+                reservation.setExpiresAt(LocalDateTime.now());
+            }
+            reservation.setStatus(ReservationStatus.CONVERTED);
+            reservationRepository.save(reservation);
+
+            if (medicationRepository.decrementStockIfAvailable(medication.getId(), item.getQuantity()) == 0) {
+                throw new IllegalStateException("Insufficient stock for medication: " + medication.getName());
+            }
+        }
+    }
+
+    // Releases outstanding holds, and returns stock for an order that had already been converted
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(MedicineOrder order) {
+        List<StockReservation> held = reservationRepository.findByOrderIdAndStatusForUpdate(order.getId(),
+                ReservationStatus.HELD);
+        List<StockReservation> converted = reservationRepository.findByOrderIdAndStatusForUpdate(order.getId(),
+                ReservationStatus.CONVERTED);
+
+        for (StockReservation reservation : converted) {
+            medicationRepository.incrementStock(reservation.getMedication().getId(), reservation.getQuantity());
+        }
+
+        List<StockReservation> released = new ArrayList<>(held);
+        released.addAll(converted);
+        if (!released.isEmpty()) {
+            reservationRepository.updateStatus(released.stream().map(StockReservation::getId).toList(),
+                    ReservationStatus.RELEASED);
+            afterCommit(() -> credit(released));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${reservations.sweep-interval:PT1M}")
+    public void sweepExpiredHolds() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int total = 0;
+        int swept;
+
+        do {
+            Integer chunk = transactionTemplate.execute(status -> expireChunk(LocalDateTime.now()));
+            swept = chunk != null ? chunk : 0;
+            total += swept;
+        } while (swept == sweepBatchSize);
+
+        if (total > 0) {
+            log.info("Released {} expired stock holds", total);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${reservations.atp-refresh-interval:PT1M}")
+    public void refreshAvailableToPromise() {
+        int deferred = 0;
+        for (Map.Entry<Long, Promise> entry : availableToPromise.entrySet()) {
+            if (!reseed(entry.getKey(), entry.getValue())) {
+                deferred++;
+            }
+        }
+        if (deferred > 0) {
+            log.debug("Deferred re-seeding available-to-promise for {} busy medications", deferred);
+        }
+    }
+
+    // Re-seeds the figure once on-hand stock has been changed outside this service. The writer's transaction has
+    // committed by then, so the read runs in a transaction of its own.
+    public void invalidate(Long medicationId) {
+        afterCommit(() -> {
+            Promise promise = availableToPromise.get(medicationId);
+            if (promise == null) {
+                return;
+            }
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            transactionTemplate.setReadOnly(true);
+            for (int attempt = 0; attempt < 3; attempt++) {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> reseed(medicationId, promise)))) {
+                    return;
+                }
+            }
+            log.debug("Medication {} kept changing while re-seeding available-to-promise", medicationId);
+        });
+    }
+
+    private int expireChunk(LocalDateTime now) {
+        List<StockReservation> expired = reservationRepository.findExpiredHeldForUpdate(now,
+                PageRequest.of(0, sweepBatchSize));
+        if (expired.isEmpty()) {
+            return 0;
+        }
+
+        reservationRepository.updateStatus(expired.stream().map(StockReservation::getId).toList(),
+                ReservationStatus.EXPIRED);
+        afterCommit(() -> credit(expired));
+        return expired.size();
+    }
+
+    private void acquire(Medication medication, int quantity) {
+        Promise promise = promise(medication.getId());
+        if (!promise.take(quantity)) {
+            throw new IllegalStateException("Insufficient stock for medication: " + medication.getName());
+        }
+
+        // The hold is in flight until the surrounding transaction ends; give the quantity back if it does not commit
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                promise.settle(quantity, status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    private void credit(List<StockReservation> reservations) {
+        for (StockReservation reservation : reservations) {
+            Promise promise = availableToPromise.get(reservation.getMedication().getId());
+            if (promise != null) {
+                promise.credit(reservation.getQuantity());
+            }
+        }
+    }
+
+    private Promise promise(Long medicationId) {
+        return availableToPromise.computeIfAbsent(medicationId, id -> new Promise(readAvailable(id)));
+    }
+
+    private boolean reseed(Long medicationId, Promise promise) {
+        long version = promise.version();
+        int inFlight = promise.inFlight();
+        return promise.reseed(readAvailable(medicationId) - inFlight, version);
+    }
+
+    private int readAvailable(Long medicationId) {
+        return (int) reservationRepository.findAvailableToPromise(medicationId).orElse(0L).longValue();
+    }
+
+    // Available-to-promise for one medication. Every change bumps the version under the monitor, so a re-seed computed
+    // from an older version is discarded instead of overwriting the change.
+    private static final class Promise {
+        private int available;
+        private int inFlight;
+        private long version;
+
+        Promise(int available) {
+            this.available = available;
+        }
+
+        synchronized int available() {
+            return available;
+        }
+
+        synchronized int inFlight() {
+            return inFlight;
+        }
+
+        synchronized long version() {
+            return version;
+        }
+
+        synchronized boolean take(int quantity) {
+            if (available < quantity) {
+                return false;
+            }
+            available -= quantity;
+            inFlight += quantity;
+            version++;
+            return true;
+        }
+
+        synchronized void settle(int quantity, boolean committed) {
+            inFlight -= quantity;
+            if (!committed) {
+                available += quantity;
+            }
+            version++;
+        }
+
+        synchronized void credit(int quantity) {
+            available += quantity;
+            version++;
+        }
+
+        synchronized boolean reseed(int value, long seenVersion) {
+            if (version != seenVersion) {
+                return false;
+            }
+            available = value;
+            return true;
+        }
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+}
@@ -5,7 +5,6 @@ import com.kaddy.exception.ResourceNotFoundException;
 import com.kaddy.model.MedicineOrder;
 import com.kaddy.model.MedicineOrderPayment;
 import com.kaddy.model.enums.PaymentMethod;
-import com.kaddy.model.enums.PaymentStatus;
 import com.kaddy.repository.MedicineOrderPaymentRepository;
 import com.kaddy.repository.MedicineOrderRepository;
 import com.kaddy.security.SecurityUtils;
@@ -38,6 +37,7 @@ public class StripePaymentService {
     private final MedicineOrderRepository orderRepository;
     private final MedicineOrderPaymentRepository paymentRepository;
     private final SecurityUtils securityUtils;
+    private final MedicineOrderService medicineOrderService;
 
     public Map<String, String> createPaymentIntent(Long orderId) throws StripeException {
         log.info("Creating Stripe Payment Intent for order: {}", orderId);
@@ -162,7 +162,7 @@ public class StripePaymentService {
 
         BigDecimal newTotalPaid = totalPaid.add(amountPaid);
         if (newTotalPaid.compareTo(order.getFinalAmount()) >= 0) {
-            order.setPaymentStatus(PaymentStatus.PAID);
+            medicineOrderService.markPaid(order);
             orderRepository.save(order);
         }
 
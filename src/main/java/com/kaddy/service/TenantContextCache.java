@@ -0,0 +1,113 @@
+package com.kaddy.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.kaddy.model.Hospital;
+import com.kaddy.model.enums.HospitalFeature;
+import com.kaddy.model.enums.SubscriptionPlan;
+import com.kaddy.model.enums.SubscriptionStatus;
+import com.kaddy.repository.HospitalRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Per-hospital subscription snapshot used by the feature and subscription gates. An entry never outlives the
+// subscription boundary it was loaded with, so a trial or plan that lapses is re-read at the moment it ends.
+@Component
+@Slf4j
+public class TenantContextCache {
+
+    private final HospitalRepository hospitalRepository;
+    private final LoadingCache<Long, TenantContext> contexts;
+
+    public TenantContextCache(HospitalRepository hospitalRepository, MeterRegistry meterRegistry,
+            @Value("${tenant.context.max-entries:10000}") long maxEntries,
+            @Value("${tenant.context.ttl:PT5M}") Duration ttl) {
+        this.hospitalRepository = hospitalRepository;
+        this.contexts = Caffeine.newBuilder().maximumSize(maxEntries)
+                .expireAfter(Expiry.creating((Long hospitalId, TenantContext context) -> context.timeToLive(ttl)))
+                .recordStats().build(this::load);
+        CaffeineCacheMetrics.monitor(meterRegistry, contexts, "tenantContext");
+    }
+
+    // Returns null when the hospital does not exist; misses are not cached
+    public TenantContext get(Long hospitalId) {
+        return contexts.get(hospitalId);
+    }
+
+    public void invalidate(Long hospitalId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    contexts.invalidate(hospitalId);
+                }
+            });
+        } else {
+            contexts.invalidate(hospitalId);
+        }
+    }
+
+    private TenantContext load(Long hospitalId) {
+        return hospitalRepository.findById(hospitalId).map(TenantContext::from).orElse(null);
+    }
+
+    public record TenantContext(Long hospitalId, SubscriptionPlan plan, SubscriptionStatus status,
+            LocalDateTime activeUntil, int maxUsers, int features) {
+
+        static TenantContext from(Hospital hospital) {
+            LocalDateTime activeUntil = hospital.getSubscriptionPlan() == SubscriptionPlan.TRIAL
+                    ? hospital.getTrialEndDate()
+                    : hospital.getSubscriptionEndDate();
+
+            int features = 0;
+            if (Boolean.TRUE.equals(hospital.getAiEnabled())) {
+                features |= HospitalFeature.AI.mask();
+            }
+            if (Boolean.TRUE.equals(hospital.getFhirEnabled())) {
+                features |= HospitalFeature.FHIR.mask();
+            }
+            if (Boolean.TRUE.equals(hospital.getBedManagementEnabled())) {
+                features |= HospitalFeature.BED_MANAGEMENT.mask();
+            }
+
+            return new TenantContext(hospital.getId(), hospital.getSubscriptionPlan(),
+                    hospital.getSubscriptionStatus(), activeUntil, hospital.getMaxUsers(), features);
+        }
+
+        // Mirrors Hospital.isSubscriptionActive
+        public boolean isSubscriptionActive() {
+            boolean withinPeriod = activeUntil == null || LocalDateTime.now().isBefore(activeUntil);
+            if (plan == SubscriptionPlan.TRIAL) {
+                return withinPeriod;
+            }
+            return status == SubscriptionStatus.ACTIVE && withinPeriod;
+        }
+
+        public boolean hasFeature(HospitalFeature feature) {
+            return (features & feature.mask()) != 0;
+        }
+
+        public boolean hasUnlimitedUsers() {
+            return maxUsers == -1;
+        }
+
+        Duration timeToLive(Duration ttl) {
+            if (activeUntil != null) {
+                Duration untilBoundary = Duration.between(LocalDateTime.now(), activeUntil);
+                if (!untilBoundary.isNegative() && untilBoundary.compareTo(ttl) < 0) {
+                    return untilBoundary;
+                }
+            }
+            return ttl;
+        }
+    }
+}
@@ -5,6 +5,8 @@ import com.kaddy.exception.ResourceNotFoundException;
 import com.kaddy.functional.FunctionalUtils;
 import com.kaddy.model.Medication;
 import com.kaddy.repository.MedicationRepository;
+import com.kaddy.service.FanOut;
+import com.kaddy.service.StockReservationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
@@ -18,6 +20,7 @@ import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,6 +32,8 @@ public class AsyncMedicationService {
     private final ModelMapper modelMapper;
     private final Executor taskExecutor;
     private final Executor batchExecutor;
+    private final FanOut fanOut;
+    private final StockReservationService stockReservationService;
 
     @Async("taskExecutor")
     public CompletableFuture<List<MedicationDTO>> getAllMedicationsAsync() {
@@ -42,87 +47,56 @@ public class AsyncMedicationService {
     public CompletableFuture<InventoryAlerts> getInventoryAlertsAsync() {
         log.info("Async: Calculating inventory alerts");
 
-        return CompletableFuture.supplyAsync(() -> {
-            List<Medication> allMedications = medicationRepository.findAll();
-
-            CompletableFuture<List<MedicationDTO>> lowStockFuture = CompletableFuture
-                    .supplyAsync(() -> filterMedications(allMedications, Medication::isLowStock), taskExecutor);
-
-            CompletableFuture<List<MedicationDTO>> expiredFuture = CompletableFuture
-                    .supplyAsync(() -> filterMedications(allMedications, Medication::isExpired), taskExecutor);
-
-            CompletableFuture<List<MedicationDTO>> expiringSoonFuture = CompletableFuture
-                    .supplyAsync(() -> filterMedications(allMedications, Medication::isExpiringSoon), taskExecutor);
-
-            CompletableFuture.allOf(lowStockFuture, expiredFuture, expiringSoonFuture).join();
-
-            return new InventoryAlerts(lowStockFuture.join(), expiredFuture.join(), expiringSoonFuture.join());
-        }, taskExecutor);
+        return CompletableFuture.supplyAsync(this::buildInventoryAlerts, taskExecutor);
     }
 
+    // Low-priority work runs entirely on its own pool: hopping onto taskExecutor would queue batch rows and report
+    // builds ahead of patient-facing calls, and only the calling thread takes part in the @Transactional
     @Async("batchExecutor")
     @Transactional
     public CompletableFuture<List<MedicationDTO>> batchUpdateStockAsync(Map<Long, Integer> stockUpdates) {
 
         log.info("Async: Batch updating stock for {} medications", stockUpdates.size());
 
-        return CompletableFuture.supplyAsync(() -> {
-            List<CompletableFuture<MedicationDTO>> updateFutures = stockUpdates.entrySet().stream()
-                    .map(entry -> updateStockAsync(entry.getKey(), entry.getValue())).collect(Collectors.toList());
-
-            return FunctionalUtils.waitAll(updateFutures).join();
-        }, batchExecutor);
+        return CompletableFuture.completedFuture(stockUpdates.entrySet().stream()
+                .map(entry -> updateStock(entry.getKey(), entry.getValue())).collect(Collectors.toList()));
     }
 
-    private CompletableFuture<MedicationDTO> updateStockAsync(Long id, Integer quantity) {
-        return CompletableFuture.supplyAsync(() -> {
-            Medication medication = medicationRepository.findById(id)
-                    .orElseThrow(() -> new ResourceNotFoundException("Medication not found with ID: " + id));
+    private MedicationDTO updateStock(Long id, Integer quantity) {
+        Medication medication = medicationRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Medication not found with ID: " + id));
 
-            medication.setStockQuantity(medication.getStockQuantity() + quantity);
-            Medication updated = medicationRepository.save(medication);
+        medication.setStockQuantity(medication.getStockQuantity() + quantity);
+        Medication updated = medicationRepository.save(medication);
+        stockReservationService.invalidate(id);
 
-            log.debug("Stock updated for medication {}: {} -> {}", id, medication.getStockQuantity() - quantity,
-                    medication.getStockQuantity());
+        log.debug("Stock updated for medication {}: {} -> {}", id, medication.getStockQuantity() - quantity,
+                medication.getStockQuantity());
 
-            return convertToDTO(updated);
-        }, taskExecutor);
+        return convertToDTO(updated);
     }
 
     @Async("reportExecutor")
     public CompletableFuture<MedicationReport> generateReportAsync() {
         log.info("Async: Generating medication report");
 
-        return CompletableFuture.supplyAsync(() -> {
-            List<Medication> allMedications = medicationRepository.findAll();
-
-            CompletableFuture<Long> totalMedicationsFuture = CompletableFuture
-                    .supplyAsync(() -> (long) allMedications.size(), taskExecutor);
-
-            CompletableFuture<Long> activeMedicationsFuture = CompletableFuture.supplyAsync(
-                    () -> allMedications.parallelStream().filter(Medication::getActive).count(), taskExecutor);
-
-            CompletableFuture<Integer> totalStockFuture = CompletableFuture.supplyAsync(
-                    () -> allMedications.parallelStream().mapToInt(Medication::getStockQuantity).sum(), taskExecutor);
-
-            CompletableFuture<Map<String, Long>> categoryDistFuture = CompletableFuture.supplyAsync(
-                    () -> allMedications.parallelStream()
-                            .collect(Collectors.groupingByConcurrent(Medication::getCategory, Collectors.counting())),
-                    taskExecutor);
-
-            CompletableFuture<Long> lowStockCountFuture = CompletableFuture.supplyAsync(
-                    () -> allMedications.parallelStream().filter(Medication::isLowStock).count(), taskExecutor);
-
-            CompletableFuture<Long> expiredCountFuture = CompletableFuture.supplyAsync(
-                    () -> allMedications.parallelStream().filter(Medication::isExpired).count(), taskExecutor);
-
-            CompletableFuture.allOf(totalMedicationsFuture, activeMedicationsFuture, totalStockFuture,
-                    categoryDistFuture, lowStockCountFuture, expiredCountFuture).join();
+        return CompletableFuture.completedFuture(buildReport());
+    }
 
-            return new MedicationReport(totalMedicationsFuture.join(), activeMedicationsFuture.join(),
-                    totalStockFuture.join(), categoryDistFuture.join(), lowStockCountFuture.join(),
-                    expiredCountFuture.join(), LocalDate.now());
-        }, taskExecutor);
+    // The three parts read the repository independently, so they run as one fan-out with a shared deadline instead of
+    // three @Async calls whose futures each forked more tasks onto the pool they were running on
+    @Async("reportExecutor")
+    public CompletableFuture<CombinedInventoryReport> generateCombinedReportAsync() {
+        log.info("Async: Generating combined inventory report");
+
+        try (FanOut.Scope scope = fanOut.open()) {
+            Supplier<MedicationReport> report = scope.fork(this::buildReport);
+            Supplier<InventoryAlerts> alerts = scope.fork(this::buildInventoryAlerts);
+            Supplier<List<ReorderSuggestion>> reorderSuggestions = scope.fork(this::buildReorderSuggestions);
+            scope.join();
+            return CompletableFuture
+                    .completedFuture(new CombinedInventoryReport(report.get(), alerts.get(), reorderSuggestions.get()));
+        }
     }
 
     @Async("taskExecutor")
@@ -200,19 +174,37 @@ public class AsyncMedicationService {
     public CompletableFuture<List<ReorderSuggestion>> generateReorderSuggestionsAsync() {
         log.info("Async: Generating reorder suggestions");
 
-        return CompletableFuture.supplyAsync(() -> {
-            List<Medication> lowStockMeds = medicationRepository.findLowStockMedications();
+        return CompletableFuture.completedFuture(buildReorderSuggestions());
+    }
 
-            return lowStockMeds.parallelStream()
-                    .map(med -> new ReorderSuggestion(med.getId(), med.getName(), med.getMedicationCode(),
-                            med.getStockQuantity(), med.getReorderLevel(), med.getReorderQuantity(),
-                            med.getUnitPrice().multiply(java.math.BigDecimal.valueOf(med.getReorderQuantity()))))
-                    .collect(Collectors.toList());
-        }, taskExecutor);
+    // The list is already in memory, so its filters and counts run inline rather than as tasks on the pool
+    private InventoryAlerts buildInventoryAlerts() {
+        List<Medication> allMedications = medicationRepository.findAll();
+        return new InventoryAlerts(filterMedications(allMedications, Medication::isLowStock),
+                filterMedications(allMedications, Medication::isExpired),
+                filterMedications(allMedications, Medication::isExpiringSoon));
+    }
+
+    private MedicationReport buildReport() {
+        List<Medication> allMedications = medicationRepository.findAll();
+        return new MedicationReport(allMedications.size(),
+                allMedications.stream().filter(Medication::getActive).count(),
+                allMedications.stream().mapToInt(Medication::getStockQuantity).sum(),
+                allMedications.stream().collect(Collectors.groupingBy(Medication::getCategory, Collectors.counting())),
+                allMedications.stream().filter(Medication::isLowStock).count(),
+                allMedications.stream().filter(Medication::isExpired).count(), LocalDate.now());
+    }
+
+    private List<ReorderSuggestion> buildReorderSuggestions() {
+        return medicationRepository.findLowStockMedications().stream()
+                .map(med -> new ReorderSuggestion(med.getId(), med.getName(), med.getMedicationCode(),
+                        med.getStockQuantity(), med.getReorderLevel(), med.getReorderQuantity(),
+                        med.getUnitPrice().multiply(java.math.BigDecimal.valueOf(med.getReorderQuantity()))))
+                .collect(Collectors.toList());
     }
 
     private List<MedicationDTO> filterMedications(List<Medication> medications, Predicate<Medication> filter) {
-        return medications.parallelStream().filter(filter).map(this::convertToDTO).collect(Collectors.toList());
+        return medications.stream().filter(filter).map(this::convertToDTO).collect(Collectors.toList());
     }
 
     private MedicationDTO convertToDTO(Medication medication) {
@@ -235,6 +227,10 @@ public class AsyncMedicationService {
             Map<String, Long> categoryDistribution, long lowStockCount, long expiredCount, LocalDate generatedDate) {
     }
 
+    public record CombinedInventoryReport(MedicationReport report, InventoryAlerts alerts,
+            List<ReorderSuggestion> reorderSuggestions) {
+    }
+
     public record BulkImportResult(int successCount, int failureCount, List<String> errors) {
     }
 
@@ -46,24 +46,25 @@ public class AsyncPatientService {
                 taskExecutor);
     }
 
+    // Low-priority work runs entirely on its own pool: hopping onto taskExecutor would queue batch rows ahead of
+    // patient-facing calls, and only the calling thread takes part in the @Transactional
     @Async("batchExecutor")
     @Transactional
     public CompletableFuture<List<PatientDTO>> createPatientsAsync(List<PatientDTO> patientDTOs) {
         log.info("Async: Creating {} patients", patientDTOs.size());
 
-        return CompletableFuture.supplyAsync(() -> {
-            List<Patient> patients = patientDTOs.parallelStream().peek(dto -> {
-                if (patientRepository.existsByPatientId(dto.getPatientId())) {
-                    throw new IllegalArgumentException("Patient with ID " + dto.getPatientId() + " already exists");
-                }
-            }).map(this::convertToEntity).collect(Collectors.toList());
+        List<Patient> patients = patientDTOs.stream().peek(dto -> {
+            if (patientRepository.existsByPatientId(dto.getPatientId())) {
+                throw new IllegalArgumentException("Patient with ID " + dto.getPatientId() + " already exists");
+            }
+        }).map(this::convertToEntity).collect(Collectors.toList());
 
-            List<Patient> savedPatients = patientRepository.saveAll(patients);
+        List<Patient> savedPatients = patientRepository.saveAll(patients);
 
-            log.info("Successfully created {} patients", savedPatients.size());
+        log.info("Successfully created {} patients", savedPatients.size());
 
-            return savedPatients.stream().map(this::convertToDTO).collect(Collectors.toList());
-        }, taskExecutor);
+        return CompletableFuture
+                .completedFuture(savedPatients.stream().map(this::convertToDTO).collect(Collectors.toList()));
     }
 
     @Async("taskExecutor")
@@ -86,26 +87,20 @@ public class AsyncPatientService {
     public CompletableFuture<List<PatientDTO>> updatePatientsAsync(List<PatientDTO> updates) {
         log.info("Async: Updating {} patients", updates.size());
 
-        return CompletableFuture.supplyAsync(() -> {
-            List<CompletableFuture<PatientDTO>> updateFutures = updates.stream()
-                    .map(dto -> updatePatientAsync(dto.getId(), dto)).collect(Collectors.toList());
-
-            return FunctionalUtils.waitAll(updateFutures).join();
-        }, taskExecutor);
+        return CompletableFuture.completedFuture(
+                updates.stream().map(dto -> updatePatient(dto.getId(), dto)).collect(Collectors.toList()));
     }
 
-    private CompletableFuture<PatientDTO> updatePatientAsync(Long id, PatientDTO patientDTO) {
-        return CompletableFuture.supplyAsync(() -> {
-            Patient existingPatient = patientRepository.findById(id)
-                    .orElseThrow(() -> new ResourceNotFoundException("Patient not found with ID: " + id));
+    private PatientDTO updatePatient(Long id, PatientDTO patientDTO) {
+        Patient existingPatient = patientRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Patient not found with ID: " + id));
 
-            updatePatientFields(existingPatient, patientDTO);
+        updatePatientFields(existingPatient, patientDTO);
 
-            Patient updatedPatient = patientRepository.save(existingPatient);
-            log.debug("Patient {} updated successfully", id);
+        Patient updatedPatient = patientRepository.save(existingPatient);
+        log.debug("Patient {} updated successfully", id);
 
-            return convertToDTO(updatedPatient);
-        }, taskExecutor);
+        return convertToDTO(updatedPatient);
     }
 
     @Async("taskExecutor")
@@ -134,15 +129,14 @@ public class AsyncPatientService {
 
         log.info("Async: Batch processing {} patients", patientIds.size());
 
-        return CompletableFuture.runAsync(() -> {
-            FunctionalUtils.partitionList(patientIds, 100).parallelStream().forEach(batch -> {
-                List<Patient> patients = patientRepository.findAllById(batch);
-                patients.forEach(operation);
-                patientRepository.saveAll(patients);
-            });
+        FunctionalUtils.partitionList(patientIds, 100).forEach(batch -> {
+            List<Patient> patients = patientRepository.findAllById(batch);
+            patients.forEach(operation);
+            patientRepository.saveAll(patients);
+        });
 
-            log.info("Batch processing completed for {} patients", patientIds.size());
-        }, taskExecutor);
+        log.info("Batch processing completed for {} patients", patientIds.size());
+        return CompletableFuture.completedFuture(null);
     }
 
     private void updatePatientFields(Patient existingPatient, PatientDTO patientDTO) {
@@ -0,0 +1,40 @@
+package com.kaddy.service.batch;
+
+import com.kaddy.model.BatchJob;
+
+import java.util.List;
+
+// A kind of job the engine can run and resume. Items are read in a stable order after a cursor, and the engine
+// commits each chunk's work together with the cursor of its last item, so a restarted job continues with the next
+// uncommitted chunk. When a chunk fails as a whole its items are retried one transaction each and the failures are
+// recorded, so process() should be safe to repeat for an item. Items outlive the transaction that read them in that
+// case, so they should carry ids or plain values rather than managed entities.
+public interface BatchJobHandler<T> {
+
+    String getJobType();
+
+    // Items after the cursor (null for the first chunk), at most chunkSize, in cursor order
+    List<T> readChunk(BatchJob job, String afterCursor, int chunkSize);
+
+    String cursorOf(T item);
+
+    void process(BatchJob job, T item);
+
+    // Runs inside the chunk's transaction. Handlers that can work set-wise override this; the messages returned are
+    // recorded as failed items without rolling the chunk back, while an exception rolls it back for per-item retry.
+    default List<String> processChunk(BatchJob job, List<T> items) {
+        for (T item : items) {
+            process(job, item);
+        }
+        return List.of();
+    }
+
+    // How an item is named in error messages
+    default String describe(T item) {
+        return cursorOf(item);
+    }
+
+    default Long countItems(BatchJob job) {
+        return null;
+    }
+}
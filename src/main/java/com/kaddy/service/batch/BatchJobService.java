@@ -0,0 +1,473 @@
+package com.kaddy.service.batch;
+
+import com.kaddy.model.BatchJob;
+import com.kaddy.model.BatchJobChunk;
+import com.kaddy.model.enums.BatchJobStatus;
+import com.kaddy.repository.BatchJobChunkRepository;
+import com.kaddy.repository.BatchJobRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Runs BatchJobHandler jobs on the dedicated job executor with their state in batch_jobs and batch_job_chunks. Each
+// chunk is read, processed and recorded in one transaction that also advances the job's cursor under a lock on the job
+// row, so progress survives a crash exactly up to the last committed chunk. Jobs are claimed with a conditional update
+// and kept alive by the heartbeat each chunk writes; a job whose node stops heartbeating is taken over by the next
+// node that polls, and a node shutting down hands its jobs back straight away.
+@Service
+@Slf4j
+public class BatchJobService {
+
+    private static final int MIN_CHUNK_SIZE = 10;
+
+    private final BatchJobRepository batchJobRepository;
+    private final BatchJobChunkRepository chunkRepository;
+    private final Map<String, BatchJobHandler<?>> handlers = new HashMap<>();
+    private final TransactionTemplate transactionTemplate;
+    private final Executor jobExecutor;
+    private final int workerThreads;
+    private final int defaultChunkSize;
+    private final Duration staleAfter;
+    private final Duration targetChunkDuration;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Set<Long> runningJobs = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock dispatchLock = new ReentrantLock();
+    private volatile boolean stopping;
+
+    public BatchJobService(BatchJobRepository batchJobRepository, BatchJobChunkRepository chunkRepository,
+            ObjectProvider<BatchJobHandler<?>> handlers, PlatformTransactionManager transactionManager,
+            @Qualifier("jobExecutor") Executor jobExecutor,
+            @Value("${batch-jobs.worker-threads:4}") int workerThreads,
+            @Value("${batch-jobs.default-chunk-size:500}") int defaultChunkSize,
+            @Value("${batch-jobs.stale-after:PT10M}") Duration staleAfter,
+            @Value("${batch-jobs.target-chunk-duration:PT5S}") Duration targetChunkDuration) {
+        this.batchJobRepository = batchJobRepository;
+        this.chunkRepository = chunkRepository;
+        this.jobExecutor = jobExecutor;
+        this.workerThreads = workerThreads;
+        this.defaultChunkSize = defaultChunkSize;
+        this.staleAfter = staleAfter;
+        this.targetChunkDuration = targetChunkDuration;
+        // Every engine transaction stands alone, including the dispatch that runs after a submitting transaction
+        // commits while its resources are still bound to the thread
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        handlers.orderedStream().forEach(handler -> this.handlers.put(handler.getJobType(), handler));
+    }
+
+    public BatchJob submit(String jobType, Long hospitalId, Map<String, String> parameters, Integer chunkSize,
+            Long userId) {
+        if (!handlers.containsKey(jobType)) {
+            throw new IllegalArgumentException("Unknown batch job type: " + jobType);
+        }
+        if (chunkSize != null && chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+
+        BatchJob job = new BatchJob();
+        job.setJobType(jobType);
+        job.setHospitalId(hospitalId);
+        job.setSubmittedBy(userId);
+        job.setParameters(parameters != null ? new HashMap<>(parameters) : new HashMap<>());
+        job.setChunkSize(chunkSize != null ? chunkSize : defaultChunkSize);
+        job.setStatus(BatchJobStatus.PENDING);
+        BatchJob saved = transactionTemplate.execute(status -> batchJobRepository.save(job));
+
+        log.info("Submitted batch job {} of type {} for hospital {}", saved.getId(), jobType, hospitalId);
+        afterCommit(this::dispatch);
+        return saved;
+    }
+
+    public JobStatus getJob(Long hospitalId, Long jobId) {
+        return JobStatus.of(findJob(hospitalId, jobId));
+    }
+
+    public Page<JobStatus> getJobs(Long hospitalId, BatchJobStatus status, Pageable pageable) {
+        Page<BatchJob> jobs = status != null
+                ? batchJobRepository.findByHospitalIdAndStatusOrderByCreatedAtDesc(hospitalId, status, pageable)
+                : batchJobRepository.findByHospitalIdOrderByCreatedAtDesc(hospitalId, pageable);
+        return jobs.map(JobStatus::of);
+    }
+
+    public Page<ChunkStatus> getChunks(Long hospitalId, Long jobId, Pageable pageable) {
+        findJob(hospitalId, jobId);
+        return chunkRepository.findByBatchJobIdOrderByChunkNumberDesc(jobId, pageable).map(ChunkStatus::of);
+    }
+
+    // A pending job is cancelled at once; a running one stops at its next chunk boundary
+    public JobStatus cancel(Long hospitalId, Long jobId) {
+        findJob(hospitalId, jobId);
+        return transactionTemplate.execute(status -> {
+            BatchJob job = batchJobRepository.findByIdForUpdate(jobId)
+                    .orElseThrow(() -> new EntityNotFoundException("Batch job not found"));
+            switch (job.getStatus()) {
+                case PENDING -> {
+                    job.setStatus(BatchJobStatus.CANCELLED);
+                    job.setCompletedAt(LocalDateTime.now());
+                }
+                case RUNNING -> job.setCancelRequested(true);
+                default -> throw new IllegalStateException("Batch job is already " + job.getStatus());
+            }
+            log.info("Cancellation requested for batch job {}", jobId);
+            return JobStatus.of(job);
+        });
+    }
+
+    // Resumes a failed or cancelled job from the chunk after its last committed one
+    public JobStatus restart(Long hospitalId, Long jobId) {
+        findJob(hospitalId, jobId);
+        JobStatus restarted = transactionTemplate.execute(status -> {
+            BatchJob job = batchJobRepository.findByIdForUpdate(jobId)
+                    .orElseThrow(() -> new EntityNotFoundException("Batch job not found"));
+            if (job.getStatus() != BatchJobStatus.FAILED && job.getStatus() != BatchJobStatus.CANCELLED) {
+                throw new IllegalStateException("Only failed or cancelled jobs can be restarted");
+            }
+            job.setStatus(BatchJobStatus.PENDING);
+            job.setCancelRequested(false);
+            job.setWorkerNode(null);
+            job.setCompletedAt(null);
+            job.setLastError(null);
+            log.info("Restarting batch job {} after chunk {}", jobId, job.getChunksCommitted());
+            return JobStatus.of(job);
+        });
+        dispatch();
+        return restarted;
+    }
+
+    @Scheduled(fixedDelayString = "${batch-jobs.poll-interval:PT10S}")
+    public void dispatch() {
+        // Callers on virtual threads would pin their carrier waiting on a monitor held across these queries
+        dispatchLock.lock();
+        try {
+            claimAndRun();
+        } finally {
+            dispatchLock.unlock();
+        }
+    }
+
+    private void claimAndRun() {
+        int free = workerThreads - runningJobs.size();
+        if (stopping || free <= 0) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime staleBefore = now.minus(staleAfter);
+        List<Long> claimable = transactionTemplate
+                .execute(status -> batchJobRepository.findClaimableIds(staleBefore, PageRequest.of(0, free)));
+        for (Long jobId : claimable) {
+            Integer claimed = transactionTemplate
+                    .execute(status -> batchJobRepository.claim(jobId, nodeId, now, staleBefore));
+            if (claimed == null || claimed == 0) {
+                continue;
+            }
+            runningJobs.add(jobId);
+            try {
+                jobExecutor.execute(() -> run(jobId));
+            } catch (TaskRejectedException e) {
+                runningJobs.remove(jobId);
+                handBack(jobId);
+            }
+        }
+    }
+
+    // Stops every job at its next chunk boundary and returns whatever is still held to the pending queue
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+        int released = transactionTemplate.execute(status -> batchJobRepository.release(nodeId));
+        if (released > 0) {
+            log.info("Handed {} running batch jobs back for another node to resume", released);
+        }
+    }
+
+    private void run(Long jobId) {
+        try {
+            BatchJob job = transactionTemplate.execute(status -> batchJobRepository.findById(jobId).orElseThrow());
+            BatchJobHandler<?> handler = handlers.get(job.getJobType());
+            if (handler == null) {
+                fail(jobId, "No handler registered for job type " + job.getJobType());
+                return;
+            }
+            execute(jobId, handler);
+        } catch (RuntimeException e) {
+            log.error("Batch job {} failed", jobId, e);
+            fail(jobId, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        } finally {
+            runningJobs.remove(jobId);
+        }
+    }
+
+    private <T> void execute(Long jobId, BatchJobHandler<T> handler) {
+        transactionTemplate.executeWithoutResult(status -> {
+            BatchJob job = lockOwned(jobId);
+            if (job != null && job.getTotalCount() == null) {
+                job.setTotalCount(handler.countItems(job));
+            }
+        });
+
+        // Chunks shrink while commits run longer than the target and grow back towards the job's chunk size once
+        // they are fast again, so a loaded database slows the job down instead of the job holding long transactions
+        int configuredSize = transactionTemplate.execute(status -> batchJobRepository.findById(jobId).orElseThrow())
+                .getChunkSize();
+        int chunkSize = configuredSize;
+        boolean more = true;
+        while (more) {
+            if (stopping) {
+                handBack(jobId);
+                return;
+            }
+            int size = chunkSize;
+            long started = System.currentTimeMillis();
+            try {
+                more = Boolean.TRUE.equals(transactionTemplate.execute(status -> runChunk(jobId, handler, size)));
+            } catch (RuntimeException e) {
+                log.warn("Chunk of batch job {} failed, retrying its items one at a time: {}", jobId, e.getMessage());
+                more = retryPerItem(jobId, handler, size);
+            }
+
+            chunkSize = nextChunkSize(chunkSize, configuredSize, System.currentTimeMillis() - started,
+                    targetChunkDuration.toMillis());
+        }
+    }
+
+    // Never below the floor, nor above the job's own chunk size even when that is smaller than the floor
+    static int nextChunkSize(int chunkSize, int configuredSize, long elapsedMillis, long targetMillis) {
+        if (elapsedMillis > targetMillis) {
+            return Math.max(Math.min(MIN_CHUNK_SIZE, configuredSize), chunkSize / 2);
+        }
+        if (elapsedMillis < targetMillis / 4) {
+            return Math.min(configuredSize, chunkSize * 2);
+        }
+        return chunkSize;
+    }
+
+    private <T> boolean runChunk(Long jobId, BatchJobHandler<T> handler, int chunkSize) {
+        long started = System.currentTimeMillis();
+        BatchJob job = lockOwned(jobId);
+        if (job == null) {
+            return false;
+        }
+        if (Boolean.TRUE.equals(job.getCancelRequested())) {
+            finish(job, BatchJobStatus.CANCELLED);
+            return false;
+        }
+
+        List<T> items = handler.readChunk(job, job.getLastCursor(), chunkSize);
+        if (items.isEmpty()) {
+            finish(job, BatchJobStatus.COMPLETED);
+            return false;
+        }
+        commitChunk(job, null, items, handler, handler.processChunk(job, items), false, started);
+        return true;
+    }
+
+    // Gives each item of a failed chunk its own transaction and records the ones that still fail. Every item commits
+    // the job's cursor and heartbeat with it, so a crash resumes at the next item rather than the chunk's start. An
+    // item that throws is recorded with the next item that commits; if every item throws the cause is not the data,
+    // so nothing is committed and the job fails instead and can be restarted from this chunk.
+    private <T> boolean retryPerItem(Long jobId, BatchJobHandler<T> handler, int chunkSize) {
+        long started = System.currentTimeMillis();
+        BatchJob job = transactionTemplate.execute(status -> batchJobRepository.findById(jobId).orElseThrow());
+        if (job.getStatus() != BatchJobStatus.RUNNING || !nodeId.equals(job.getWorkerNode())) {
+            return false;
+        }
+        List<T> items = transactionTemplate
+                .execute(status -> handler.readChunk(job, job.getLastCursor(), chunkSize));
+        if (items.isEmpty()) {
+            return true;
+        }
+
+        Long chunkId = null;
+        List<T> thrownItems = new ArrayList<>();
+        List<String> thrownErrors = new ArrayList<>();
+        for (T item : items) {
+            if (stopping) {
+                return true;
+            }
+            Long committedChunkId = chunkId;
+            try {
+                chunkId = transactionTemplate.execute(status -> {
+                    BatchJob locked = lockOwned(jobId);
+                    if (locked == null) {
+                        return null;
+                    }
+                    List<String> errors = new ArrayList<>(thrownErrors);
+                    errors.addAll(handler.processChunk(locked, List.of(item)));
+                    List<T> committed = new ArrayList<>(thrownItems);
+                    committed.add(item);
+                    return commitChunk(locked, committedChunkId, committed, handler, errors, true, started);
+                });
+            } catch (RuntimeException e) {
+                thrownItems.add(item);
+                thrownErrors.add(handler.describe(item) + ": " + e.getMessage());
+                continue;
+            }
+            if (chunkId == null) {
+                return false;
+            }
+            thrownItems.clear();
+            thrownErrors.clear();
+        }
+        if (thrownItems.size() == items.size()) {
+            throw new IllegalStateException("Every item in chunk " + (job.getChunksCommitted() + 1) + " failed, first: "
+                    + thrownErrors.get(0));
+        }
+        if (thrownItems.isEmpty()) {
+            return true;
+        }
+
+        Long committedChunkId = chunkId;
+        return transactionTemplate.execute(status -> {
+            BatchJob locked = lockOwned(jobId);
+            if (locked == null) {
+                return null;
+            }
+            return commitChunk(locked, committedChunkId, thrownItems, handler, thrownErrors, true, started);
+        }) != null;
+    }
+
+    // Records items as committed: a new chunk row when chunkId is null, otherwise the items extend that chunk, as each
+    // item of a chunk retried per item does
+    private <T> Long commitChunk(BatchJob job, Long chunkId, List<T> items, BatchJobHandler<T> handler,
+            List<String> errors, boolean retriedPerItem, long started) {
+        BatchJobChunk chunk;
+        if (chunkId == null) {
+            chunk = new BatchJobChunk();
+            chunk.setBatchJob(job);
+            chunk.setChunkNumber(job.getChunksCommitted() + 1);
+            chunk.setStartCursor(job.getLastCursor());
+            chunk.setItemCount(0);
+            chunk.setRetriedPerItem(retriedPerItem);
+        } else {
+            chunk = chunkRepository.findById(chunkId).orElseThrow();
+        }
+        List<String> chunkErrors = new ArrayList<>(chunk.getErrors());
+        chunkErrors.addAll(errors);
+        chunk.setEndCursor(handler.cursorOf(items.get(items.size() - 1)));
+        chunk.setItemCount(chunk.getItemCount() + items.size());
+        chunk.setFailedCount(chunkErrors.size());
+        chunk.setErrors(chunkErrors);
+        chunk.setDurationMs(System.currentTimeMillis() - started);
+        chunk = chunkRepository.save(chunk);
+
+        job.setLastCursor(chunk.getEndCursor());
+        job.setChunksCommitted(chunk.getChunkNumber());
+        job.setProcessedCount(job.getProcessedCount() + items.size() - errors.size());
+        job.setFailedCount(job.getFailedCount() + errors.size());
+        job.setHeartbeatAt(LocalDateTime.now());
+        log.debug("Batch job {} committed chunk {} ({} items, {} failed)", job.getId(), chunk.getChunkNumber(),
+                chunk.getItemCount(), chunk.getFailedCount());
+        return chunk.getId();
+    }
+
+    // The job row locked for this chunk, or null when the job was cancelled, failed or taken over meanwhile
+    private BatchJob lockOwned(Long jobId) {
+        BatchJob job = batchJobRepository.findByIdForUpdate(jobId).orElse(null);
+        return job != null && job.getStatus() == BatchJobStatus.RUNNING && nodeId.equals(job.getWorkerNode())
+                ? job
+                : null;
+    }
+
+    private void finish(BatchJob job, BatchJobStatus status) {
+        job.setStatus(status);
+        job.setCompletedAt(LocalDateTime.now());
+        job.setHeartbeatAt(job.getCompletedAt());
+        log.info("Batch job {} {}: {} processed, {} failed in {} chunks", job.getId(), status, job.getProcessedCount(),
+                job.getFailedCount(), job.getChunksCommitted());
+    }
+
+    private void fail(Long jobId, String error) {
+        transactionTemplate.executeWithoutResult(status -> {
+            BatchJob job = lockOwned(jobId);
+            if (job != null) {
+                job.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+                finish(job, BatchJobStatus.FAILED);
+            }
+        });
+    }
+
+    private void handBack(Long jobId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            BatchJob job = lockOwned(jobId);
+            if (job != null) {
+                job.setStatus(BatchJobStatus.PENDING);
+                job.setWorkerNode(null);
+            }
+        });
+    }
+
+    private BatchJob findJob(Long hospitalId, Long jobId) {
+        return batchJobRepository.findById(jobId).filter(job -> hospitalId.equals(job.getHospitalId()))
+                .orElseThrow(() -> new EntityNotFoundException("Batch job not found"));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    public record JobStatus(Long id, String jobType, BatchJobStatus status, Map<String, String> parameters,
+            int chunkSize, int chunksCommitted, long processedCount, long failedCount, Long totalCount,
+            Double progressPercentage, boolean cancelRequested, String lastCursor, LocalDateTime createdAt,
+            LocalDateTime startedAt, LocalDateTime heartbeatAt, LocalDateTime completedAt, String lastError) {
+
+        static JobStatus of(BatchJob job) {
+            long done = job.getProcessedCount() + job.getFailedCount();
+            Double progress = job.getStatus() == BatchJobStatus.COMPLETED ? Double.valueOf(100.0)
+                    : job.getTotalCount() != null && job.getTotalCount() > 0
+                            ? Math.min(100.0, done * 100.0 / job.getTotalCount())
+                            : null;
+            return new JobStatus(job.getId(), job.getJobType(), job.getStatus(), job.getParameters(),
+                    job.getChunkSize(), job.getChunksCommitted(), job.getProcessedCount(), job.getFailedCount(),
+                    job.getTotalCount(), progress, Boolean.TRUE.equals(job.getCancelRequested()), job.getLastCursor(),
+                    job.getCreatedAt(), job.getStartedAt(), job.getHeartbeatAt(), job.getCompletedAt(),
+                    job.getLastError());
+        }
+    }
+
+    public record ChunkStatus(int chunkNumber, String startCursor, String endCursor, int itemCount, int failedCount,
+            boolean retriedPerItem, long durationMs, LocalDateTime committedAt, List<String> errors) {
+
+        static ChunkStatus of(BatchJobChunk chunk) {
+            return new ChunkStatus(chunk.getChunkNumber(), chunk.getStartCursor(), chunk.getEndCursor(),
+                    chunk.getItemCount(), chunk.getFailedCount(), Boolean.TRUE.equals(chunk.getRetriedPerItem()),
+                    chunk.getDurationMs(), chunk.getCreatedAt(), chunk.getErrors());
+        }
+    }
+}
@@ -3,17 +3,18 @@ package com.kaddy.service.batch;
 import com.kaddy.functional.FunctionalUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
+// In-memory fan-out for short lists already held by the caller: each batch runs as its own task on batchExecutor and
+// keeps its results and errors local, and the batches are combined in input order once all have finished. Work that
+// must survive a restart, report progress or be cancelled belongs in a BatchJobHandler run by BatchJobService.
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -21,179 +22,67 @@ public class BatchProcessingService {
 
     private final Executor batchExecutor;
 
-    @Async("batchExecutor")
     public <T, R> CompletableFuture<BatchResult<R>> processBatch(List<T> items, Function<T, R> processor,
             int batchSize) {
-
         log.info("Starting batch processing for {} items with batch size {}", items.size(), batchSize);
-
-        return CompletableFuture.supplyAsync(() -> {
-            List<R> results = new ArrayList<>();
-            List<BatchError> errors = new ArrayList<>();
-            AtomicInteger processedCount = new AtomicInteger(0);
-
-            List<List<T>> batches = FunctionalUtils.partitionList(items, batchSize);
-
-            batches.parallelStream().forEach(batch -> {
-                try {
-                    List<R> batchResults = batch.stream().map(item -> {
-                        try {
-                            R result = processor.apply(item);
-                            processedCount.incrementAndGet();
-                            return result;
-                        } catch (Exception e) {
-                            errors.add(new BatchError(item.toString(), e.getMessage()));
-                            log.error("Error processing item: {}", item, e);
-                            return null;
-                        }
-                    }).filter(java.util.Objects::nonNull).toList();
-
-                    synchronized (results) {
-                        results.addAll(batchResults);
-                    }
-
-                    log.debug("Processed batch of {} items", batch.size());
-                } catch (Exception e) {
-                    log.error("Error processing batch", e);
-                    batch.forEach(item -> errors
-                            .add(new BatchError(item.toString(), "Batch processing failed: " + e.getMessage())));
-                }
-            });
-
-            log.info("Batch processing completed. Processed: {}, Errors: {}", processedCount.get(), errors.size());
-
-            return new BatchResult<>(results, errors, processedCount.get(), items.size());
-        }, batchExecutor);
+        return process(items, batchSize, processor, Exception::getMessage);
     }
 
-    @Async("batchExecutor")
     public <T> CompletableFuture<BatchSummary> processBatchWithSideEffects(List<T> items, Consumer<T> processor,
             int batchSize) {
-
         log.info("Starting batch processing with side effects for {} items", items.size());
-
-        return CompletableFuture.supplyAsync(() -> {
-            List<BatchError> errors = new ArrayList<>();
-            AtomicInteger successCount = new AtomicInteger(0);
-
-            List<List<T>> batches = FunctionalUtils.partitionList(items, batchSize);
-
-            batches.parallelStream().forEach(batch -> {
-                batch.forEach(item -> {
-                    try {
-                        processor.accept(item);
-                        successCount.incrementAndGet();
-                    } catch (Exception e) {
-                        synchronized (errors) {
-                            errors.add(new BatchError(item.toString(), e.getMessage()));
-                        }
-                        log.error("Error processing item: {}", item, e);
-                    }
-                });
-                log.debug("Processed batch of {} items", batch.size());
-            });
-
-            int failureCount = items.size() - successCount.get();
-
-            log.info("Batch processing completed. Success: {}, Failures: {}", successCount.get(), failureCount);
-
-            return new BatchSummary(items.size(), successCount.get(), failureCount, errors);
-        }, batchExecutor);
+        return process(items, batchSize, item -> {
+            processor.accept(item);
+            return Boolean.TRUE;
+        }, Exception::getMessage).thenApply(result -> new BatchSummary(result.totalCount(), result.successCount(),
+                result.totalCount() - result.successCount(), result.errors()));
     }
 
-    @Async("batchExecutor")
     public <T, R> CompletableFuture<BatchResult<R>> processBatchWithRetry(List<T> items, Function<T, R> processor,
             int batchSize, int maxRetries) {
-
         log.info("Starting batch processing with retry for {} items", items.size());
-
-        return CompletableFuture.supplyAsync(() -> {
-            List<R> results = new ArrayList<>();
-            List<BatchError> errors = new ArrayList<>();
-            AtomicInteger processedCount = new AtomicInteger(0);
-
-            List<List<T>> batches = FunctionalUtils.partitionList(items, batchSize);
-
-            batches.parallelStream().forEach(batch -> {
-                batch.forEach(item -> {
-                    try {
-                        R result = FunctionalUtils.retry(item, processor, maxRetries, 1000);
-                        synchronized (results) {
-                            results.add(result);
-                        }
-                        processedCount.incrementAndGet();
-                    } catch (Exception e) {
-                        synchronized (errors) {
-                            errors.add(new BatchError(item.toString(),
-                                    "Failed after " + maxRetries + " retries: " + e.getMessage()));
-                        }
-                        log.error("Item failed after retries: {}", item, e);
-                    }
-                });
-            });
-
-            log.info("Batch processing with retry completed. Processed: {}, Errors: {}", processedCount.get(),
-                    errors.size());
-
-            return new BatchResult<>(results, errors, processedCount.get(), items.size());
-        }, batchExecutor);
+        return process(items, batchSize, item -> FunctionalUtils.retry(item, processor, maxRetries, 1000),
+                e -> "Failed after " + maxRetries + " retries: " + e.getMessage());
     }
 
-    @Async("batchExecutor")
-    public <T, R> CompletableFuture<BatchResult<R>> processBatchWithProgress(List<T> items, Function<T, R> processor,
-            int batchSize, Consumer<ProgressUpdate> progressCallback) {
+    private <T, R> CompletableFuture<BatchResult<R>> process(List<T> items, int batchSize, Function<T, R> processor,
+            Function<Exception, String> describeError) {
+        List<CompletableFuture<BatchResult<R>>> batches = FunctionalUtils.partitionList(items, batchSize).stream()
+                .map(batch -> CompletableFuture.supplyAsync(() -> processOne(batch, processor, describeError),
+                        batchExecutor))
+                .toList();
 
-        log.info("Starting batch processing with progress tracking for {} items", items.size());
-
-        return CompletableFuture.supplyAsync(() -> {
-            List<R> results = new ArrayList<>();
+        return FunctionalUtils.waitAll(batches).thenApply(results -> {
+            List<R> combined = new ArrayList<>(items.size());
             List<BatchError> errors = new ArrayList<>();
-            AtomicInteger processedCount = new AtomicInteger(0);
-
-            List<List<T>> batches = FunctionalUtils.partitionList(items, batchSize);
-            int totalBatches = batches.size();
-            AtomicInteger completedBatches = new AtomicInteger(0);
-
-            batches.parallelStream().forEach(batch -> {
-                try {
-                    List<R> batchResults = batch.stream().map(item -> {
-                        try {
-                            R result = processor.apply(item);
-                            int processed = processedCount.incrementAndGet();
-
-                            if (processed % Math.max(items.size() / 10, 100) == 0) {
-                                double progress = (double) processed / items.size() * 100;
-                                progressCallback
-                                        .accept(new ProgressUpdate(processed, items.size(), progress, errors.size()));
-                            }
-
-                            return result;
-                        } catch (Exception e) {
-                            synchronized (errors) {
-                                errors.add(new BatchError(item.toString(), e.getMessage()));
-                            }
-                            return null;
-                        }
-                    }).filter(java.util.Objects::nonNull).toList();
-
-                    synchronized (results) {
-                        results.addAll(batchResults);
-                    }
-
-                    int completed = completedBatches.incrementAndGet();
-                    log.debug("Completed batch {}/{}", completed, totalBatches);
+            int successCount = 0;
+            for (BatchResult<R> result : results) {
+                combined.addAll(result.results());
+                errors.addAll(result.errors());
+                successCount += result.successCount();
+            }
+            log.info("Batch processing completed. Processed: {}, Errors: {}", successCount, errors.size());
+            return new BatchResult<>(combined, errors, successCount, items.size());
+        });
+    }
 
-                } catch (Exception e) {
-                    log.error("Error processing batch", e);
+    private <T, R> BatchResult<R> processOne(List<T> batch, Function<T, R> processor,
+            Function<Exception, String> describeError) {
+        List<R> results = new ArrayList<>(batch.size());
+        List<BatchError> errors = new ArrayList<>();
+        for (T item : batch) {
+            try {
+                R result = processor.apply(item);
+                if (result != null) {
+                    results.add(result);
                 }
-            });
-
-            progressCallback.accept(new ProgressUpdate(processedCount.get(), items.size(), 100.0, errors.size()));
-
-            log.info("Batch processing with progress completed");
-
-            return new BatchResult<>(results, errors, processedCount.get(), items.size());
-        }, batchExecutor);
+            } catch (Exception e) {
+                errors.add(new BatchError(String.valueOf(item), describeError.apply(e)));
+                log.error("Error processing item: {}", item, e);
+            }
+        }
+        log.debug("Processed batch of {} items", batch.size());
+        return new BatchResult<>(results, errors, batch.size() - errors.size(), batch.size());
     }
 
     public record BatchResult<R>(List<R> results, List<BatchError> errors, int successCount, int totalCount) {
@@ -214,7 +103,4 @@ public class BatchProcessingService {
 
     public record BatchError(String itemIdentifier, String errorMessage) {
     }
-
-    public record ProgressUpdate(int processedCount, int totalCount, double progressPercentage, int errorCount) {
-    }
 }
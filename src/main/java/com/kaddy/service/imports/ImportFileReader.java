@@ -0,0 +1,201 @@
+package com.kaddy.service.imports;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Reads import files a chunk at a time from a byte offset, so memory use is bounded by the chunk size whatever the
+// file size and a resumed import seeks instead of re-reading. Records are split on bytes: a newline ends a record
+// unless it sits inside a quoted CSV field, and since UTF-8 never uses ASCII bytes inside multi-byte characters the
+// offsets are always on character boundaries.
+@Component
+@RequiredArgsConstructor
+public class ImportFileReader {
+
+    private static final TypeReference<Map<String, Object>> JSON_OBJECT = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${imports.dir:imports}")
+    private String importDir;
+
+    // Import files live outside the publicly served upload directory, and a job can only name a file inside it
+    public Path resolve(String fileName) {
+        if (fileName == null || !fileName.matches("[A-Za-z0-9-]+\\.(csv|ndjson)")) {
+            throw new IllegalArgumentException("Invalid import file name: " + fileName);
+        }
+        return Path.of(importDir).resolve(fileName);
+    }
+
+    // Rows after the given offset; rowNumber is the number of the last row already read (0 at the start of the file)
+    public List<ImportRow> read(Path file, ImportFormat format, long offset, long rowNumber, int maxRows) {
+        try (RecordStream header = format == ImportFormat.CSV ? new RecordStream(file, 0, true) : null;
+                RecordStream records = new RecordStream(file, offset, format == ImportFormat.CSV)) {
+            List<String> columns = null;
+            if (header != null) {
+                String headerLine = header.next();
+                if (headerLine == null) {
+                    return List.of();
+                }
+                columns = parseCsv(stripBom(headerLine)).stream().map(ImportRow::normalize).toList();
+                if (offset == 0) {
+                    records.next();
+                    rowNumber++;
+                }
+            }
+
+            List<ImportRow> rows = new ArrayList<>(maxRows);
+            String line;
+            while (rows.size() < maxRows && (line = records.next()) != null) {
+                rowNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                rows.add(format == ImportFormat.CSV ? csvRow(rowNumber, records.position, columns, line)
+                        : jsonRow(rowNumber, records.position, offset == 0 && rowNumber == 1 ? stripBom(line) : line));
+            }
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read import file " + file.getFileName(), e);
+        }
+    }
+
+    public long countRows(Path file, ImportFormat format) {
+        try (RecordStream records = new RecordStream(file, 0, format == ImportFormat.CSV)) {
+            long count = 0;
+            String line;
+            while ((line = records.next()) != null) {
+                if (!line.isBlank()) {
+                    count++;
+                }
+            }
+            // The CSV header is not a data row
+            return format == ImportFormat.CSV ? Math.max(0, count - 1) : count;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read import file " + file.getFileName(), e);
+        }
+    }
+
+    private ImportRow csvRow(long rowNumber, long endOffset, List<String> columns, String line) {
+        List<String> fields = parseCsv(line);
+        if (fields.size() != columns.size()) {
+            return new ImportRow(rowNumber, endOffset, Map.of(),
+                    "Expected " + columns.size() + " columns but found " + fields.size());
+        }
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            values.put(columns.get(i), fields.get(i));
+        }
+        return new ImportRow(rowNumber, endOffset, values, null);
+    }
+
+    private ImportRow jsonRow(long rowNumber, long endOffset, String line) {
+        try {
+            Map<String, String> values = new HashMap<>();
+            objectMapper.readValue(line, JSON_OBJECT).forEach((key, value) -> {
+                if (value != null) {
+                    values.put(ImportRow.normalize(key), value.toString());
+                }
+            });
+            return new ImportRow(rowNumber, endOffset, values, null);
+        } catch (JsonProcessingException e) {
+            return new ImportRow(rowNumber, endOffset, Map.of(), "Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    // RFC 4180 fields: comma separated, optionally quoted, with "" as an escaped quote inside quotes
+    private static List<String> parseCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String stripBom(String line) {
+        return line.startsWith("\uFEFF") ? line.substring(1) : line;
+    }
+
+    private static final class RecordStream implements AutoCloseable {
+        private final FileChannel channel;
+        private final InputStream in;
+        private final boolean csv;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private long position;
+
+        RecordStream(Path file, long offset, boolean csv) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.channel.position(offset);
+            this.in = new BufferedInputStream(Channels.newInputStream(channel), 64 * 1024);
+            this.csv = csv;
+            this.position = offset;
+        }
+
+        String next() throws IOException {
+            buffer.reset();
+            boolean quoted = false;
+            boolean read = false;
+            int b;
+            while ((b = in.read()) != -1) {
+                position++;
+                read = true;
+                if (b == '\n' && !quoted) {
+                    break;
+                }
+                if (csv && b == '"') {
+                    quoted = !quoted;
+                }
+                buffer.write(b);
+            }
+            if (!read) {
+                return null;
+            }
+            String line = buffer.toString(StandardCharsets.UTF_8);
+            return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.kaddy.service.imports;
+
+public enum ImportFormat {
+    CSV, NDJSON
+}
@@ -0,0 +1,122 @@
+package com.kaddy.service.imports;
+
+import com.kaddy.model.BatchJob;
+import com.kaddy.service.batch.BatchJobHandler;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Shared body of the bulk import jobs. The job's parameters name the stored file and its format, and the cursor is
+// "rowNumber:byteOffset" of the last row committed, so every chunk seeks to where the previous one stopped. A chunk is
+// validated row by row, checked for duplicates against itself and then against the database in one query per key,
+// and the surviving rows are saved together so the inserts go out as JDBC batches.
+public abstract class ImportJobHandler<E> implements BatchJobHandler<ImportRow> {
+
+    public static final String FILE = "file";
+    public static final String FORMAT = "format";
+
+    protected final ImportFileReader reader;
+
+    protected ImportJobHandler(ImportFileReader reader) {
+        this.reader = reader;
+    }
+
+    // Builds the entity for a row; an IllegalArgumentException marks the row as failed
+    protected abstract E toEntity(BatchJob job, ImportRow row);
+
+    // The natural key duplicates are detected on
+    protected abstract String keyOf(E entity);
+
+    // Keys of the chunk's entities that clash with existing data, with the reason reported for the row
+    protected abstract Map<String, String> findConflicts(BatchJob job, Map<String, E> entities);
+
+    protected abstract void saveAll(BatchJob job, List<E> entities);
+
+    @Override
+    public List<ImportRow> readChunk(BatchJob job, String afterCursor, int chunkSize) {
+        long rowNumber = 0;
+        long offset = 0;
+        if (afterCursor != null) {
+            int separator = afterCursor.indexOf(':');
+            rowNumber = Long.parseLong(afterCursor.substring(0, separator));
+            offset = Long.parseLong(afterCursor.substring(separator + 1));
+        }
+        return reader.read(file(job), format(job), offset, rowNumber, chunkSize);
+    }
+
+    @Override
+    public String cursorOf(ImportRow row) {
+        return row.rowNumber() + ":" + row.endOffset();
+    }
+
+    @Override
+    public String describe(ImportRow row) {
+        return "Row " + row.rowNumber();
+    }
+
+    @Override
+    public Long countItems(BatchJob job) {
+        return reader.countRows(file(job), format(job));
+    }
+
+    @Override
+    public void process(BatchJob job, ImportRow row) {
+        List<String> errors = processChunk(job, List.of(row));
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException(errors.get(0));
+        }
+    }
+
+    @Override
+    public List<String> processChunk(BatchJob job, List<ImportRow> rows) {
+        Map<Long, String> errors = new TreeMap<>();
+        Map<String, E> entities = new LinkedHashMap<>();
+        Map<String, Long> rowNumbers = new HashMap<>();
+
+        for (ImportRow row : rows) {
+            if (row.parseError() != null) {
+                errors.put(row.rowNumber(), row.parseError());
+                continue;
+            }
+            try {
+                E entity = toEntity(job, row);
+                String key = keyOf(entity);
+                Long firstRow = rowNumbers.putIfAbsent(key, row.rowNumber());
+                if (firstRow != null) {
+                    errors.put(row.rowNumber(), key + " already appears in row " + firstRow);
+                } else {
+                    entities.put(key, entity);
+                }
+            } catch (IllegalArgumentException e) {
+                errors.put(row.rowNumber(), e.getMessage());
+            }
+        }
+
+        if (!entities.isEmpty()) {
+            findConflicts(job, entities).forEach((key, reason) -> {
+                entities.remove(key);
+                errors.put(rowNumbers.get(key), reason);
+            });
+        }
+        if (!entities.isEmpty()) {
+            saveAll(job, new ArrayList<>(entities.values()));
+        }
+
+        List<String> messages = new ArrayList<>(errors.size());
+        errors.forEach((rowNumber, error) -> messages.add("Row " + rowNumber + ": " + error));
+        return messages;
+    }
+
+    private Path file(BatchJob job) {
+        return reader.resolve(job.getParameters().get(FILE));
+    }
+
+    private static ImportFormat format(BatchJob job) {
+        return ImportFormat.valueOf(job.getParameters().get(FORMAT));
+    }
+}
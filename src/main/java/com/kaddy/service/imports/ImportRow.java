@@ -0,0 +1,75 @@
+package com.kaddy.service.imports;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Map;
+
+// One data row of an import file with its columns keyed by normalised header name, plus the byte offset just past the
+// row so a resumed import can seek straight to the next one
+public record ImportRow(long rowNumber, long endOffset, Map<String, String> values, String parseError) {
+
+    // "Date of Birth", "date_of_birth" and "dateOfBirth" all name the same column
+    public static String normalize(String column) {
+        return column.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+    }
+
+    public String text(String column) {
+        String value = values.get(normalize(column));
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    public String required(String column) {
+        String value = text(column);
+        if (value == null) {
+            throw new IllegalArgumentException(column + " is required");
+        }
+        return value;
+    }
+
+    public LocalDate date(String column) {
+        String value = text(column);
+        try {
+            return value != null ? LocalDate.parse(value) : null;
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(column + " must be a date in yyyy-MM-dd format: " + value);
+        }
+    }
+
+    public BigDecimal decimal(String column) {
+        String value = text(column);
+        try {
+            return value != null ? new BigDecimal(value) : null;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " must be a number: " + value);
+        }
+    }
+
+    public Integer integer(String column) {
+        String value = text(column);
+        try {
+            return value != null ? Integer.valueOf(value) : null;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " must be a whole number: " + value);
+        }
+    }
+
+    public Boolean bool(String column) {
+        String value = text(column);
+        return value != null ? Boolean.valueOf(value.equalsIgnoreCase("yes") || value.equalsIgnoreCase("true")
+                || value.equals("1")) : null;
+    }
+
+    public <E extends Enum<E>> E enumValue(String column, Class<E> type) {
+        String value = text(column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT).replace(' ', '_').replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(column + " has an unknown value: " + value);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.kaddy.service.imports;
+
+import com.kaddy.model.BatchJob;
+import com.kaddy.model.BatchJobChunk;
+import com.kaddy.repository.BatchJobChunkRepository;
+import com.kaddy.service.batch.BatchJobService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+// Bulk imports are streamed to disk as they arrive and then run as batch jobs, so neither the upload nor the import
+// holds the file in memory. The stored file is kept after the job ends so a failed job can be restarted.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImportService {
+
+    private static final int ERROR_REPORT_PAGE_SIZE = 100;
+
+    private final BatchJobService batchJobService;
+    private final BatchJobChunkRepository chunkRepository;
+    private final ImportFileReader reader;
+
+    @Value("${imports.max-file-size:1GB}")
+    private DataSize maxFileSize;
+
+    public BatchJob submit(String jobType, Long hospitalId, ImportFormat format, InputStream body, String originalName,
+            Integer chunkSize, Long userId) {
+        Path file = reader.resolve(UUID.randomUUID() + "." + format.name().toLowerCase(Locale.ROOT));
+        long size = store(body, file);
+        if (size == 0) {
+            deleteQuietly(file);
+            throw new IllegalArgumentException("Import file is empty");
+        }
+
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put(ImportJobHandler.FILE, file.getFileName().toString());
+        parameters.put(ImportJobHandler.FORMAT, format.name());
+        if (originalName != null && !originalName.isBlank()) {
+            parameters.put("originalName", originalName);
+        }
+        try {
+            BatchJob job = batchJobService.submit(jobType, hospitalId, parameters, chunkSize, userId);
+            log.info("Stored {} byte {} import as {} for batch job {}", size, format, file.getFileName(), job.getId());
+            return job;
+        } catch (RuntimeException e) {
+            deleteQuietly(file);
+            throw e;
+        }
+    }
+
+    // One "row,error" line per failed row, read from the committed chunks a page at a time, so the report always
+    // matches what the import has actually written
+    public void writeErrorReport(Long hospitalId, Long jobId, OutputStream out) {
+        batchJobService.getJob(hospitalId, jobId);
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write("row,error\n");
+            Pageable pageable = PageRequest.of(0, ERROR_REPORT_PAGE_SIZE);
+            Slice<BatchJobChunk> chunks;
+            do {
+                chunks = chunkRepository.findByBatchJobIdAndFailedCountGreaterThanOrderByChunkNumber(jobId, 0,
+                        pageable);
+                for (BatchJobChunk chunk : chunks) {
+                    for (String error : chunk.getErrors()) {
+                        writeErrorLine(writer, error);
+                    }
+                }
+                pageable = chunks.nextPageable();
+            } while (chunks.hasNext());
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write error report for batch job " + jobId, e);
+        }
+    }
+
+    private long store(InputStream body, Path file) {
+        try {
+            Files.createDirectories(file.getParent());
+            long size = 0;
+            try (OutputStream out = Files.newOutputStream(file)) {
+                byte[] buffer = new byte[64 * 1024];
+                int read;
+                while ((read = body.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxFileSize.toBytes()) {
+                        throw new IllegalArgumentException("Import file exceeds the maximum size of " + maxFileSize);
+                    }
+                    out.write(buffer, 0, read);
+                }
+            }
+            return size;
+        } catch (IOException e) {
+            deleteQuietly(file);
+            throw new UncheckedIOException("Could not store import file", e);
+        } catch (RuntimeException e) {
+            deleteQuietly(file);
+            throw e;
+        }
+    }
+
+    private static void writeErrorLine(Writer writer, String error) throws IOException {
+        String row = "";
+        String message = error;
+        if (error.startsWith("Row ") && error.indexOf(':') > 4) {
+            row = error.substring(4, error.indexOf(':'));
+            message = error.substring(error.indexOf(':') + 1).trim();
+        }
+        writer.write(row);
+        writer.write(',');
+        writer.write('"');
+        writer.write(message.replace("\"", "\"\""));
+        writer.write("\"\n");
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete import file {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.kaddy.service.imports;
+
+import com.kaddy.model.BatchJob;
+import com.kaddy.model.InventoryItem;
+import com.kaddy.model.enums.InventoryCategory;
+import com.kaddy.repository.HospitalRepository;
+import com.kaddy.repository.InventoryItemRepository;
+import com.kaddy.service.InventoryService;
+import com.kaddy.service.PharmacyLookupIndex;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Items are created in the submitting user's hospital with no stock; opening stock arrives through goods receipts so
+// it carries batches and movements
+@Component
+public class InventoryItemImportHandler extends ImportJobHandler<InventoryItem> {
+
+    public static final String JOB_TYPE = "inventory-item-import";
+
+    private final InventoryItemRepository inventoryItemRepository;
+    private final HospitalRepository hospitalRepository;
+    private final InventoryService inventoryService;
+    private final PharmacyLookupIndex pharmacyLookupIndex;
+
+    public InventoryItemImportHandler(ImportFileReader reader, InventoryItemRepository inventoryItemRepository,
+            HospitalRepository hospitalRepository, InventoryService inventoryService,
+            PharmacyLookupIndex pharmacyLookupIndex) {
+        super(reader);
+        this.inventoryItemRepository = inventoryItemRepository;
+        this.hospitalRepository = hospitalRepository;
+        this.inventoryService = inventoryService;
+        this.pharmacyLookupIndex = pharmacyLookupIndex;
+    }
+
+    @Override
+    public String getJobType() {
+        return JOB_TYPE;
+    }
+
+    @Override
+    protected InventoryItem toEntity(BatchJob job, ImportRow row) {
+        InventoryItem item = new InventoryItem();
+        item.setHospital(hospitalRepository.getReferenceById(job.getHospitalId()));
+        item.setSku(row.required("sku"));
+        item.setBarcode(row.text("barcode"));
+        item.setName(row.required("name"));
+        item.setGenericName(row.text("genericName"));
+        item.setDescription(row.text("description"));
+        item.setCategory(row.enumValue("category", InventoryCategory.class));
+        if (item.getCategory() == null) {
+            throw new IllegalArgumentException("category is required");
+        }
+        item.setManufacturer(row.text("manufacturer"));
+        item.setStrength(row.text("strength"));
+        item.setDosageForm(row.text("dosageForm"));
+        item.setUnit(row.required("unit"));
+        item.setPurchasePrice(price(row, "purchasePrice"));
+        item.setSellingPrice(price(row, "sellingPrice"));
+        item.setMrp(row.decimal("mrp"));
+        BigDecimal taxRate = row.decimal("taxRate");
+        item.setTaxRate(taxRate != null ? taxRate : BigDecimal.ZERO);
+        item.setHsnCode(row.text("hsnCode"));
+        Integer reorderLevel = row.integer("reorderLevel");
+        item.setReorderLevel(reorderLevel != null ? reorderLevel : 10);
+        Integer reorderQuantity = row.integer("reorderQuantity");
+        item.setReorderQuantity(reorderQuantity != null ? reorderQuantity : 50);
+        Boolean requiresPrescription = row.bool("requiresPrescription");
+        item.setRequiresPrescription(requiresPrescription != null ? requiresPrescription : false);
+        item.setRackNumber(row.text("rackNumber"));
+        item.setShelfNumber(row.text("shelfNumber"));
+        item.setCurrentStock(0);
+        item.setIsActive(true);
+        return item;
+    }
+
+    @Override
+    protected String keyOf(InventoryItem item) {
+        return item.getSku();
+    }
+
+    // SKUs and barcodes are both unique within a hospital
+    @Override
+    protected Map<String, String> findConflicts(BatchJob job, Map<String, InventoryItem> items) {
+        Map<String, String> conflicts = new HashMap<>();
+        for (String sku : inventoryItemRepository.findExistingSkus(job.getHospitalId(), items.keySet())) {
+            conflicts.put(sku, "SKU already exists: " + sku);
+        }
+
+        Map<String, String> skuByBarcode = new HashMap<>();
+        for (InventoryItem item : items.values()) {
+            if (item.getBarcode() != null && !conflicts.containsKey(item.getSku())) {
+                String firstSku = skuByBarcode.putIfAbsent(item.getBarcode(), item.getSku());
+                if (firstSku != null) {
+                    conflicts.put(item.getSku(), "Barcode " + item.getBarcode() + " is also used by SKU " + firstSku);
+                }
+            }
+        }
+        if (!skuByBarcode.isEmpty()) {
+            for (String barcode : inventoryItemRepository.findExistingBarcodes(job.getHospitalId(),
+                    skuByBarcode.keySet())) {
+                conflicts.put(skuByBarcode.get(barcode), "Barcode already exists: " + barcode);
+            }
+        }
+        return conflicts;
+    }
+
+    @Override
+    protected void saveAll(BatchJob job, List<InventoryItem> items) {
+        inventoryItemRepository.saveAll(items).forEach(pharmacyLookupIndex::put);
+        inventoryService.evictInventoryReport(job.getHospitalId());
+    }
+
+    private static BigDecimal price(ImportRow row, String column) {
+        BigDecimal price = row.decimal(column);
+        if (price == null) {
+            throw new IllegalArgumentException(column + " is required");
+        }
+        if (price.compareTo(BigDecimal.ZERO) < 0) {
+            throw new IllegalArgumentException(column + " must not be negative");
+        }
+        return price;
+    }
+}
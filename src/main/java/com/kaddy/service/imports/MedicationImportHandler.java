@@ -0,0 +1,86 @@
+package com.kaddy.service.imports;
+
+import com.kaddy.model.BatchJob;
+import com.kaddy.model.Medication;
+import com.kaddy.repository.MedicationRepository;
+import com.kaddy.service.PharmacyLookupIndex;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class MedicationImportHandler extends ImportJobHandler<Medication> {
+
+    public static final String JOB_TYPE = "medication-import";
+
+    private final MedicationRepository medicationRepository;
+    private final PharmacyLookupIndex pharmacyLookupIndex;
+
+    public MedicationImportHandler(ImportFileReader reader, MedicationRepository medicationRepository,
+            PharmacyLookupIndex pharmacyLookupIndex) {
+        super(reader);
+        this.medicationRepository = medicationRepository;
+        this.pharmacyLookupIndex = pharmacyLookupIndex;
+    }
+
+    @Override
+    public String getJobType() {
+        return JOB_TYPE;
+    }
+
+    @Override
+    protected Medication toEntity(BatchJob job, ImportRow row) {
+        Medication medication = new Medication();
+        medication.setMedicationCode(row.required("medicationCode"));
+        medication.setName(row.required("name"));
+        medication.setGenericName(row.text("genericName"));
+        medication.setCategory(row.required("category"));
+        medication.setManufacturer(row.text("manufacturer"));
+        medication.setDescription(row.text("description"));
+        medication.setDosageForm(row.required("dosageForm"));
+        medication.setStrength(row.text("strength"));
+        medication.setUnitPrice(row.decimal("unitPrice"));
+        if (medication.getUnitPrice() == null) {
+            throw new IllegalArgumentException("unitPrice is required");
+        }
+        if (medication.getUnitPrice().compareTo(BigDecimal.ZERO) < 0) {
+            throw new IllegalArgumentException("unitPrice must not be negative");
+        }
+        Integer stockQuantity = row.integer("stockQuantity");
+        medication.setStockQuantity(stockQuantity != null ? stockQuantity : 0);
+        Integer reorderLevel = row.integer("reorderLevel");
+        medication.setReorderLevel(reorderLevel != null ? reorderLevel : 10);
+        Integer reorderQuantity = row.integer("reorderQuantity");
+        medication.setReorderQuantity(reorderQuantity != null ? reorderQuantity : 50);
+        medication.setExpiryDate(row.date("expiryDate"));
+        medication.setBatchNumber(row.text("batchNumber"));
+        Boolean requiresPrescription = row.bool("requiresPrescription");
+        medication.setRequiresPrescription(requiresPrescription != null ? requiresPrescription : true);
+        medication.setSideEffects(row.text("sideEffects"));
+        medication.setContraindications(row.text("contraindications"));
+        medication.setStorageInstructions(row.text("storageInstructions"));
+        return medication;
+    }
+
+    @Override
+    protected String keyOf(Medication medication) {
+        return medication.getMedicationCode();
+    }
+
+    @Override
+    protected Map<String, String> findConflicts(BatchJob job, Map<String, Medication> medications) {
+        Map<String, String> conflicts = new HashMap<>();
+        for (String code : medicationRepository.findExistingMedicationCodes(medications.keySet())) {
+            conflicts.put(code, "Medication with code " + code + " already exists");
+        }
+        return conflicts;
+    }
+
+    @Override
+    protected void saveAll(BatchJob job, List<Medication> medications) {
+        medicationRepository.saveAll(medications).forEach(pharmacyLookupIndex::put);
+    }
+}
@@ -0,0 +1,88 @@
+package com.kaddy.service.imports;
+
+import com.kaddy.model.BatchJob;
+import com.kaddy.model.Patient;
+import com.kaddy.model.enums.BloodGroup;
+import com.kaddy.model.enums.Gender;
+import com.kaddy.repository.PatientRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class PatientImportHandler extends ImportJobHandler<Patient> {
+
+    public static final String JOB_TYPE = "patient-import";
+
+    private final PatientRepository patientRepository;
+
+    public PatientImportHandler(ImportFileReader reader, PatientRepository patientRepository) {
+        super(reader);
+        this.patientRepository = patientRepository;
+    }
+
+    @Override
+    public String getJobType() {
+        return JOB_TYPE;
+    }
+
+    @Override
+    protected Patient toEntity(BatchJob job, ImportRow row) {
+        Patient patient = new Patient();
+        patient.setPatientId(row.required("patientId"));
+        patient.setFirstName(row.required("firstName"));
+        patient.setLastName(row.required("lastName"));
+        patient.setDateOfBirth(row.date("dateOfBirth"));
+        if (patient.getDateOfBirth() == null) {
+            throw new IllegalArgumentException("dateOfBirth is required");
+        }
+        patient.setGender(row.enumValue("gender", Gender.class));
+        if (patient.getGender() == null) {
+            throw new IllegalArgumentException("gender is required");
+        }
+        patient.setPhone(row.text("phone"));
+        patient.setEmail(row.text("email"));
+        patient.setAddress(row.text("address"));
+        patient.setEmergencyContact(row.text("emergencyContact"));
+        patient.setEmergencyContactPhone(row.text("emergencyContactPhone"));
+        patient.setBloodGroup(bloodGroup(row));
+        patient.setAllergies(row.text("allergies"));
+        patient.setChronicConditions(row.text("chronicConditions"));
+        return patient;
+    }
+
+    @Override
+    protected String keyOf(Patient patient) {
+        return patient.getPatientId();
+    }
+
+    @Override
+    protected Map<String, String> findConflicts(BatchJob job, Map<String, Patient> patients) {
+        Map<String, String> conflicts = new HashMap<>();
+        for (String patientId : patientRepository.findExistingPatientIds(patients.keySet())) {
+            conflicts.put(patientId, "Patient with ID " + patientId + " already exists");
+        }
+        return conflicts;
+    }
+
+    @Override
+    protected void saveAll(BatchJob job, List<Patient> patients) {
+        patientRepository.saveAll(patients);
+    }
+
+    // Accepts the display form ("A+") as well as the enum name ("A_POSITIVE")
+    private static BloodGroup bloodGroup(ImportRow row) {
+        String value = row.text("bloodGroup");
+        if (value == null) {
+            return null;
+        }
+        for (BloodGroup group : BloodGroup.values()) {
+            if (group.getDisplayName().equalsIgnoreCase(value)) {
+                return group;
+            }
+        }
+        return row.enumValue("bloodGroup", BloodGroup.class);
+    }
+}
@@ -0,0 +1,70 @@
+-- Moves BaseEntity tables from IDENTITY columns to pooled sequences (increment 50) without renumbering existing rows.
+-- Run once before deploying with ddl-auto=validate; safe to re-run. Each sequence starts past the table's MAX(id), so
+-- the first block Hibernate allocates can never collide with an id issued by the old identity column.
+DO $$
+DECLARE
+    mapping TEXT[];
+    max_id BIGINT;
+    last_issued BIGINT;
+BEGIN
+    FOREACH mapping SLICE 1 IN ARRAY ARRAY[
+        ['access_audit_logs', 'access_audit_log_seq'],
+        ['appointments', 'appointment_seq'],
+        ['batch_jobs', 'batch_job_seq'],
+        ['batch_job_chunks', 'batch_job_chunk_seq'],
+        ['beds', 'bed_seq'],
+        ['doctors', 'doctor_seq'],
+        ['doctor_patient_assignments', 'doctor_patient_assignment_seq'],
+        ['document_sequences', 'document_sequence_seq'],
+        ['emergency_patients', 'emergency_patient_seq'],
+        ['emergency_rooms', 'emergency_room_seq'],
+        ['follow_ups', 'follow_up_seq'],
+        ['hospitals', 'hospital_seq'],
+        ['insurance_claims', 'insurance_claim_seq'],
+        ['insurance_providers', 'insurance_provider_seq'],
+        ['inventory_items', 'inventory_item_seq'],
+        ['invoices', 'invoice_seq'],
+        ['invoice_items', 'invoice_item_seq'],
+        ['lab_tests', 'lab_test_seq'],
+        ['medical_records', 'medical_record_seq'],
+        ['medications', 'medication_seq'],
+        ['medication_requests', 'medication_request_seq'],
+        ['medicine_orders', 'medicine_order_seq'],
+        ['medicine_order_items', 'medicine_order_item_seq'],
+        ['medicine_order_payments', 'medicine_order_payment_seq'],
+        ['notifications', 'notification_seq'],
+        ['nurse_patient_assignments', 'nurse_patient_assignment_seq'],
+        ['ot_requests', 'otrequest_seq'],
+        ['patients', 'patient_seq'],
+        ['patient_admissions', 'patient_admission_seq'],
+        ['patient_consents', 'patient_consent_seq'],
+        ['patient_insurance', 'patient_insurance_seq'],
+        ['payments', 'payment_seq'],
+        ['prescriptions', 'prescription_seq'],
+        ['prescription_items', 'prescription_item_seq'],
+        ['purchase_orders', 'purchase_order_seq'],
+        ['purchase_order_items', 'purchase_order_item_seq'],
+        ['record_share_requests', 'record_share_request_seq'],
+        ['service_items', 'service_item_seq'],
+        ['stock_balance_checkpoints', 'stock_balance_checkpoint_seq'],
+        ['stock_batches', 'stock_batch_seq'],
+        ['stock_ledger_closures', 'stock_ledger_closure_seq'],
+        ['stock_movements', 'stock_movement_seq'],
+        ['stock_reservations', 'stock_reservation_seq'],
+        ['users', 'user_seq'],
+        ['vendors', 'vendor_seq'],
+        ['wards', 'ward_seq']
+    ]
+    LOOP
+        EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I INCREMENT BY 50', mapping[2]);
+        -- A table added since the last deploy does not exist yet; its sequence starts from the bottom
+        IF to_regclass(mapping[1]) IS NULL THEN
+            max_id := 0;
+        ELSE
+            EXECUTE format('SELECT COALESCE(MAX(id), 0) FROM %I', mapping[1]) INTO max_id;
+        END IF;
+        EXECUTE format('SELECT last_value FROM %I', mapping[2]) INTO last_issued;
+        -- Never move a sequence backwards, so a re-run cannot hand out a block a running node already holds
+        PERFORM setval(mapping[2], GREATEST(max_id + 50, last_issued));
+    END LOOP;
+END $$;
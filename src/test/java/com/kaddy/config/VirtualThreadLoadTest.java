@@ -0,0 +1,172 @@
+package com.kaddy.config;
+
+import com.kaddy.MedicoApplication;
+import com.kaddy.model.Patient;
+import com.kaddy.model.User;
+import com.kaddy.model.enums.Gender;
+import com.kaddy.model.enums.UserRole;
+import com.kaddy.repository.PatientRepository;
+import com.kaddy.repository.UserRepository;
+import com.kaddy.security.JwtService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Drives the same closed-loop load at the app with platform request threads and then with virtual threads
+// (spring.threads.virtual.enabled), against one PostgreSQL and the dev profile's 10-connection pool, and logs
+// throughput and p50/p99 latency for each. Every client loops on a patient search, which takes a connection per
+// request. Numbers depend on the machine, so only the error rate is asserted.
+// Needs Docker: mvn test -Pload-tests [-Dload.clients=400 -Dload.duration=PT60S]
+@Tag("load")
+@Testcontainers
+@Slf4j
+class VirtualThreadLoadTest {
+
+    private static final int CLIENTS = Integer.getInteger("load.clients", 200);
+    private static final Duration WARMUP = Duration.parse(System.getProperty("load.warmup", "PT10S"));
+    private static final Duration DURATION = Duration.parse(System.getProperty("load.duration", "PT30S"));
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Test
+    void platformAndVirtualThreadModesUnderTheSameLoad() throws Exception {
+        LoadResult platform = run(false);
+        LoadResult virtual = run(true);
+
+        log.info("{} clients for {}: platform {} | virtual {}", CLIENTS, DURATION, platform, virtual);
+        assertTrue(platform.errorRate() < 0.01, "platform mode errors: " + platform);
+        assertTrue(virtual.errorRate() < 0.01, "virtual mode errors: " + virtual);
+    }
+
+    private LoadResult run(boolean virtualThreads) throws InterruptedException {
+        // Command-line arguments, so they win over the dev profile's datasource and thread settings
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(MedicoApplication.class)
+                .profiles("dev")
+                .run("--server.port=0", "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "--spring.datasource.username=" + postgres.getUsername(),
+                        "--spring.datasource.password=" + postgres.getPassword())) {
+            String token = seed(context);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            HttpRequest request = HttpRequest.newBuilder(
+                    URI.create("http://localhost:" + port + "/api/patients/search?name=Load3"))
+                    .header("Authorization", "Bearer " + token).GET().build();
+
+            drive(client, request, WARMUP);
+            return drive(client, request, DURATION);
+        }
+    }
+
+    // Idempotent, so the second mode reuses the rows the first one wrote
+    private static String seed(ConfigurableApplicationContext context) {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        PatientRepository patientRepository = context.getBean(PatientRepository.class);
+        User admin = userRepository.findByUsername("load-admin").orElseGet(() -> {
+            User user = new User();
+            user.setUsername("load-admin");
+            user.setPassword("unused");
+            user.setEmail("load-admin@load.test");
+            user.setFirstName("Load");
+            user.setLastName("Admin");
+            user.setRole(UserRole.ADMIN);
+            return userRepository.save(user);
+        });
+        if (patientRepository.findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase("Load3", "Load3")
+                .isEmpty()) {
+            List<Patient> patients = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                Patient patient = new Patient();
+                patient.setPatientId("LOAD-" + i);
+                patient.setFirstName("Patient");
+                patient.setLastName("Load" + (i % 10));
+                patient.setDateOfBirth(LocalDate.of(1970, 1, 1).plusDays(i * 37L));
+                patient.setGender(i % 2 == 0 ? Gender.FEMALE : Gender.MALE);
+                patients.add(patient);
+            }
+            patientRepository.saveAll(patients);
+        }
+        return context.getBean(JwtService.class).generateToken(admin);
+    }
+
+    private static LoadResult drive(HttpClient client, HttpRequest request, Duration duration)
+            throws InterruptedException {
+        Collection<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicInteger errors = new AtomicInteger();
+        long started = System.nanoTime();
+        long deadline = started + duration.toNanos();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CLIENTS; i++) {
+                clients.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == 200) {
+                                latencies.add(System.nanoTime() - sent);
+                            } else {
+                                errors.incrementAndGet();
+                            }
+                        } catch (IOException e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+        return LoadResult.of(latencies, errors.get(), System.nanoTime() - started);
+    }
+
+    private record LoadResult(int requests, int errors, double perSecond, double p50Millis, double p99Millis) {
+
+        static LoadResult of(Collection<Long> latencies, int errors, long elapsedNanos) {
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            return new LoadResult(sorted.length, errors, sorted.length * 1_000_000_000.0 / elapsedNanos,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99));
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+
+        double errorRate() {
+            int total = requests + errors;
+            return total == 0 ? 1.0 : (double) errors / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.0f req/s, p50 %.1f ms, p99 %.1f ms, %d errors", perSecond, p50Millis, p99Millis,
+                    errors);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.kaddy.model;
+
+import com.kaddy.model.enums.Gender;
+import com.kaddy.model.enums.InventoryCategory;
+import com.kaddy.model.enums.ServiceCategory;
+import com.kaddy.model.enums.StockMovementType;
+import com.kaddy.repository.HospitalRepository;
+import com.kaddy.repository.InventoryItemRepository;
+import com.kaddy.repository.InvoiceItemRepository;
+import com.kaddy.repository.InvoiceRepository;
+import com.kaddy.repository.PatientRepository;
+import com.kaddy.repository.StockMovementRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Bulk inserts through the real mappings, which must reach PostgreSQL as JDBC batches now that ids come from pooled
+// sequences. The IDENTITY baseline repeats what Hibernate has to do for an IDENTITY id: one INSERT ... RETURNING id
+// round trip per row, here into an identity-keyed copy of the same table. Rows/sec for both is logged.
+// Needs Docker: mvn test -Pintegration-tests
+@Tag("integration")
+@Testcontainers
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("dev")
+@Slf4j
+class PooledSequenceBulkInsertTest {
+
+    private static final int ROWS = 2000;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private HospitalRepository hospitalRepository;
+
+    @Autowired
+    private InventoryItemRepository inventoryItemRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private InvoiceItemRepository invoiceItemRepository;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String suffix;
+    private Hospital hospital;
+    private InventoryItem item;
+    private Invoice invoice;
+
+    @BeforeEach
+    void setUp() {
+        suffix = UUID.randomUUID().toString().substring(0, 8);
+        hospital = new Hospital();
+        hospital.setName("Bulk " + suffix);
+        hospital.setCode("BI-" + suffix);
+        hospital.setEmail(suffix + "@bulk.test");
+        hospital.setTrialStartDate(LocalDateTime.now());
+        hospital.setTrialEndDate(LocalDateTime.now().plusDays(30));
+        hospital = hospitalRepository.save(hospital);
+
+        item = new InventoryItem();
+        item.setHospital(hospital);
+        item.setSku("SKU-" + suffix);
+        item.setName("Item " + suffix);
+        item.setCategory(InventoryCategory.MEDICINE);
+        item.setUnit("TAB");
+        item.setCurrentStock(0);
+        item = inventoryItemRepository.save(item);
+
+        invoice = new Invoice();
+        invoice.setInvoiceNumber("INV-" + suffix);
+        invoice.setHospital(hospital);
+        invoice.setPatient(patientRepository.save(patient(-1)));
+        invoice.setInvoiceDate(LocalDate.now());
+        invoice = invoiceRepository.save(invoice);
+    }
+
+    @Test
+    void patientsAreInsertedInBatches() {
+        measure("patients", patientRepository, this::patient);
+    }
+
+    @Test
+    void stockMovementsAreInsertedInBatches() {
+        measure("stock_movements", stockMovementRepository, this::stockMovement);
+    }
+
+    @Test
+    void invoiceItemsAreInsertedInBatches() {
+        measure("invoice_items", invoiceItemRepository, this::invoiceItem);
+    }
+
+    private <T extends BaseEntity> void measure(String table, JpaRepository<T, Long> repository,
+            IntFunction<T> factory) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<T> rows = IntStream.range(0, ROWS).mapToObj(factory).toList();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        long started = System.nanoTime();
+        transaction.executeWithoutResult(status -> repository.saveAll(rows));
+        double pooledRate = rate(started);
+
+        // Unbatched inserts prepare one statement per row; batches of 50 plus one sequence call per 50 ids stay
+        // well under one statement per ten rows
+        assertEquals(ROWS, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= ROWS / 10,
+                table + " prepared " + statistics.getPrepareStatementCount() + " statements for " + ROWS + " rows");
+
+        String copy = createIdentityCopy(table);
+        String columns = columnsWithoutId(table);
+        String insert = "INSERT INTO " + copy + " (" + columns + ") SELECT " + columns + " FROM " + table
+                + " WHERE id = ? RETURNING id";
+        List<Long> ids = rows.stream().map(BaseEntity::getId).toList();
+        started = System.nanoTime();
+        transaction.executeWithoutResult(status -> ids.forEach(id -> jdbcTemplate.queryForObject(insert, Long.class,
+                id)));
+        double identityRate = rate(started);
+
+        assertEquals(ROWS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + copy, Integer.class));
+        log.info("{}: pooled sequence {} rows/s, IDENTITY {} rows/s ({}x)", table, Math.round(pooledRate),
+                Math.round(identityRate), String.format("%.1f", pooledRate / identityRate));
+    }
+
+    private String createIdentityCopy(String table) {
+        String copy = "identity_" + table;
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + copy);
+        jdbcTemplate.execute("CREATE TABLE " + copy + " (LIKE " + table + " INCLUDING DEFAULTS)");
+        jdbcTemplate.execute("ALTER TABLE " + copy + " ALTER COLUMN id ADD GENERATED BY DEFAULT AS IDENTITY");
+        return copy;
+    }
+
+    private String columnsWithoutId(String table) {
+        return jdbcTemplate.queryForObject(
+                "SELECT string_agg(quote_ident(column_name), ', ' ORDER BY ordinal_position) "
+                        + "FROM information_schema.columns "
+                        + "WHERE table_schema = current_schema() AND table_name = ? AND column_name <> 'id'",
+                String.class, table);
+    }
+
+    private static double rate(long startedNanos) {
+        return ROWS * 1_000_000_000.0 / (System.nanoTime() - startedNanos);
+    }
+
+    private Patient patient(int i) {
+        Patient patient = new Patient();
+        patient.setPatientId("BULK-" + suffix + "-" + i);
+        patient.setFirstName("Bulk");
+        patient.setLastName("Patient " + i);
+        patient.setDateOfBirth(LocalDate.of(1980, 1, 1).plusDays(i));
+        patient.setGender(i % 2 == 0 ? Gender.FEMALE : Gender.MALE);
+        return patient;
+    }
+
+    private StockMovement stockMovement(int i) {
+        StockMovement movement = new StockMovement();
+        movement.setHospital(hospital);
+        movement.setInventoryItem(item);
+        movement.setMovementType(StockMovementType.PURCHASE);
+        movement.setMovementDate(LocalDateTime.now());
+        movement.setQuantity(1);
+        movement.setPreviousStock(i);
+        movement.setNewStock(i + 1);
+        return movement;
+    }
+
+    private InvoiceItem invoiceItem(int i) {
+        InvoiceItem invoiceItem = new InvoiceItem();
+        invoiceItem.setInvoice(invoice);
+        invoiceItem.setItemName("Line " + i);
+        invoiceItem.setCategory(ServiceCategory.CONSUMABLES);
+        invoiceItem.setUnitPrice(BigDecimal.TEN);
+        return invoiceItem;
+    }
+}
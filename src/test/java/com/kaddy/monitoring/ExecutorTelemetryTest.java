@@ -0,0 +1,92 @@
+package com.kaddy.monitoring;
+
+import com.kaddy.monitoring.ExecutorTelemetry.ExecutorSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExecutorTelemetryTest {
+
+    private final ExecutorTelemetry telemetry = new ExecutorTelemetry(new SimpleMeterRegistry());
+
+    @Test
+    void poolsAreRegisteredOnceAndLookedUpByName() {
+        ExecutorTelemetry.Pool pool = telemetry.register("taskExecutor", 2, 8);
+
+        assertEquals(pool, telemetry.pool("taskExecutor"));
+        assertThrows(IllegalStateException.class, () -> telemetry.register("taskExecutor", 4, 4));
+        assertThrows(IllegalArgumentException.class, () -> telemetry.pool("reportExecutor"));
+    }
+
+    @Test
+    void decoratedTaskIsQueuedUntilItRunsAndActiveWhileRunning() {
+        ExecutorTelemetry.Pool pool = telemetry.register("taskExecutor", 2, 2);
+        AtomicInteger activeDuringRun = new AtomicInteger();
+        Runnable task = pool.decorate(() -> activeDuringRun.set(snapshot().active()));
+
+        assertEquals(1, snapshot().queued());
+        assertEquals(0.25, pool.utilisation());
+
+        task.run();
+
+        assertEquals(1, activeDuringRun.get());
+        ExecutorSnapshot after = snapshot();
+        assertEquals(0, after.queued());
+        assertEquals(0, after.active());
+        assertEquals(1, after.completed());
+        assertEquals(0.0, pool.utilisation());
+    }
+
+    @Test
+    void unboundedPoolReportsNoUtilisation() {
+        ExecutorTelemetry.Pool pool = telemetry.register("virtualExecutor", 0, 0);
+        pool.decorate(() -> {
+        });
+
+        assertEquals(0.0, pool.utilisation());
+    }
+
+    @Test
+    void queueWaitIsReportedOnlyWhileTasksAreWaiting() throws InterruptedException {
+        ExecutorTelemetry.Pool pool = telemetry.register("taskExecutor", 1, 10);
+        Runnable first = pool.decorate(() -> {
+        });
+        Thread.sleep(100);
+        Runnable second = pool.decorate(() -> {
+        });
+
+        first.run();
+        assertTrue(pool.queueWaitMillis() > 0);
+
+        second.run();
+        assertEquals(0, pool.queueWaitMillis());
+    }
+
+    @Test
+    void rejectedTaskIsCountedAndLeavesTheQueueOnce() {
+        ExecutorTelemetry.Pool pool = telemetry.register("taskExecutor", 1, 1);
+        RejectedExecutionHandler handler = pool.counting(new ThreadPoolExecutor.DiscardPolicy());
+        Runnable task = pool.decorate(() -> {
+        });
+
+        handler.rejectedExecution(task, null);
+        assertEquals(1, snapshot().rejected());
+        assertEquals(0, snapshot().queued());
+
+        // CallerRunsPolicy runs the rejected task afterwards, which must not take the queue count below zero
+        task.run();
+        assertEquals(0, snapshot().queued());
+        assertEquals(1, snapshot().completed());
+    }
+
+    private ExecutorSnapshot snapshot() {
+        return telemetry.snapshot().get(0);
+    }
+}
@@ -0,0 +1,111 @@
+package com.kaddy.service;
+
+import com.kaddy.monitoring.ExecutorTelemetry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionControlTest {
+
+    private ExecutorTelemetry telemetry;
+    private ExecutorTelemetry.Pool interactive;
+    private AdmissionControl admissionControl;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        telemetry = new ExecutorTelemetry(meterRegistry);
+        interactive = telemetry.register("taskExecutor", 2, 2);
+        admissionControl = new AdmissionControl(telemetry, meterRegistry, List.of("taskExecutor"),
+                Duration.ofSeconds(10), 0.5, 2, 16, Duration.ofSeconds(10), Duration.ofSeconds(1));
+    }
+
+    @Test
+    void admitsUpToTheLimitAndShedsTheRest() {
+        for (int i = 0; i < 16; i++) {
+            assertTrue(admissionControl.tryAdmit());
+        }
+        assertFalse(admissionControl.tryAdmit());
+
+        admissionControl.release();
+        assertTrue(admissionControl.tryAdmit());
+
+        AdmissionControl.AdmissionSnapshot snapshot = admissionControl.snapshot();
+        assertEquals(16, snapshot.inFlight());
+        assertEquals(17, snapshot.admitted());
+        assertEquals(1, snapshot.shed());
+    }
+
+    @Test
+    void limitHalvesUnderPressureDownToTheMinimum() {
+        List<Runnable> waiting = queue(3);
+
+        admissionControl.adjust();
+        assertEquals(8, admissionControl.snapshot().limit());
+        assertEquals("taskExecutor", admissionControl.snapshot().pressuredExecutor());
+
+        admissionControl.adjust();
+        admissionControl.adjust();
+        admissionControl.adjust();
+        assertEquals(2, admissionControl.snapshot().limit());
+
+        waiting.forEach(Runnable::run);
+    }
+
+    @Test
+    void limitRecoversByOnePerIntervalOncePressureClears() {
+        List<Runnable> waiting = queue(3);
+        admissionControl.adjust();
+        admissionControl.adjust();
+        assertEquals(4, admissionControl.snapshot().limit());
+
+        waiting.forEach(Runnable::run);
+        admissionControl.adjust();
+        assertEquals(5, admissionControl.snapshot().limit());
+        assertNull(admissionControl.snapshot().pressuredExecutor());
+
+        for (int i = 0; i < 20; i++) {
+            admissionControl.adjust();
+        }
+        assertEquals(16, admissionControl.snapshot().limit());
+    }
+
+    @Test
+    void aLowerLimitShedsWorkAlreadyOverIt() {
+        for (int i = 0; i < 10; i++) {
+            admissionControl.tryAdmit();
+        }
+        List<Runnable> waiting = queue(3);
+        admissionControl.adjust();
+
+        assertFalse(admissionControl.tryAdmit());
+        waiting.forEach(Runnable::run);
+    }
+
+    @Test
+    void rejectsInvalidBounds() {
+        assertThrows(IllegalArgumentException.class, () -> new AdmissionControl(telemetry, new SimpleMeterRegistry(),
+                List.of("taskExecutor"), Duration.ofSeconds(10), 0.5, 8, 4, Duration.ofSeconds(10),
+                Duration.ofSeconds(1)));
+    }
+
+    // Three of the four thread and queue slots in use puts utilisation at 0.75, above the 0.5 target
+    private List<Runnable> queue(int tasks) {
+        List<Runnable> queued = new ArrayList<>();
+        for (int i = 0; i < tasks; i++) {
+            queued.add(interactive.decorate(() -> {
+            }));
+        }
+        return queued;
+    }
+}
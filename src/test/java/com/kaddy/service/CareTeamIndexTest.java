@@ -0,0 +1,85 @@
+package com.kaddy.service;
+
+import com.kaddy.repository.DoctorPatientAssignmentRepository;
+import com.kaddy.repository.NursePatientAssignmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CareTeamIndexTest {
+
+    private DoctorPatientAssignmentRepository doctorRepository;
+    private NursePatientAssignmentRepository nurseRepository;
+    private CareTeamIndex index;
+
+    @BeforeEach
+    void setUp() {
+        doctorRepository = mock(DoctorPatientAssignmentRepository.class);
+        nurseRepository = mock(NursePatientAssignmentRepository.class);
+        index = new CareTeamIndex(doctorRepository, nurseRepository);
+    }
+
+    @Test
+    void assignmentTheLoadAlsoSawIsCountedOnce() {
+        when(doctorRepository.findActiveDoctorPatientPairs()).thenAnswer(invocation -> {
+            index.doctorAssigned(10L, 1L, 100L);
+            index.doctorAssigned(11L, 1L, 101L);
+            return List.<Object[]>of(new Object[]{10L, 1L, 100L});
+        });
+
+        index.rebuild();
+
+        assertEquals(Set.of(100L, 101L), index.getPatientIdsForDoctor(1L));
+        index.doctorUnassigned(10L, 1L, 100L);
+        assertFalse(index.isDoctorAssigned(1L, 100L));
+    }
+
+    @Test
+    void unassignmentDuringTheLoadIsNotLost() {
+        when(doctorRepository.findActiveDoctorPatientPairs()).thenAnswer(invocation -> {
+            index.doctorUnassigned(12L, 2L, 200L);
+            return List.<Object[]>of(new Object[]{12L, 2L, 200L}, new Object[]{13L, 2L, 201L});
+        });
+
+        index.rebuild();
+
+        assertFalse(index.isDoctorAssigned(2L, 200L));
+        assertTrue(index.isDoctorAssigned(2L, 201L));
+    }
+
+    @Test
+    void pairStaysAssignedUntilItsLastAssignmentEnds() {
+        when(nurseRepository.findActiveNursePatientPairs())
+                .thenReturn(List.<Object[]>of(new Object[]{20L, 3L, 300L}, new Object[]{21L, 3L, 300L}));
+        index.rebuild();
+
+        index.nurseUnassigned(20L, 3L, 300L);
+        assertTrue(index.isNurseAssigned(3L, 300L));
+        index.nurseUnassigned(21L, 3L, 300L);
+        assertFalse(index.isNurseAssigned(3L, 300L));
+        assertEquals(Set.of(), index.getNurseIdsForPatient(300L));
+    }
+
+    @Test
+    void pollRebuildsOnlyWhenTheAssignmentTablesMoved() {
+        index.rebuild();
+        index.pollForChanges();
+        verify(doctorRepository, times(1)).findActiveDoctorPatientPairs();
+
+        when(doctorRepository.findLastUpdatedAt()).thenReturn(LocalDateTime.now());
+        index.pollForChanges();
+        index.pollForChanges();
+        verify(doctorRepository, times(2)).findActiveDoctorPatientPairs();
+    }
+}
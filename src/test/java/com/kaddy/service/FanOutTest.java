@@ -0,0 +1,149 @@
+package com.kaddy.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FanOutTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final FanOut fanOut = new FanOut(executor, new NoOpTransactionManager(), Duration.ofSeconds(10));
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void forksRunSideBySideAndReturnTheirResults() {
+        // Each fork waits for the other, so the scope only completes if they run at the same time
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Supplier<String> first;
+        Supplier<Integer> second;
+        try (FanOut.Scope scope = fanOut.open()) {
+            first = scope.fork(() -> {
+                bothStarted.countDown();
+                bothStarted.await();
+                return "patients";
+            });
+            second = scope.fork(() -> {
+                bothStarted.countDown();
+                bothStarted.await();
+                return 42;
+            });
+            scope.join();
+        }
+
+        assertEquals("patients", first.get());
+        assertEquals(42, second.get());
+    }
+
+    @Test
+    void firstFailureIsRethrownAndCancelsTheSiblings() throws InterruptedException {
+        CountDownLatch siblingStarted = new CountDownLatch(1);
+        CountDownLatch siblingInterrupted = new CountDownLatch(1);
+        try (FanOut.Scope scope = fanOut.open()) {
+            scope.fork(() -> {
+                siblingStarted.countDown();
+                try {
+                    new CountDownLatch(1).await();
+                } catch (InterruptedException e) {
+                    siblingInterrupted.countDown();
+                }
+                return null;
+            });
+            scope.fork(() -> {
+                siblingStarted.await();
+                throw new IllegalArgumentException("ward not found");
+            });
+
+            IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, scope::join);
+            assertEquals("ward not found", thrown.getMessage());
+        }
+        assertTrue(siblingInterrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void checkedExceptionsAreWrapped() {
+        try (FanOut.Scope scope = fanOut.open()) {
+            scope.fork(() -> {
+                throw new Exception("report failed");
+            });
+
+            IllegalStateException thrown = assertThrows(IllegalStateException.class, scope::join);
+            assertInstanceOf(Exception.class, thrown.getCause());
+            assertEquals("report failed", thrown.getCause().getMessage());
+        }
+    }
+
+    @Test
+    void joinGivesUpAtTheDeadline() {
+        try (FanOut.Scope scope = fanOut.open(Duration.ofMillis(100))) {
+            scope.fork(() -> {
+                new CountDownLatch(1).await();
+                return null;
+            });
+
+            assertThrows(QueryTimeoutException.class, scope::join);
+        }
+    }
+
+    @Test
+    void forksCarryTheCallersMdc() {
+        MDC.put("requestId", "req-17");
+        try {
+            Supplier<String> requestId;
+            try (FanOut.Scope scope = fanOut.open()) {
+                requestId = scope.fork(() -> MDC.get("requestId"));
+                scope.join();
+            }
+            assertEquals("req-17", requestId.get());
+        } finally {
+            MDC.remove("requestId");
+        }
+    }
+
+    @Test
+    void scopeCannotBeForkedOrJoinedAfterJoin() {
+        try (FanOut.Scope scope = fanOut.open()) {
+            scope.fork(() -> 1);
+            scope.join();
+
+            assertThrows(IllegalStateException.class, () -> scope.fork(() -> 2));
+            assertThrows(IllegalStateException.class, scope::join);
+        }
+    }
+
+    private static final class NoOpTransactionManager implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.kaddy.service;
+
+import com.kaddy.service.PharmacyLookupIndex.Catalog;
+import com.kaddy.service.PharmacyLookupIndex.Match;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PharmacyLookupIndexCatalogTest {
+
+    private Catalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new Catalog();
+        catalog.put(new Match(1L, "MED-PCM-500", "8901234500011", "Paracetamol 500mg", "Acetaminophen"));
+        catalog.put(new Match(2L, "MED-PCM-SYR", "8901234500028", "Paracetamol Syrup", "Acetaminophen"));
+        catalog.put(new Match(3L, "MED-AMX-250", "8901234500035", "Amoxicillin 250mg", "Amoxicillin"));
+        catalog.put(new Match(4L, "SUR-GLV-M", null, "Surgical Gloves", null));
+    }
+
+    @Test
+    void barcodeScanFindsTheItem() {
+        assertEquals(3L, catalog.findByBarcode("8901234500035"));
+        assertEquals(List.of(3L), ids(catalog.find("8901234500035", 10)));
+        assertNull(catalog.findByBarcode("0000000000000"));
+    }
+
+    @Test
+    void skuPrefixIsCaseInsensitive() {
+        assertEquals(List.of(1L, 2L), ids(catalog.find("med-pcm", 10)));
+    }
+
+    @Test
+    void everyQueryWordMustPrefixAWordOfTheEntry() {
+        assertEquals(List.of(1L), ids(catalog.find("para 500", 10)));
+        assertEquals(List.of(1L, 2L), ids(catalog.find("acetamin", 10)));
+    }
+
+    @Test
+    void textInTheMiddleOfAWordIsFoundThroughTrigrams() {
+        assertEquals(List.of(3L), ids(catalog.find("xicil", 10)));
+        assertTrue(catalog.find("xyz", 10).isEmpty());
+    }
+
+    @Test
+    void resultsStopAtTheLimit() {
+        assertEquals(1, catalog.find("paracetamol", 1).size());
+        assertTrue(catalog.find("paracetamol", 0).isEmpty());
+        assertTrue(catalog.find("  ", 10).isEmpty());
+    }
+
+    @Test
+    void putReplacesEveryKeyOfAnExistingEntry() {
+        catalog.put(new Match(1L, "MED-IBU-400", "8901234500042", "Ibuprofen 400mg", "Ibuprofen"));
+
+        assertNull(catalog.findByBarcode("8901234500011"));
+        assertEquals(1L, catalog.findByBarcode("8901234500042"));
+        assertEquals(List.of(2L), ids(catalog.find("paracetamol", 10)));
+        assertEquals(List.of(1L), ids(catalog.find("ibuprofen", 10)));
+        assertEquals(4, catalog.size());
+    }
+
+    @Test
+    void removeDropsTheEntryFromEveryLookup() {
+        catalog.remove(3L);
+
+        assertNull(catalog.findByBarcode("8901234500035"));
+        assertTrue(catalog.find("amox", 10).isEmpty());
+        assertTrue(catalog.find("xicil", 10).isEmpty());
+        assertTrue(catalog.find("MED-AMX", 10).isEmpty());
+        assertEquals(3, catalog.size());
+    }
+
+    private static List<Long> ids(List<Match> matches) {
+        return matches.stream().map(Match::id).toList();
+    }
+}
@@ -0,0 +1,91 @@
+package com.kaddy.service;
+
+import com.kaddy.service.ReorderForecastEngine.Forecast;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReorderForecastEngineTest {
+
+    private static final int LEAD_TIME = 7;
+    private static final int REVIEW_DAYS = 7;
+    private static final double Z = 1.65;
+
+    @Test
+    void steadyDemandCoversLeadTimeAndReviewPeriodWithoutSafetyStock() {
+        Forecast forecast = forecast(constant(120, 10));
+
+        assertEquals(10 * LEAD_TIME, forecast.reorderPoint(), 1);
+        assertEquals(10 * (LEAD_TIME + REVIEW_DAYS), forecast.orderUpTo(), 1);
+    }
+
+    @Test
+    void noDemandNeedsNoStock() {
+        Forecast forecast = forecast(new double[120]);
+
+        assertEquals(0, forecast.reorderPoint());
+        assertEquals(0, forecast.orderUpTo());
+    }
+
+    @Test
+    void risingDemandIsProjectedForwardRatherThanAveraged() {
+        double[] demand = new double[120];
+        for (int day = 0; day < demand.length; day++) {
+            demand[day] = day + 1;
+        }
+
+        Forecast forecast = forecast(demand);
+
+        // Even the latest day's demand held flat over the lead time would fall short of a trending forecast
+        assertTrue(forecast.reorderPoint() > 120 * LEAD_TIME, "reorder point " + forecast.reorderPoint());
+    }
+
+    @Test
+    void volatileDemandAddsSafetyStock() {
+        double[] volatileDemand = new double[120];
+        for (int day = 0; day < volatileDemand.length; day++) {
+            volatileDemand[day] = day % 2 == 0 ? 0 : 20;
+        }
+
+        Forecast steady = forecast(constant(120, 10));
+        Forecast erratic = forecast(volatileDemand);
+
+        assertTrue(erratic.reorderPoint() > steady.reorderPoint() + 10,
+                erratic.reorderPoint() + " vs " + steady.reorderPoint());
+        assertTrue(erratic.orderUpTo() > steady.orderUpTo());
+    }
+
+    @Test
+    void fallingDemandNeverForecastsNegativeConsumption() {
+        double[] demand = new double[120];
+        for (int day = 0; day < 60; day++) {
+            demand[day] = 60 - day;
+        }
+
+        Forecast forecast = forecast(demand);
+
+        assertTrue(forecast.reorderPoint() >= 0);
+        assertTrue(forecast.orderUpTo() >= forecast.reorderPoint());
+    }
+
+    @Test
+    void historyShorterThanTheWarmUpUsesItsAverage() {
+        Forecast forecast = forecast(new double[] {2, 4, 6});
+
+        assertEquals(4 * LEAD_TIME, forecast.reorderPoint(), 1);
+        assertEquals(4 * (LEAD_TIME + REVIEW_DAYS), forecast.orderUpTo(), 1);
+    }
+
+    private static Forecast forecast(double[] demand) {
+        return ReorderForecastEngine.forecast(demand, LEAD_TIME, REVIEW_DAYS, Z);
+    }
+
+    private static double[] constant(int days, double daily) {
+        double[] demand = new double[days];
+        Arrays.fill(demand, daily);
+        return demand;
+    }
+}
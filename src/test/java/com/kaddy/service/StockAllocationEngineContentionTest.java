@@ -0,0 +1,148 @@
+package com.kaddy.service;
+
+import com.kaddy.model.Hospital;
+import com.kaddy.model.InventoryItem;
+import com.kaddy.model.StockBatch;
+import com.kaddy.model.enums.InventoryCategory;
+import com.kaddy.repository.HospitalRepository;
+import com.kaddy.repository.InventoryItemRepository;
+import com.kaddy.repository.StockBatchRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs against a real PostgreSQL since the guarantees come from row locks and the native FEFO statement.
+// Needs Docker: mvn test -Pintegration-tests
+@Tag("integration")
+@Testcontainers
+@SpringBootTest
+@ActiveProfiles("dev")
+class StockAllocationEngineContentionTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private StockAllocationEngine stockAllocationEngine;
+
+    @Autowired
+    private HospitalRepository hospitalRepository;
+
+    @Autowired
+    private InventoryItemRepository inventoryItemRepository;
+
+    @Autowired
+    private StockBatchRepository stockBatchRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentDeductionsNeverOversellAndKeepBatchesInStepWithTheItem() throws Exception {
+        Long itemId = createItem(100, 60, 40);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int threads = 20;
+        int quantity = 7;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> outcomes = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            outcomes.add(executor.submit(() -> {
+                start.await();
+                try {
+                    transaction.executeWithoutResult(status -> stockAllocationEngine.allocate(itemId, quantity));
+                    return true;
+                } catch (IllegalStateException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+
+        int succeeded = 0;
+        for (Future<Boolean> outcome : outcomes) {
+            if (outcome.get(60, TimeUnit.SECONDS)) {
+                succeeded++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(100 / quantity, succeeded);
+        int remaining = inventoryItemRepository.findById(itemId).orElseThrow().getCurrentStock();
+        assertEquals(100 - succeeded * quantity, remaining);
+        assertEquals(remaining, stockBatchRepository.sumAvailableQuantity(itemId));
+        assertTrue(stockBatchRepository.findAll().stream().allMatch(batch -> batch.getCurrentQuantity() >= 0));
+    }
+
+    @Test
+    void deductionFailsAndRollsBackWhenBatchesHoldLessThanTheItem() {
+        Long itemId = createItem(10, 5);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        assertThrows(IllegalStateException.class,
+                () -> transaction.executeWithoutResult(status -> stockAllocationEngine.allocate(itemId, 8)));
+
+        assertEquals(10, inventoryItemRepository.findById(itemId).orElseThrow().getCurrentStock());
+        assertEquals(5, stockBatchRepository.sumAvailableQuantity(itemId));
+    }
+
+    private Long createItem(int currentStock, int... batchQuantities) {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Hospital hospital = new Hospital();
+        hospital.setName("Contention " + suffix);
+        hospital.setCode("CT-" + suffix);
+        hospital.setEmail(suffix + "@contention.test");
+        hospital.setTrialStartDate(LocalDateTime.now());
+        hospital.setTrialEndDate(LocalDateTime.now().plusDays(30));
+        hospital = hospitalRepository.save(hospital);
+
+        InventoryItem item = new InventoryItem();
+        item.setHospital(hospital);
+        item.setSku("SKU-" + suffix);
+        item.setName("Item " + suffix);
+        item.setCategory(InventoryCategory.MEDICINE);
+        item.setUnit("TAB");
+        item.setCurrentStock(currentStock);
+        item = inventoryItemRepository.save(item);
+
+        for (int i = 0; i < batchQuantities.length; i++) {
+            StockBatch batch = new StockBatch();
+            batch.setHospital(hospital);
+            batch.setInventoryItem(item);
+            batch.setBatchNumber("B" + i + "-" + suffix);
+            batch.setManufacturingDate(LocalDate.now().minusMonths(6));
+            batch.setExpiryDate(LocalDate.now().plusMonths(6 + i));
+            batch.setInitialQuantity(batchQuantities[i]);
+            batch.setCurrentQuantity(batchQuantities[i]);
+            batch.setPurchasePrice(BigDecimal.ONE);
+            stockBatchRepository.save(batch);
+        }
+        return item.getId();
+    }
+}
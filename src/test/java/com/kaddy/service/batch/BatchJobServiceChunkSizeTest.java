@@ -0,0 +1,52 @@
+package com.kaddy.service.batch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BatchJobServiceChunkSizeTest {
+
+    private static final long TARGET = 5000;
+
+    @Test
+    void slowChunkHalvesTheSize() {
+        assertEquals(250, BatchJobService.nextChunkSize(500, 500, 6000, TARGET));
+    }
+
+    @Test
+    void sizeNeverDropsBelowTheFloor() {
+        assertEquals(10, BatchJobService.nextChunkSize(15, 500, 6000, TARGET));
+        assertEquals(10, BatchJobService.nextChunkSize(10, 500, 60000, TARGET));
+    }
+
+    @Test
+    void floorDoesNotRaiseAJobConfiguredBelowIt() {
+        assertEquals(5, BatchJobService.nextChunkSize(5, 5, 6000, TARGET));
+    }
+
+    @Test
+    void fastChunkDoublesBackUpToTheConfiguredSize() {
+        assertEquals(200, BatchJobService.nextChunkSize(100, 500, 1000, TARGET));
+        assertEquals(500, BatchJobService.nextChunkSize(400, 500, 1000, TARGET));
+    }
+
+    @Test
+    void chunkNearTheTargetKeepsItsSize() {
+        assertEquals(100, BatchJobService.nextChunkSize(100, 500, 1250, TARGET));
+        assertEquals(100, BatchJobService.nextChunkSize(100, 500, 5000, TARGET));
+    }
+
+    @Test
+    void repeatedSlowChunksThenRecoveryReturnToTheConfiguredSize() {
+        int size = 500;
+        for (int i = 0; i < 10; i++) {
+            size = BatchJobService.nextChunkSize(size, 500, 8000, TARGET);
+        }
+        assertEquals(10, size);
+
+        for (int i = 0; i < 10; i++) {
+            size = BatchJobService.nextChunkSize(size, 500, 200, TARGET);
+        }
+        assertEquals(500, size);
+    }
+}
@@ -0,0 +1,115 @@
+package com.kaddy.service.imports;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImportFileReaderTest {
+
+    private static final String CSV = "\uFEFFName,Date of Birth,Notes\r\n"
+            + "Alice,1990-01-02,\"likes \"\"tea\"\", coffee\"\r\n"
+            + "\r\n"
+            + "Bob,1985-05-06,\"line one\nline two\"\r\n"
+            + "Carol,1970-01-01\r\n";
+
+    private static final String NDJSON = "\uFEFF{\"firstName\":\"Dana\",\"age\":41,\"notes\":null}\n"
+            + "\n"
+            + "{not json}\n"
+            + "{\"first_name\":\"Eli\",\"active\":true}\n";
+
+    private final ImportFileReader reader = new ImportFileReader(new ObjectMapper());
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void csvRowsAreKeyedByNormalisedHeaderAndHonourQuotes() throws IOException {
+        List<ImportRow> rows = reader.read(write("patients.csv", CSV), ImportFormat.CSV, 0, 0, 10);
+
+        assertEquals(3, rows.size());
+        ImportRow alice = rows.get(0);
+        assertEquals(2, alice.rowNumber());
+        assertEquals("Alice", alice.text("name"));
+        assertEquals("1990-01-02", alice.text("Date of Birth"));
+        assertEquals("likes \"tea\", coffee", alice.text("notes"));
+        assertNull(alice.parseError());
+
+        ImportRow bob = rows.get(1);
+        assertEquals(4, bob.rowNumber());
+        assertEquals("line one\nline two", bob.text("notes"));
+    }
+
+    @Test
+    void csvRowWithTheWrongNumberOfColumnsCarriesAnError() throws IOException {
+        ImportRow carol = reader.read(write("patients.csv", CSV), ImportFormat.CSV, 0, 0, 10).get(2);
+
+        assertEquals(5, carol.rowNumber());
+        assertEquals("Expected 3 columns but found 2", carol.parseError());
+        assertTrue(carol.values().isEmpty());
+    }
+
+    @Test
+    void readingResumesFromTheLastRowsEndOffset() throws IOException {
+        Path file = write("patients.csv", CSV);
+        List<ImportRow> all = reader.read(file, ImportFormat.CSV, 0, 0, 10);
+
+        List<ImportRow> first = reader.read(file, ImportFormat.CSV, 0, 0, 2);
+        ImportRow last = first.get(first.size() - 1);
+        List<ImportRow> rest = reader.read(file, ImportFormat.CSV, last.endOffset(), last.rowNumber(), 2);
+
+        assertEquals(all.subList(0, 2), first);
+        assertEquals(all.subList(2, 3), rest);
+        assertTrue(reader.read(file, ImportFormat.CSV, rest.get(0).endOffset(), 5, 2).isEmpty());
+        assertEquals(Files.size(file), rest.get(0).endOffset());
+    }
+
+    @Test
+    void ndjsonRowsAreParsedPerLine() throws IOException {
+        List<ImportRow> rows = reader.read(write("patients.ndjson", NDJSON), ImportFormat.NDJSON, 0, 0, 10);
+
+        assertEquals(3, rows.size());
+        ImportRow dana = rows.get(0);
+        assertEquals(1, dana.rowNumber());
+        assertEquals("Dana", dana.text("first_name"));
+        assertEquals("41", dana.text("age"));
+        assertFalse(dana.values().containsKey("notes"));
+
+        ImportRow invalid = rows.get(1);
+        assertEquals(3, invalid.rowNumber());
+        assertTrue(invalid.parseError().startsWith("Invalid JSON"));
+
+        ImportRow eli = rows.get(2);
+        assertEquals("Eli", eli.text("firstName"));
+        assertEquals(Boolean.TRUE, eli.bool("active"));
+    }
+
+    @Test
+    void countRowsSkipsBlankLinesAndTheCsvHeader() throws IOException {
+        assertEquals(3, reader.countRows(write("patients.csv", CSV), ImportFormat.CSV));
+        assertEquals(3, reader.countRows(write("patients.ndjson", NDJSON), ImportFormat.NDJSON));
+        assertEquals(0, reader.countRows(write("empty.csv", ""), ImportFormat.CSV));
+    }
+
+    @Test
+    void onlyPlainFileNamesResolve() {
+        assertThrows(IllegalArgumentException.class, () -> reader.resolve("../secrets.csv"));
+        assertThrows(IllegalArgumentException.class, () -> reader.resolve("patients.xlsx"));
+        assertThrows(IllegalArgumentException.class, () -> reader.resolve(null));
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(dir.resolve(name), content, StandardCharsets.UTF_8);
+    }
+}